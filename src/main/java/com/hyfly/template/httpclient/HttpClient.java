@@ -1,12 +1,30 @@
 package com.hyfly.template.httpclient;
 
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.cache.ObjectCache;
+import com.hyfly.template.httpclient.constants.HttpMethod;
 import com.hyfly.template.httpclient.core.HttpRestTemplate;
+import com.hyfly.template.httpclient.download.DownloadOptions;
+import com.hyfly.template.httpclient.download.DownloadResult;
 import com.hyfly.template.httpclient.factory.HttpClientFactory;
+import com.hyfly.template.httpclient.json.FieldSelection;
+import com.hyfly.template.httpclient.json.TypeReference;
 import com.hyfly.template.httpclient.model.Header;
 import com.hyfly.template.httpclient.model.HttpRestResult;
 import com.hyfly.template.httpclient.model.Query;
+import com.hyfly.template.httpclient.request.JsonStreamBody;
+import com.hyfly.template.httpclient.request.UploadBody;
+import com.hyfly.template.httpclient.stream.CloseableIterator;
+import com.hyfly.template.httpclient.upload.MultipartUploadOptions;
+import com.hyfly.template.httpclient.upload.UploadCompletion;
+import com.hyfly.template.httpclient.upload.UploadPart;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 /**
  * HTTP客户端入口类 提供简化的HTTP请求操作接口
  */
@@ -15,6 +33,7 @@ public class HttpClient {
 
     private final HttpRestTemplate restTemplate;
     private final String baseUrl;
+    private volatile ObjectCache objectCache;
 
     /**
      * 构造函数
@@ -46,6 +65,24 @@ public class HttpClient {
         return restTemplate;
     }
 
+    /**
+     * 设置反序列化结果缓存，GET请求命中时直接返回已解析的对象
+     *
+     * @param objectCache 结果缓存，为空时关闭
+     */
+    public void setObjectCache(ObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
+    /**
+     * 获取反序列化结果缓存
+     *
+     * @return 结果缓存
+     */
+    public ObjectCache getObjectCache() {
+        return objectCache;
+    }
+
     /**
      * GET请求
      *
@@ -73,6 +110,8 @@ public class HttpClient {
 
     /**
      * GET请求（完整参数）
+     * <p>
+     * 响应类型为 {@link PooledBuffer} 时不经过结果缓存，调用方使用完必须关闭。
      *
      * @param path         请求路径
      * @param header       请求头
@@ -84,6 +123,11 @@ public class HttpClient {
     public <T> HttpRestResult<T> get(String path, Header header, Query query, Class<T> responseType) {
         try {
             String fullUrl = buildFullUrl(path);
+            ObjectCache cache = this.objectCache;
+            if (cache != null && responseType != PooledBuffer.class) {
+                return cache.get(fullUrl, header, query, responseType,
+                        () -> restTemplate.get(fullUrl, header, query, responseType));
+            }
             return restTemplate.get(fullUrl, header, query, responseType);
         } catch (Exception e) {
             log.error("GET请求失败: {}", path, e);
@@ -91,6 +135,217 @@ public class HttpClient {
         }
     }
 
+    /**
+     * GET请求（泛型响应类型）
+     *
+     * @param path          请求路径
+     * @param typeReference 响应类型引用，如 {@code new TypeReference<List<Foo>>() {}}
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> get(String path, TypeReference<T> typeReference) {
+        return get(path, Header.newInstance(), new Query(), typeReference);
+    }
+
+    /**
+     * GET请求（泛型响应类型，完整参数）
+     *
+     * @param path          请求路径
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> get(String path, Header header, Query query, TypeReference<T> typeReference) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            ObjectCache cache = this.objectCache;
+            if (cache != null && typeReference.getType() != PooledBuffer.class) {
+                return cache.get(fullUrl, header, query, typeReference.getType(),
+                        () -> restTemplate.get(fullUrl, header, query, typeReference));
+            }
+            return restTemplate.get(fullUrl, header, query, typeReference);
+        } catch (Exception e) {
+            log.error("GET请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * GET请求，只提取选择的字段
+     * <p>
+     * 始终请求JSON；提前停止读取需要类路径中有Jackson，见 {@link HttpRestTemplate#extract}。
+     *
+     * @param path      请求路径
+     * @param selection 字段选择
+     * @return 响应结果，数据为选择器到值的映射
+     */
+    public HttpRestResult<Map<String, Object>> extract(String path, FieldSelection selection) {
+        return extract(path, Header.newInstance(), new Query(), selection);
+    }
+
+    /**
+     * GET请求，只提取选择的字段（完整参数）
+     *
+     * @param path      请求路径
+     * @param header    请求头
+     * @param query     查询参数
+     * @param selection 字段选择
+     * @return 响应结果，数据为选择器到值的映射
+     */
+    public HttpRestResult<Map<String, Object>> extract(String path, Header header, Query query,
+                                                       FieldSelection selection) {
+        try {
+            return restTemplate.extract(buildFullUrl(path), header, query, selection);
+        } catch (Exception e) {
+            log.error("GET字段提取请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 下载到文件
+     *
+     * @param path   请求路径
+     * @param target 目标文件
+     * @return 响应结果，成功时数据为下载结果
+     */
+    public HttpRestResult<DownloadResult> download(String path, Path target) {
+        return download(path, Header.newInstance(), new Query(), target, DownloadOptions.defaults());
+    }
+
+    /**
+     * 下载到文件（完整参数）
+     *
+     * @param path    请求路径
+     * @param header  请求头
+     * @param query   查询参数
+     * @param target  目标文件
+     * @param options 下载选项
+     * @return 响应结果，成功时数据为下载结果
+     */
+    public HttpRestResult<DownloadResult> download(String path, Header header, Query query, Path target,
+                                                   DownloadOptions options) {
+        try {
+            return restTemplate.download(buildFullUrl(path), header, query, target, options);
+        } catch (Exception e) {
+            log.error("下载失败: {} -> {}", path, target, e);
+            return HttpRestResult.failure(500, "下载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 分段并发下载到文件，支持断点续传
+     *
+     * @param path    请求路径
+     * @param header  请求头
+     * @param query   查询参数
+     * @param target  目标文件
+     * @param options 下载选项
+     * @return 响应结果，成功时数据为下载结果
+     */
+    public HttpRestResult<DownloadResult> downloadSegmented(String path, Header header, Query query, Path target,
+                                                            DownloadOptions options) {
+        try {
+            return restTemplate.downloadSegmented(buildFullUrl(path), header, query, target, options);
+        } catch (Exception e) {
+            log.error("分段下载失败: {} -> {}", path, target, e);
+            return HttpRestResult.failure(500, "下载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * GET请求，逐个读取顶层JSON数组的元素
+     *
+     * @param path        请求路径
+     * @param elementType 元素类型
+     * @param <T>         元素类型
+     * @return 响应结果，成功时数据为元素迭代器，提前结束时必须关闭
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getStream(String path, Class<T> elementType) {
+        return getStream(path, Header.newInstance(), new Query(), elementType);
+    }
+
+    /**
+     * GET请求，逐个读取顶层JSON数组的元素（完整参数）
+     *
+     * @param path        请求路径
+     * @param header      请求头
+     * @param query       查询参数
+     * @param elementType 元素类型
+     * @param <T>         元素类型
+     * @return 响应结果，成功时数据为元素迭代器，提前结束时必须关闭
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getStream(String path, Header header, Query query,
+                                                             Class<T> elementType) {
+        try {
+            return restTemplate.getStream(buildFullUrl(path), header, query, elementType);
+        } catch (Exception e) {
+            log.error("GET流式请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * GET请求，逐个读取顶层JSON数组的元素（泛型元素类型）
+     *
+     * @param path          请求路径
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 元素类型引用
+     * @param <T>           元素类型
+     * @return 响应结果，成功时数据为元素迭代器，提前结束时必须关闭
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getStream(String path, Header header, Query query,
+                                                             TypeReference<T> typeReference) {
+        try {
+            return restTemplate.getStream(buildFullUrl(path), header, query, typeReference);
+        } catch (Exception e) {
+            log.error("GET流式请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * GET请求，逐条读取NDJSON（JSON Lines）响应
+     *
+     * @param path       请求路径
+     * @param header     请求头
+     * @param query      查询参数
+     * @param recordType 记录类型
+     * @param <T>        记录类型
+     * @return 响应结果，成功时数据为记录迭代器，提前结束时必须关闭
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getNdjson(String path, Header header, Query query,
+                                                             Class<T> recordType) {
+        try {
+            return restTemplate.getNdjson(buildFullUrl(path), header, query, recordType);
+        } catch (Exception e) {
+            log.error("GET NDJSON请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * GET请求，逐条读取NDJSON响应并交给回调处理
+     *
+     * @param path       请求路径
+     * @param recordType 记录类型
+     * @param consumer   记录回调
+     * @param <T>        记录类型
+     * @return 响应结果，成功时数据为处理的记录数
+     */
+    public <T> HttpRestResult<Long> getNdjson(String path, Class<T> recordType, Consumer<? super T> consumer) {
+        try {
+            return restTemplate.getNdjson(buildFullUrl(path), Header.newInstance(), new Query(), recordType,
+                    consumer);
+        } catch (Exception e) {
+            log.error("GET NDJSON请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
     /**
      * POST JSON请求
      *
@@ -117,7 +372,120 @@ public class HttpClient {
     public <T> HttpRestResult<T> postJson(String path, Header header, Object body, Class<T> responseType) {
         try {
             String fullUrl = buildFullUrl(path);
-            return restTemplate.postJson(fullUrl, header, body, responseType);
+            return invalidateOnSuccess(fullUrl, restTemplate.postJson(fullUrl, header, body, responseType));
+        } catch (Exception e) {
+            log.error("POST JSON请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * POST流式记录请求
+     *
+     * @param path         请求路径
+     * @param body         流式记录请求体
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> postStream(String path, JsonStreamBody body, Class<T> responseType) {
+        return postStream(path, Header.newInstance(), body, responseType);
+    }
+
+    /**
+     * POST流式记录请求（带请求头）
+     *
+     * @param path         请求路径
+     * @param header       请求头
+     * @param body         流式记录请求体
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> postStream(String path, Header header, JsonStreamBody body, Class<T> responseType) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            return invalidateOnSuccess(fullUrl, restTemplate.postStream(fullUrl, header, body, responseType));
+        } catch (Exception e) {
+            log.error("POST流式请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * POST流式上传请求
+     *
+     * @param path         请求路径
+     * @param body         上传请求体，如 {@code UploadBody.of(file)}
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> upload(String path, UploadBody body, Class<T> responseType) {
+        return upload(path, HttpMethod.POST, Header.newInstance(), body, responseType);
+    }
+
+    /**
+     * 流式上传请求（指定请求方法和请求头）
+     *
+     * @param path         请求路径
+     * @param httpMethod   请求方法，通常为POST或PUT
+     * @param header       请求头
+     * @param body         上传请求体
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> upload(String path, String httpMethod, Header header, UploadBody body,
+                                        Class<T> responseType) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            return invalidateOnSuccess(fullUrl,
+                    restTemplate.upload(fullUrl, httpMethod, header, null, body, responseType));
+        } catch (Exception e) {
+            log.error("上传请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 分片并发上传文件
+     *
+     * @param file       文件
+     * @param httpMethod 分片请求方法，通常为PUT
+     * @param header     分片请求头
+     * @param partPath   分片的请求路径
+     * @param options    上传选项
+     * @param completion 全部分片成功后的完成回调
+     * @param <R>        完成结果类型
+     * @return 响应结果，成功时数据为完成回调的结果
+     */
+    public <R> HttpRestResult<R> uploadMultipart(Path file, String httpMethod, Header header,
+                                                 Function<UploadPart, String> partPath, MultipartUploadOptions options,
+                                                 UploadCompletion<R> completion) {
+        try {
+            return restTemplate.uploadMultipart(file, httpMethod, header, part -> buildFullUrl(partPath.apply(part)),
+                    options, completion);
+        } catch (Exception e) {
+            log.error("分片上传失败: {}", file, e);
+            return HttpRestResult.failure(500, "上传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * POST JSON请求（泛型响应类型）
+     *
+     * @param path          请求路径
+     * @param header        请求头
+     * @param body          请求体
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> postJson(String path, Header header, Object body, TypeReference<T> typeReference) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            return invalidateOnSuccess(fullUrl, restTemplate.postJson(fullUrl, header, body, typeReference));
         } catch (Exception e) {
             log.error("POST JSON请求失败: {}", path, e);
             return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
@@ -150,7 +518,7 @@ public class HttpClient {
     public <T> HttpRestResult<T> postForm(String path, Header header, Object body, Class<T> responseType) {
         try {
             String fullUrl = buildFullUrl(path);
-            return restTemplate.postForm(fullUrl, header, body, responseType);
+            return invalidateOnSuccess(fullUrl, restTemplate.postForm(fullUrl, header, body, responseType));
         } catch (Exception e) {
             log.error("POST表单请求失败: {}", path, e);
             return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
@@ -183,7 +551,27 @@ public class HttpClient {
     public <T> HttpRestResult<T> putJson(String path, Header header, Object body, Class<T> responseType) {
         try {
             String fullUrl = buildFullUrl(path);
-            return restTemplate.putJson(fullUrl, header, body, responseType);
+            return invalidateOnSuccess(fullUrl, restTemplate.putJson(fullUrl, header, body, responseType));
+        } catch (Exception e) {
+            log.error("PUT JSON请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * PUT JSON请求（泛型响应类型）
+     *
+     * @param path          请求路径
+     * @param header        请求头
+     * @param body          请求体
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> putJson(String path, Header header, Object body, TypeReference<T> typeReference) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            return invalidateOnSuccess(fullUrl, restTemplate.putJson(fullUrl, header, body, typeReference));
         } catch (Exception e) {
             log.error("PUT JSON请求失败: {}", path, e);
             return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
@@ -228,13 +616,44 @@ public class HttpClient {
     public <T> HttpRestResult<T> delete(String path, Header header, Query query, Class<T> responseType) {
         try {
             String fullUrl = buildFullUrl(path);
-            return restTemplate.delete(fullUrl, header, query, responseType);
+            return invalidateOnSuccess(fullUrl, restTemplate.delete(fullUrl, header, query, responseType));
         } catch (Exception e) {
             log.error("DELETE请求失败: {}", path, e);
             return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
         }
     }
 
+    /**
+     * DELETE请求（泛型响应类型）
+     *
+     * @param path          请求路径
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     */
+    public <T> HttpRestResult<T> delete(String path, Header header, Query query, TypeReference<T> typeReference) {
+        try {
+            String fullUrl = buildFullUrl(path);
+            return invalidateOnSuccess(fullUrl, restTemplate.delete(fullUrl, header, query, typeReference));
+        } catch (Exception e) {
+            log.error("DELETE请求失败: {}", path, e);
+            return HttpRestResult.failure(500, "请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 修改类请求成功后使该URL的缓存结果失效
+     */
+    private <T> HttpRestResult<T> invalidateOnSuccess(String fullUrl, HttpRestResult<T> result) {
+        ObjectCache cache = this.objectCache;
+        if (cache != null && result.isSuccess()) {
+            cache.invalidate(fullUrl);
+        }
+        return result;
+    }
+
     /**
      * 构建完整URL
      *
@@ -0,0 +1,143 @@
+package com.hyfly.template.httpclient.benchmark;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorRegistry;
+import com.hyfly.template.httpclient.json.TypeReference;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 数据格式基准测试 比较JSON与各二进制格式（JSONB、Smile、CBOR、MessagePack）的编码大小和编解码耗时
+ * <p>
+ * 类路径中不存在的格式会被跳过。
+ */
+@Slf4j
+public class PayloadFormatBenchmark {
+
+    private static final int ITEM_COUNT = 200;
+    private static final int WARM_UP_ROUNDS = 2_000;
+    private static final int ROUNDS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        List<Item> payload = createPayload();
+        Type type = new TypeReference<List<Item>>() {
+        }.getType();
+
+        JsonProcessorRegistry registry = JsonProcessorRegistry.global();
+        Map<String, JsonProcessor> processors = new TreeMap<>();
+        processors.put("json", registry.getDefaultProcessor());
+        for (String name : new String[]{JsonProcessorRegistry.JSONB, JsonProcessorRegistry.SMILE,
+                JsonProcessorRegistry.CBOR, JsonProcessorRegistry.MSGPACK}) {
+            if (registry.contains(name)) {
+                processors.put(name, registry.getProcessor(name));
+            }
+        }
+
+        log.info("开始数据格式基准测试");
+        log.info("元素数: {}，轮数: {}", ITEM_COUNT, ROUNDS);
+        log.info("========================================");
+        for (Map.Entry<String, JsonProcessor> entry : processors.entrySet()) {
+            printBenchmarkResult(runBenchmark(entry.getKey(), entry.getValue(), payload, type));
+        }
+        log.info("基准测试完成");
+    }
+
+    /**
+     * 运行基准测试
+     */
+    private static BenchmarkResult runBenchmark(String name, JsonProcessor processor, Object payload, Type type)
+            throws Exception {
+        byte[] encoded = encode(processor, payload);
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            processor.parseObject(new ByteArrayInputStream(encode(processor, payload)), type);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            encode(processor, payload);
+            long encodedAt = System.nanoTime();
+            processor.parseObject(new ByteArrayInputStream(encoded), type);
+            long decoded = System.nanoTime();
+            encodeNanos += encodedAt - start;
+            decodeNanos += decoded - encodedAt;
+        }
+
+        BenchmarkResult result = new BenchmarkResult();
+        result.name = name + " (" + processor.getMediaType() + ")";
+        result.size = encoded.length;
+        result.avgEncodeMicros = encodeNanos / 1000.0 / ROUNDS;
+        result.avgDecodeMicros = decodeNanos / 1000.0 / ROUNDS;
+        return result;
+    }
+
+    private static byte[] encode(JsonProcessor processor, Object payload) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(16 * 1024);
+        processor.writeTo(payload, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 构造测试数据：包含字符串、数值、布尔和嵌套列表的典型业务对象
+     */
+    private static List<Item> createPayload() {
+        List<Item> items = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Item item = new Item();
+            item.setId(100_000L + i);
+            item.setName("item-" + i);
+            item.setPrice(i * 1.25);
+            item.setStock(i % 50);
+            item.setEnabled(i % 3 != 0);
+            List<String> tags = new ArrayList<>();
+            tags.add("tag-" + (i % 7));
+            tags.add("category-" + (i % 11));
+            item.setTags(tags);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * 打印基准测试结果
+     */
+    private static void printBenchmarkResult(BenchmarkResult result) {
+        log.info("格式: {}", result.name);
+        log.info("编码大小: {} 字节", result.size);
+        log.info("平均编码耗时: {} μs", String.format("%.2f", result.avgEncodeMicros));
+        log.info("平均解码耗时: {} μs", String.format("%.2f", result.avgDecodeMicros));
+        log.info("========================================");
+    }
+
+    /**
+     * 测试数据
+     */
+    @Data
+    public static class Item {
+        private long id;
+        private String name;
+        private double price;
+        private int stock;
+        private boolean enabled;
+        private List<String> tags;
+    }
+
+    /**
+     * 基准测试结果
+     */
+    private static class BenchmarkResult {
+        String name;
+        int size;
+        double avgEncodeMicros;
+        double avgDecodeMicros;
+    }
+}
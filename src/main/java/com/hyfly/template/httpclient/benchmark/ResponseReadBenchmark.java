@@ -0,0 +1,179 @@
+package com.hyfly.template.httpclient.benchmark;
+
+import com.google.common.io.CharStreams;
+import com.hyfly.template.httpclient.buffer.ByteBufferPool;
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorFactory;
+import com.hyfly.template.httpclient.json.TypeReference;
+import com.hyfly.template.httpclient.response.ResponseBodyReader;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 响应读取基准测试 比较逐步扩容的CharStreams读取与池化缓冲区读取的每次分配字节数和耗时
+ * <p>
+ * 响应体以8KB一块的输入流模拟网络读取，分别测试有Content-Length和依靠端点学习预分配两种情况。
+ * 分配字节数来自 {@code com.sun.management.ThreadMXBean}，不支持的JVM上只输出耗时。
+ */
+@Slf4j
+public class ResponseReadBenchmark {
+
+    private static final int[] ITEM_COUNTS = {50, 500, 5_000};
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int WARM_UP_ROUNDS = 2_000;
+    private static final int ROUNDS = 2_000;
+    private static final String ENDPOINT = "benchmark/items";
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    public static void main(String[] args) throws Exception {
+        JsonProcessor processor = JsonProcessorFactory.getDefaultProcessor();
+        ResponseBodyReader reader = new ResponseBodyReader(ByteBufferPool.shared());
+        Type type = new TypeReference<List<Item>>() {
+        }.getType();
+
+        log.info("开始响应读取基准测试");
+        log.info("轮数: {}，分配统计: {}", ROUNDS, THREAD_BEAN != null ? "支持" : "不支持");
+        log.info("========================================");
+        for (int itemCount : ITEM_COUNTS) {
+            byte[] payload = createPayload(processor, itemCount);
+            log.info("响应体大小: {} 字节", payload.length);
+            printBenchmarkResult(runBenchmark("字符串 CharStreams", () ->
+                    CharStreams.toString(new InputStreamReader(chunked(payload), StandardCharsets.UTF_8))));
+            printBenchmarkResult(runBenchmark("字符串 池化+Content-Length", () -> {
+                try (PooledBuffer body = reader.read(chunked(payload), payload.length, null)) {
+                    return body.decode(StandardCharsets.UTF_8);
+                }
+            }));
+            printBenchmarkResult(runBenchmark("字符串 池化+端点学习", () -> {
+                try (PooledBuffer body = reader.read(chunked(payload), -1, ENDPOINT + itemCount)) {
+                    return body.decode(StandardCharsets.UTF_8);
+                }
+            }));
+            printBenchmarkResult(runBenchmark("对象 流式解码", () ->
+                    processor.parseObject(chunked(payload), type)));
+            printBenchmarkResult(runBenchmark("对象 池化+Content-Length", () -> {
+                try (PooledBuffer body = reader.read(chunked(payload), payload.length, null)) {
+                    ByteBuffer buffer = body.buffer();
+                    return processor.parseObject(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                            buffer.remaining(), type);
+                }
+            }));
+            log.info("========================================");
+        }
+        log.info("基准测试完成");
+    }
+
+    /**
+     * 运行基准测试
+     */
+    private static BenchmarkResult runBenchmark(String name, Task task) throws Exception {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            task.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREAD_BEAN != null ? THREAD_BEAN.getThreadAllocatedBytes(threadId) : 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = THREAD_BEAN != null ? THREAD_BEAN.getThreadAllocatedBytes(threadId) : 0;
+
+        BenchmarkResult result = new BenchmarkResult();
+        result.name = name;
+        result.avgMicros = elapsed / 1000.0 / ROUNDS;
+        result.avgAllocatedBytes = THREAD_BEAN != null ? (allocatedAfter - allocatedBefore) / ROUNDS : -1;
+        return result;
+    }
+
+    /**
+     * 每次最多返回一块数据的输入流，模拟从网络读取
+     */
+    private static InputStream chunked(byte[] payload) {
+        return new ByteArrayInputStream(payload) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, CHUNK_SIZE));
+            }
+        };
+    }
+
+    private static byte[] createPayload(JsonProcessor processor, int itemCount) throws Exception {
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Item item = new Item();
+            item.setId(100_000L + i);
+            item.setName("item-" + i);
+            item.setDescription("响应读取基准测试数据-" + i);
+            item.setPrice(i * 1.25);
+            item.setEnabled(i % 3 != 0);
+            items.add(item);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.writeTo(items, output);
+        return output.toByteArray();
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+                if (threadBean.isThreadAllocatedMemorySupported()) {
+                    threadBean.setThreadAllocatedMemoryEnabled(true);
+                    return threadBean;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // 非HotSpot JVM，只统计耗时
+        }
+        return null;
+    }
+
+    /**
+     * 打印基准测试结果
+     */
+    private static void printBenchmarkResult(BenchmarkResult result) {
+        log.info("{}: 平均耗时 {} μs，平均分配 {} 字节", result.name,
+                String.format("%.2f", result.avgMicros), result.avgAllocatedBytes);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        Object run() throws Exception;
+    }
+
+    /**
+     * 测试数据
+     */
+    @Data
+    public static class Item {
+        private long id;
+        private String name;
+        private String description;
+        private double price;
+        private boolean enabled;
+    }
+
+    /**
+     * 基准测试结果
+     */
+    private static class BenchmarkResult {
+        String name;
+        double avgMicros;
+        long avgAllocatedBytes;
+    }
+}
@@ -0,0 +1,143 @@
+package com.hyfly.template.httpclient.buffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓冲区泄漏检测 按采样间隔记录 {@link PooledBuffer} 的分配位置，缓冲区没有释放就被回收时输出分配位置
+ * <p>
+ * 被采样的缓冲区关联一个虚引用，释放时解除关联；缓冲区被回收而虚引用仍在，说明持有者忘了释放，
+ * 池化的缓冲区因此没有归还，堆外内存要等GC回收包装对象后才释放。检测在申请新缓冲区时进行，不使用后台线程。
+ * <p>
+ * 默认每128个缓冲区采样一个，可以通过系统属性 {@code httpclient.buffer.leakSamplingInterval} 或
+ * {@link #setSamplingInterval} 调整，1表示记录全部，0表示关闭。
+ */
+@Slf4j
+public final class BufferLeakDetector {
+
+    private static final int DEFAULT_SAMPLING_INTERVAL = 128;
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    private static final Set<Tracker> TRACKERS = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong LEAKS = new AtomicLong();
+
+    private static volatile int samplingInterval =
+            Integer.getInteger("httpclient.buffer.leakSamplingInterval", DEFAULT_SAMPLING_INTERVAL);
+
+    private BufferLeakDetector() {
+    }
+
+    /**
+     * 设置采样间隔
+     *
+     * @param samplingInterval 每多少个缓冲区记录一个，1表示全部，0表示关闭检测
+     */
+    public static void setSamplingInterval(int samplingInterval) {
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException("采样间隔不能为负数: " + samplingInterval);
+        }
+        BufferLeakDetector.samplingInterval = samplingInterval;
+    }
+
+    public static int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * 获取已发现的泄漏数量，只统计被采样的缓冲区
+     *
+     * @return 泄漏数量
+     */
+    public static long getLeakCount() {
+        return LEAKS.get();
+    }
+
+    /**
+     * 获取正在跟踪、尚未释放的缓冲区数量
+     *
+     * @return 跟踪数量
+     */
+    public static int getTrackedCount() {
+        return TRACKERS.size();
+    }
+
+    /**
+     * 检查已回收但未释放的缓冲区并输出分配位置
+     */
+    public static void report() {
+        Reference<?> reference;
+        while ((reference = QUEUE.poll()) != null) {
+            Tracker tracker = (Tracker) reference;
+            if (TRACKERS.remove(tracker)) {
+                LEAKS.incrementAndGet();
+                log.error("PooledBuffer未释放就被回收，{} 字节的缓冲区没有归还，请检查分配位置是否调用了close或release",
+                        tracker.size, tracker.allocation);
+            }
+        }
+    }
+
+    /**
+     * 按采样间隔开始跟踪缓冲区
+     *
+     * @param buffer 缓冲区
+     * @param size   数据长度
+     * @return 跟踪记录，未被采样时返回null
+     */
+    static Tracker track(PooledBuffer buffer, int size) {
+        report();
+        int interval = samplingInterval;
+        if (interval <= 0 || interval > 1 && ThreadLocalRandom.current().nextInt(interval) != 0) {
+            return null;
+        }
+        Tracker tracker = new Tracker(buffer, size);
+        TRACKERS.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * 一个被采样缓冲区的跟踪记录
+     */
+    static final class Tracker extends PhantomReference<Object> {
+
+        private final int size;
+        private final Throwable allocation;
+
+        private Tracker(PooledBuffer buffer, int size) {
+            super(buffer, QUEUE);
+            this.size = size;
+            this.allocation = new Throwable("分配位置，线程: " + Thread.currentThread().getName());
+            allocation.setStackTrace(trim(allocation.getStackTrace()));
+        }
+
+        /**
+         * 去掉检测器和缓冲区自身的栈帧，第一帧即为分配缓冲区的调用方
+         */
+        private static StackTraceElement[] trim(StackTraceElement[] stackTrace) {
+            int start = 0;
+            while (start < stackTrace.length && isInternal(stackTrace[start].getClassName())) {
+                start++;
+            }
+            return Arrays.copyOfRange(stackTrace, start, stackTrace.length);
+        }
+
+        private static boolean isInternal(String className) {
+            return className.startsWith(BufferLeakDetector.class.getName())
+                    || className.equals(PooledBuffer.class.getName());
+        }
+
+        /**
+         * 缓冲区已释放，停止跟踪
+         */
+        void close() {
+            TRACKERS.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.hyfly.template.httpclient.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 按大小分级的ByteBuffer池 线程安全
+ * <p>
+ * 容量按2的幂分级，从最小级别到最大级别，申请时向上取整到所在级别；超过最大级别的申请直接分配，归还时丢弃。
+ * 每个级别最多保留 {@code maxRetainedBytesPerClass} 字节的空闲缓冲区（至少一个），多余的归还直接丢弃交给GC。
+ * 池中的缓冲区要么都是堆内的，要么都是堆外的。
+ */
+public class ByteBufferPool {
+
+    private static final ByteBufferPool SHARED = new ByteBufferPool(false, 1 << 12, 1 << 22, 1 << 22);
+    private static final ByteBufferPool SHARED_DIRECT = new ByteBufferPool(true, 1 << 13, 1 << 24, 1 << 25);
+
+    private final boolean direct;
+    private final int minShift;
+    private final int maxBufferSize;
+    private final ArrayBlockingQueue<ByteBuffer>[] classes;
+
+    /**
+     * @param direct                   是否使用堆外缓冲区
+     * @param minBufferSize            最小级别的容量，向上取整为2的幂
+     * @param maxBufferSize            最大级别的容量，向上取整为2的幂
+     * @param maxRetainedBytesPerClass 每个级别最多保留的空闲字节数
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ByteBufferPool(boolean direct, int minBufferSize, int maxBufferSize, long maxRetainedBytesPerClass) {
+        if (minBufferSize <= 0 || maxBufferSize < minBufferSize || maxBufferSize > 1 << 30) {
+            throw new IllegalArgumentException("缓冲区容量范围不合法: " + minBufferSize + " - " + maxBufferSize);
+        }
+        this.direct = direct;
+        this.minShift = shiftFor(minBufferSize);
+        int maxShift = shiftFor(maxBufferSize);
+        this.maxBufferSize = 1 << maxShift;
+        this.classes = new ArrayBlockingQueue[maxShift - minShift + 1];
+        for (int i = 0; i < classes.length; i++) {
+            long retained = Math.max(1, maxRetainedBytesPerClass >> (minShift + i));
+            classes[i] = new ArrayBlockingQueue<>((int) Math.min(retained, 1 << 16));
+        }
+    }
+
+    /**
+     * 获取共享的堆内缓冲区池，级别从4KB到4MB，每级最多保留4MB
+     *
+     * @return 共享的缓冲区池
+     */
+    public static ByteBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * 获取共享的堆外缓冲区池，级别从8KB到16MB，每级最多保留32MB
+     * <p>
+     * 用于较大的响应体，数据不进入GC管理的堆，不会因短暂持有而晋升到老年代；堆外内存由
+     * {@code -XX:MaxDirectMemorySize} 限制，超过16MB的缓冲区不保留，由GC回收包装对象时释放。
+     *
+     * @return 共享的堆外缓冲区池
+     */
+    public static ByteBufferPool sharedDirect() {
+        return SHARED_DIRECT;
+    }
+
+    /**
+     * 申请缓冲区，返回的缓冲区已清空，容量不小于申请的大小
+     *
+     * @param minCapacity 最小容量
+     * @return 缓冲区
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > maxBufferSize) {
+            return allocate(minCapacity);
+        }
+        int index = indexFor(minCapacity);
+        ByteBuffer buffer = classes[index].poll();
+        if (buffer == null) {
+            return allocate(1 << (minShift + index));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，归还后调用方不能再使用它；不是从本池申请的缓冲区直接丢弃
+     *
+     * @param buffer 缓冲区
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        if (capacity > maxBufferSize || Integer.bitCount(capacity) != 1 || capacity < 1 << minShift) {
+            return;
+        }
+        classes[Integer.numberOfTrailingZeros(capacity) - minShift].offer(buffer);
+    }
+
+    /**
+     * 是否使用堆外缓冲区
+     *
+     * @return 是否堆外
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * 获取最大级别的容量，超过该容量的缓冲区不会被池保留
+     *
+     * @return 最大级别的容量
+     */
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    /**
+     * 获取池中空闲缓冲区的总字节数
+     *
+     * @return 空闲字节数
+     */
+    public long getRetainedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < classes.length; i++) {
+            bytes += (long) classes[i].size() << (minShift + i);
+        }
+        return bytes;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private int indexFor(int capacity) {
+        return Math.max(0, shiftFor(capacity) - minShift);
+    }
+
+    private static int shiftFor(int capacity) {
+        return capacity <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+}
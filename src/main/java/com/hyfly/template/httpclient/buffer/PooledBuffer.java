@@ -0,0 +1,226 @@
+package com.hyfly.template.httpclient.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 从 {@link ByteBufferPool} 申请的数据缓冲区 引用计数归零时归还给池
+ * <p>
+ * 创建时引用计数为1，{@link #close()} 释放创建者持有的这一次引用，重复关闭无效。需要把缓冲区交给其他线程或组件时，
+ * 先 {@link #retain()}，对方用完后 {@link #release()}，最后一次释放才归还缓冲区。引用计数是线程安全的，
+ * 数据访问不是；数据从position到limit，归还后不能再访问缓冲区。
+ * <p>
+ * 部分缓冲区按采样记录分配位置，未释放就被回收时由 {@link BufferLeakDetector} 输出。
+ * <p>
+ * 超过内存阈值的响应体溢出到临时文件，缓冲区是该文件的只读内存映射，读取方式不变；关闭时删除临时文件，
+ * 映射本身在缓冲区被回收后释放。
+ * <p>
+ * 作为响应类型时调用方独占缓冲区，使用完必须关闭；这类结果不经过响应缓存和请求合并。
+ */
+public final class PooledBuffer implements Closeable {
+
+    private static final AtomicIntegerFieldUpdater<PooledBuffer> REF_CNT =
+            AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "refCnt");
+    private static final AtomicIntegerFieldUpdater<PooledBuffer> CLOSED =
+            AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "closed");
+
+    private final ByteBufferPool pool;
+    private final Path spillFile;
+    private final BufferLeakDetector.Tracker leak;
+    private ByteBuffer buffer;
+    private volatile int refCnt = 1;
+    private volatile int closed;
+
+    /**
+     * @param pool   缓冲区所属的池
+     * @param buffer 已写入数据并翻转为读模式的缓冲区
+     */
+    public PooledBuffer(ByteBufferPool pool, ByteBuffer buffer) {
+        this(pool, null, buffer);
+    }
+
+    private PooledBuffer(ByteBufferPool pool, Path spillFile, ByteBuffer buffer) {
+        this.pool = pool;
+        this.spillFile = spillFile;
+        this.buffer = buffer;
+        this.leak = BufferLeakDetector.track(this, buffer.remaining());
+    }
+
+    /**
+     * 包装溢出到临时文件的数据
+     *
+     * @param spillFile 临时文件，关闭时删除
+     * @param mapped    临时文件的只读映射
+     * @return PooledBuffer
+     */
+    public static PooledBuffer spilled(Path spillFile, ByteBuffer mapped) {
+        return new PooledBuffer(null, spillFile, mapped);
+    }
+
+    /**
+     * 数据是否溢出到了临时文件
+     *
+     * @return 是否溢出
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * 获取数据缓冲区，不能在关闭后继续持有
+     *
+     * @return 数据缓冲区
+     */
+    public ByteBuffer buffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("缓冲区已归还");
+        }
+        return buffer;
+    }
+
+    /**
+     * 获取数据的只读视图，position独立于内部缓冲区
+     *
+     * @return 只读缓冲区
+     */
+    public ByteBuffer readOnlyBuffer() {
+        return buffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * 获取数据长度
+     *
+     * @return 字节数
+     */
+    public int size() {
+        return buffer().remaining();
+    }
+
+    /**
+     * 复制数据为恰好等长的字节数组
+     *
+     * @return 字节数组
+     */
+    public byte[] toByteArray() {
+        ByteBuffer data = buffer();
+        if (data.hasArray()) {
+            int offset = data.arrayOffset() + data.position();
+            return Arrays.copyOfRange(data.array(), offset, offset + data.remaining());
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 按字符集解码数据为字符串
+     *
+     * @param charset 字符集
+     * @return 字符串
+     */
+    public String decode(Charset charset) {
+        ByteBuffer data = buffer();
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + data.position(), data.remaining(), charset);
+        }
+        return charset.decode(data.duplicate()).toString();
+    }
+
+    /**
+     * 把数据原样写入输出流，用于转发响应体，不会关闭输出流
+     *
+     * @param output 输出流
+     * @throws IOException 写入失败
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        ByteBuffer data = buffer();
+        if (data.hasArray()) {
+            output.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            Channels.newChannel(output).write(data.duplicate());
+        }
+    }
+
+    /**
+     * 获取当前的引用计数
+     *
+     * @return 引用计数，0表示已归还
+     */
+    public int refCnt() {
+        return refCnt;
+    }
+
+    /**
+     * 增加一次引用，每次增加都要对应一次 {@link #release()}
+     *
+     * @return 当前缓冲区
+     */
+    public PooledBuffer retain() {
+        while (true) {
+            int current = refCnt;
+            if (current <= 0) {
+                throw new IllegalStateException("缓冲区已归还");
+            }
+            if (current == Integer.MAX_VALUE) {
+                throw new IllegalStateException("引用计数溢出");
+            }
+            if (REF_CNT.compareAndSet(this, current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * 释放一次引用，引用计数归零时归还缓冲区
+     *
+     * @return 是否归还了缓冲区
+     */
+    public boolean release() {
+        int remaining = REF_CNT.decrementAndGet(this);
+        if (remaining > 0) {
+            return false;
+        }
+        if (remaining < 0) {
+            REF_CNT.incrementAndGet(this);
+            throw new IllegalStateException("缓冲区已归还");
+        }
+        deallocate();
+        return true;
+    }
+
+    /**
+     * 释放创建者持有的引用，重复关闭无效；通过 {@link #retain()} 增加的引用仍需各自释放
+     */
+    @Override
+    public void close() {
+        if (CLOSED.compareAndSet(this, 0, 1) && refCnt > 0) {
+            release();
+        }
+    }
+
+    private void deallocate() {
+        ByteBuffer released = buffer;
+        buffer = null;
+        if (leak != null) {
+            leak.close();
+        }
+        if (spillFile == null) {
+            pool.release(released);
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            // 映射未释放时部分平台不允许删除，退出时再删
+            spillFile.toFile().deleteOnExit();
+        }
+    }
+}
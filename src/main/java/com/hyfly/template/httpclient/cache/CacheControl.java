@@ -0,0 +1,115 @@
+package com.hyfly.template.httpclient.cache;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cache-Control 指令解析结果
+ */
+@Getter
+public class CacheControl {
+
+    private static final CacheControl EMPTY = new CacheControl();
+
+    private long maxAge = -1;
+    private long sMaxAge = -1;
+    private long staleWhileRevalidate = -1;
+    private boolean noStore;
+    private boolean noCache;
+    private boolean privateResponse;
+    private boolean publicResponse;
+    private boolean mustRevalidate;
+
+    private CacheControl() {
+    }
+
+    /**
+     * 解析Cache-Control头
+     *
+     * @param value 头的值，可为空
+     * @return 解析结果
+     */
+    public static CacheControl parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return EMPTY;
+        }
+        CacheControl cacheControl = new CacheControl();
+        for (String directive : splitDirectives(value)) {
+            int eq = directive.indexOf('=');
+            String name = (eq < 0 ? directive : directive.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            String argument = eq < 0 ? null : unquote(directive.substring(eq + 1).trim());
+            switch (name) {
+                case "max-age":
+                    cacheControl.maxAge = parseSeconds(argument);
+                    break;
+                case "s-maxage":
+                    cacheControl.sMaxAge = parseSeconds(argument);
+                    break;
+                case "stale-while-revalidate":
+                    cacheControl.staleWhileRevalidate = parseSeconds(argument);
+                    break;
+                case "no-store":
+                    cacheControl.noStore = true;
+                    break;
+                case "no-cache":
+                    cacheControl.noCache = true;
+                    break;
+                case "private":
+                    cacheControl.privateResponse = true;
+                    break;
+                case "public":
+                    cacheControl.publicResponse = true;
+                    break;
+                case "must-revalidate":
+                case "proxy-revalidate":
+                    cacheControl.mustRevalidate = true;
+                    break;
+                default:
+                    // 忽略未知指令
+                    break;
+            }
+        }
+        return cacheControl;
+    }
+
+    /**
+     * 按逗号拆分指令，忽略引号内的逗号
+     */
+    private static String[] splitDirectives(String value) {
+        List<String> directives = new ArrayList<>();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                directives.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        directives.add(value.substring(start));
+        return directives.toArray(new String[0]);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
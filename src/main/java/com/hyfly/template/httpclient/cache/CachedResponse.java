@@ -0,0 +1,475 @@
+package com.hyfly.template.httpclient.cache;
+
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.response.BufferedHttpClientResponse;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.http.client.utils.DateUtils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * 缓存的HTTP响应 保存状态码、响应头、响应体以及按类型缓存的解码结果
+ * <p>
+ * 响应体可以是堆内数组，也可以是磁盘缓存的内存映射视图，后者不计入堆内存占用。
+ * 缓存的解码结果按估算的保留大小计入条目权重，每个条目最多缓存 {@value #MAX_DECODED_TYPES} 种类型。
+ */
+@Getter
+public class CachedResponse {
+
+    /**
+     * 未显式声明过期时间时默认可缓存的状态码（RFC 7231 6.1）
+     */
+    static final Set<Integer> CACHEABLE_BY_DEFAULT = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501)));
+
+    private static final double HEURISTIC_FRACTION = 0.1;
+    private static final long MAX_HEURISTIC_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int MAX_DECODED_TYPES = 4;
+
+    private final String key;
+    private final int statusCode;
+    private final Map<String, String> headers;
+    @Getter(AccessLevel.NONE)
+    private final ByteBuffer body;
+    private final long requestTime;
+    private final long responseTime;
+    private final CacheControl cacheControl;
+    private final long freshnessLifetimeMillis;
+    private final long initialAgeMillis;
+    private final boolean explicitFreshness;
+    @Getter(AccessLevel.NONE)
+    private final long baseWeight;
+    private final boolean shared;
+
+    @Getter(AccessLevel.NONE)
+    private final DecodedValues decoded;
+
+    CachedResponse(String key, int statusCode, Map<String, String> headers, ByteBuffer body,
+                   long requestTime, long responseTime, boolean shared) {
+        this(key, statusCode, headers, body, requestTime, responseTime, shared, new DecodedValues());
+    }
+
+    private CachedResponse(String key, int statusCode, Map<String, String> headers, ByteBuffer body,
+                           long requestTime, long responseTime, boolean shared,
+                           DecodedValues decoded) {
+        this.key = key;
+        this.statusCode = statusCode;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
+        this.body = body.asReadOnlyBuffer();
+        this.shared = shared;
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.cacheControl = CacheControl.parse(this.headers.get("Cache-Control"));
+        this.decoded = decoded;
+
+        long dateMillis = parseDate(this.headers.get("Date"), responseTime);
+        long explicit = explicitLifetime(shared, dateMillis);
+        this.explicitFreshness = explicit >= 0;
+        this.freshnessLifetimeMillis = explicitFreshness ? explicit : heuristicLifetime(dateMillis);
+        this.initialAgeMillis = initialAge(dateMillis);
+        this.baseWeight = estimateWeight();
+    }
+
+    /**
+     * 计算当前年龄
+     *
+     * @param now 当前时间
+     * @return 年龄（毫秒）
+     */
+    public long currentAgeMillis(long now) {
+        return initialAgeMillis + Math.max(0, now - responseTime);
+    }
+
+    /**
+     * 判断是否新鲜，no-cache响应总是需要重新验证
+     *
+     * @param now 当前时间
+     * @return 是否新鲜
+     */
+    public boolean isFresh(long now) {
+        return !cacheControl.isNoCache() && currentAgeMillis(now) < freshnessLifetimeMillis;
+    }
+
+    /**
+     * 判断过期后是否仍可在后台刷新期间返回（stale-while-revalidate）
+     *
+     * @param now 当前时间
+     * @return 是否可返回过期响应
+     */
+    public boolean isServableWhileRevalidating(long now) {
+        if (cacheControl.getStaleWhileRevalidate() < 0 || cacheControl.isMustRevalidate()
+                || cacheControl.isNoCache()) {
+            return false;
+        }
+        long window = TimeUnit.SECONDS.toMillis(cacheControl.getStaleWhileRevalidate());
+        return currentAgeMillis(now) < freshnessLifetimeMillis + window;
+    }
+
+    /**
+     * 获取ETag
+     *
+     * @return ETag
+     */
+    public String getETag() {
+        return headers.get("ETag");
+    }
+
+    /**
+     * 获取Last-Modified
+     *
+     * @return Last-Modified
+     */
+    public String getLastModified() {
+        return headers.get("Last-Modified");
+    }
+
+    /**
+     * 判断是否带有可用于条件请求的验证器
+     *
+     * @return 是否带有验证器
+     */
+    public boolean hasValidator() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    /**
+     * 获取响应体的只读视图
+     *
+     * @return 响应体
+     */
+    public ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * 判断响应体是否在堆外（如内存映射）
+     *
+     * @return 是否在堆外
+     */
+    public boolean isOffHeap() {
+        return body.isDirect();
+    }
+
+    /**
+     * 获取估算的堆内存占用，包括已缓存的解码结果，堆外响应体不计入
+     *
+     * @return 字节数
+     */
+    public long getWeight() {
+        return baseWeight + decoded.weight;
+    }
+
+    /**
+     * 估算占用的堆内存大小，堆外响应体不计入
+     */
+    private long estimateWeight() {
+        long size = ENTRY_OVERHEAD + (body.isDirect() ? 0 : body.remaining());
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            size += 2L * (entry.getKey().length() + entry.getValue().length());
+        }
+        return size;
+    }
+
+    /**
+     * 收到304后，合并新的响应头并刷新时间，保留响应体与解码结果
+     *
+     * @param notModifiedHeaders 304响应头
+     * @param requestTime        请求发送时间
+     * @param responseTime       响应接收时间
+     * @return 刷新后的缓存响应
+     */
+    CachedResponse revalidated(Map<String, String> notModifiedHeaders, long requestTime, long responseTime) {
+        Map<String, String> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(headers);
+        for (Map.Entry<String, String> entry : notModifiedHeaders.entrySet()) {
+            if (!"Content-Length".equalsIgnoreCase(entry.getKey())) {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new CachedResponse(key, statusCode, merged, body, requestTime, responseTime, shared, decoded);
+    }
+
+    /**
+     * 替换响应体（如换成磁盘缓存的映射视图），保留其余信息与解码结果
+     *
+     * @param newBody 新的响应体
+     * @return 新的缓存响应
+     */
+    CachedResponse withBody(ByteBuffer newBody) {
+        return new CachedResponse(key, statusCode, headers, newBody, requestTime, responseTime, shared, decoded);
+    }
+
+    /**
+     * 解码为结果对象，同一类型的成功结果只解码一次
+     * <p>
+     * 失败结果和解码失败的延迟结果不缓存；缓存前由所属缓存按结果的估算大小计入权重，超出单条目上限时不缓存。
+     * 缓存的List、Set、Map、Collection以只读视图返回，byte[]每次返回副本；其余数据对象在调用方之间共享，调用方不得修改。
+     *
+     * @param responseType 响应类型
+     * @param decoder      解码器
+     * @param cache        所属缓存，用于计入解码结果的权重
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    @SuppressWarnings("unchecked")
+    <T> HttpRestResult<T> decode(Type responseType, ResponseDecoder<T> decoder, HttpCache cache) throws Exception {
+        DecodedValue memo = decoded.values.get(responseType);
+        if (memo != null && isDecodeFailed(memo.result)) {
+            // 延迟解码失败的结果不再保留
+            synchronized (decoded) {
+                if (decoded.values.remove(responseType, memo)) {
+                    cache.chargeDecoded(this, -memo.weight);
+                }
+            }
+            memo = null;
+        }
+        if (memo == null) {
+            HttpRestResult<T> result = decoder.decode(toResponse());
+            if (!result.isSuccess()) {
+                return result;
+            }
+            synchronized (decoded) {
+                memo = decoded.values.get(responseType);
+                if (memo == null) {
+                    if (decoded.values.size() >= MAX_DECODED_TYPES) {
+                        return result;
+                    }
+                    HttpRestResult<T> readOnly = readOnly(result, responseType);
+                    long weight = estimateDecodedWeight(readOnly);
+                    if (!cache.chargeDecoded(this, weight)) {
+                        return result;
+                    }
+                    memo = new DecodedValue(readOnly, weight);
+                    decoded.values.put(responseType, memo);
+                }
+            }
+        }
+        return copyForCaller((HttpRestResult<T>) memo.result, responseType);
+    }
+
+    /**
+     * 调整缓存的解码结果权重，只在所属缓存的锁内调用
+     *
+     * @param delta 变化的字节数
+     */
+    void addDecodedWeight(long delta) {
+        decoded.weight += delta;
+    }
+
+    /**
+     * 判断两个缓存响应是否共享解码结果（同一响应经过重新验证或替换响应体）
+     *
+     * @param other 另一个缓存响应
+     * @return 是否共享
+     */
+    boolean sharesDecoded(CachedResponse other) {
+        return other != null && decoded == other.decoded;
+    }
+
+    /**
+     * 估算解码结果的大小，未解码的延迟结果按响应体字节数估算
+     */
+    private long estimateDecodedWeight(HttpRestResult<?> result) {
+        if (!result.isDecoded()) {
+            long encodedSize = result.getEncodedSize();
+            return encodedSize >= 0 ? encodedSize : body.remaining();
+        }
+        return RetainedSizeEstimator.estimate(result.getData());
+    }
+
+    private static boolean isDecodeFailed(HttpRestResult<?> result) {
+        if (!result.isDecoded()) {
+            return false;
+        }
+        try {
+            result.getData();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 把集合类数据包装为只读视图，包装后的类型与声明的响应类型不兼容时保持原样
+     */
+    private static <T> HttpRestResult<T> readOnly(HttpRestResult<T> result, Type responseType) {
+        Class<?> rawType = rawType(responseType);
+        if (rawType == null || !(Collection.class.isAssignableFrom(rawType) || Map.class.isAssignableFrom(rawType))) {
+            return result;
+        }
+        if (result.isDecoded()) {
+            return new HttpRestResult<>(result.getCode(), result.getMessage(),
+                    readOnly(result.getData(), rawType), result.getSuccess(), result.getFailed());
+        }
+        return mapLazy(result, data -> readOnly(data, rawType));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readOnly(T data, Class<?> rawType) {
+        Object view;
+        if (data instanceof List) {
+            view = Collections.unmodifiableList((List<?>) data);
+        } else if (data instanceof Set) {
+            view = Collections.unmodifiableSet((Set<?>) data);
+        } else if (data instanceof Map) {
+            view = Collections.unmodifiableMap((Map<?, ?>) data);
+        } else if (data instanceof Collection) {
+            view = Collections.unmodifiableCollection((Collection<?>) data);
+        } else {
+            return data;
+        }
+        return rawType.isInstance(view) ? (T) view : data;
+    }
+
+    /**
+     * 为调用方复制结果，byte[]数据复制一份，避免调用方之间互相影响
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> HttpRestResult<T> copyForCaller(HttpRestResult<T> result, Type responseType) {
+        HttpRestResult<T> copy = result.shallowCopy();
+        if (responseType != byte[].class) {
+            return copy;
+        }
+        if (copy.isDecoded()) {
+            copy.setData((T) ((byte[]) copy.getData()).clone());
+            return copy;
+        }
+        return mapLazy(copy, data -> (T) ((byte[]) data).clone());
+    }
+
+    /**
+     * 基于尚未解码的延迟结果创建新的延迟结果，解码后对数据做转换
+     */
+    private static <T> HttpRestResult<T> mapLazy(HttpRestResult<T> result, UnaryOperator<T> mapper) {
+        HttpRestResult<T> mapped = HttpRestResult.lazy(() -> {
+            try {
+                return mapper.apply(result.getData());
+            } catch (IllegalStateException e) {
+                // 保留原始的解码异常，避免重复包装
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }, result.getEncodedSize());
+        mapped.setCode(result.getCode());
+        mapped.setMessage(result.getMessage());
+        return mapped;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            Type raw = ((ParameterizedType) type).getRawType();
+            return raw instanceof Class ? (Class<?>) raw : null;
+        }
+        return null;
+    }
+
+    /**
+     * 转换为可重复读取的响应
+     *
+     * @return HTTP响应
+     */
+    public BufferedHttpClientResponse toResponse() {
+        return new BufferedHttpClientResponse(statusCode, headers, body.duplicate());
+    }
+
+    /**
+     * 计算显式声明的新鲜期，未声明时返回-1
+     */
+    private long explicitLifetime(boolean shared, long dateMillis) {
+        if (shared && cacheControl.getSMaxAge() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.getSMaxAge());
+        }
+        if (cacheControl.getMaxAge() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.getMaxAge());
+        }
+        String expires = headers.get("Expires");
+        if (expires != null) {
+            // 无法解析的Expires视为已过期
+            long expiresMillis = parseDate(expires, dateMillis);
+            return Math.max(0, expiresMillis - dateMillis);
+        }
+        return -1;
+    }
+
+    /**
+     * 启发式新鲜期：Last-Modified距今时间的10%
+     */
+    private long heuristicLifetime(long dateMillis) {
+        String lastModified = getLastModified();
+        if (lastModified == null || !CACHEABLE_BY_DEFAULT.contains(statusCode)) {
+            return 0;
+        }
+        long lastModifiedMillis = parseDate(lastModified, dateMillis);
+        return Math.min(MAX_HEURISTIC_MILLIS, (long) (Math.max(0, dateMillis - lastModifiedMillis) * HEURISTIC_FRACTION));
+    }
+
+    /**
+     * 计算响应到达时的初始年龄（RFC 7234 4.2.3）
+     */
+    private long initialAge(long dateMillis) {
+        long apparentAge = Math.max(0, responseTime - dateMillis);
+        long ageHeader = 0;
+        String age = headers.get("Age");
+        if (age != null) {
+            try {
+                ageHeader = TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(age.trim())));
+            } catch (NumberFormatException e) {
+                // 忽略非法的Age头
+            }
+        }
+        long correctedAge = ageHeader + (responseTime - requestTime);
+        return Math.max(apparentAge, correctedAge);
+    }
+
+    private static long parseDate(String value, long defaultMillis) {
+        if (value == null) {
+            return defaultMillis;
+        }
+        Date date = DateUtils.parseDate(value);
+        return date != null ? date.getTime() : defaultMillis;
+    }
+
+    /**
+     * 同一响应的各个版本（重新验证、替换响应体）共享的解码结果
+     */
+    private static final class DecodedValues {
+
+        private final ConcurrentMap<Type, DecodedValue> values = new ConcurrentHashMap<>();
+        private volatile long weight;
+    }
+
+    /**
+     * 缓存的解码结果及其计入的权重
+     */
+    private static final class DecodedValue {
+
+        private final HttpRestResult<?> result;
+        private final long weight;
+
+        DecodedValue(HttpRestResult<?> result, long weight) {
+            this.result = result;
+            this.weight = weight;
+        }
+    }
+}
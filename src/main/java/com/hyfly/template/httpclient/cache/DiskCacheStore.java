@@ -0,0 +1,467 @@
+package com.hyfly.template.httpclient.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于内存映射文件的持久化缓存存储
+ * <p>
+ * 数据以追加方式写入固定大小的分段文件，每条记录包含键、元数据和响应体，删除以墓碑记录表示。
+ * 内存中只保留键到文件位置的索引，响应体通过内存映射读取，不占用堆内存。
+ * 启动时顺序扫描分段文件重建索引；存活数据超出字节预算时按LRU淘汰，
+ * 文件总大小超出预算时压缩最旧的分段（将其中存活的记录迁移到当前分段后删除）。
+ * 只从最旧的分段开始回收，保证墓碑记录总是晚于被它删除的记录被回收。
+ */
+@Slf4j
+public class DiskCacheStore implements Closeable {
+
+    private static final int MAGIC = 0xCAC4E001;
+    private static final int HEADER_SIZE = 16;
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int segmentSize;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final LinkedHashMap<String, Location> index = new LinkedHashMap<>(64, 0.75f, true);
+    private Segment active;
+    private int nextSegmentId;
+    private long liveBytes;
+    private long fileBytes;
+    private boolean closed;
+
+    public DiskCacheStore(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param directory   存储目录
+     * @param maxBytes    存活数据的最大字节数
+     * @param segmentSize 分段文件大小
+     * @throws IOException IO异常
+     */
+    public DiskCacheStore(Path directory, long maxBytes, int segmentSize) throws IOException {
+        if (maxBytes <= 0 || segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("缓存大小或分段大小不合法");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    /**
+     * 写入一条记录，已存在的同名记录被覆盖
+     *
+     * @param key  键
+     * @param meta 元数据
+     * @param body 响应体，读取当前position到limit之间的数据
+     * @return 写入后响应体的只读映射视图，记录超出预算时返回null
+     * @throws IOException IO异常
+     */
+    public synchronized ByteBuffer put(String key, byte[] meta, ByteBuffer body) throws IOException {
+        ensureOpen();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long recordLength = (long) HEADER_SIZE + keyBytes.length + meta.length + body.remaining();
+        if (recordLength > maxBytes / 2 || recordLength > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        Location location = append(keyBytes, meta, body.duplicate(), (int) recordLength);
+        replace(key, location);
+        evict();
+        compact();
+        Location current = index.get(key);
+        return current != null ? bodyOf(current) : null;
+    }
+
+    /**
+     * 读取记录
+     *
+     * @param key 键
+     * @return 记录，不存在时返回null
+     */
+    public synchronized Entry get(String key) {
+        if (closed) {
+            return null;
+        }
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = location.segment.buffer;
+        int keyLength = buffer.getInt(location.offset + 4);
+        int metaLength = buffer.getInt(location.offset + 8);
+        byte[] meta = new byte[metaLength];
+        ByteBuffer metaView = buffer.duplicate();
+        metaView.position(location.offset + HEADER_SIZE + keyLength);
+        metaView.get(meta);
+        return new Entry(meta, bodyOf(location));
+    }
+
+    /**
+     * 删除记录
+     *
+     * @param key 键
+     * @throws IOException IO异常
+     */
+    public synchronized void remove(String key) throws IOException {
+        ensureOpen();
+        if (index.containsKey(key)) {
+            writeTombstone(key);
+        }
+    }
+
+    /**
+     * 删除键以指定前缀开头的所有记录
+     *
+     * @param prefix 键前缀
+     * @throws IOException IO异常
+     */
+    public synchronized void removeByPrefix(String prefix) throws IOException {
+        ensureOpen();
+        List<String> keys = new ArrayList<>();
+        for (String key : index.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        for (String key : keys) {
+            writeTombstone(key);
+        }
+    }
+
+    /**
+     * 清空所有记录并删除分段文件
+     *
+     * @throws IOException IO异常
+     */
+    public synchronized void clear() throws IOException {
+        ensureOpen();
+        index.clear();
+        while (!segments.isEmpty()) {
+            deleteSegment(segments.pollFirst());
+        }
+        liveBytes = 0;
+        fileBytes = 0;
+        active = newSegment(segmentSize);
+    }
+
+    /**
+     * 获取记录数
+     *
+     * @return 记录数
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * 获取存活数据的字节数
+     *
+     * @return 字节数
+     */
+    public synchronized long liveBytes() {
+        return liveBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        index.clear();
+    }
+
+    /**
+     * 扫描已有的分段文件，重建索引
+     */
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Integer.compare(segmentId(a), segmentId(b)));
+
+        for (Path file : files) {
+            int id = segmentId(file);
+            Segment segment = openSegment(file, (int) Math.min(Integer.MAX_VALUE, Files.size(file)));
+            segments.addLast(segment);
+            fileBytes += segment.size;
+            nextSegmentId = id + 1;
+            scan(segment);
+        }
+
+        Segment last = segments.peekLast();
+        active = last != null && last.size - last.writePosition > HEADER_SIZE ? last : newSegment(segmentSize);
+        evict();
+        log.info("加载磁盘缓存: {}，记录数: {}，存活字节数: {}", directory, index.size(), liveBytes);
+    }
+
+    /**
+     * 顺序扫描一个分段，遇到不完整的记录时停止
+     */
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.size && buffer.getInt(position) == MAGIC) {
+            int keyLength = buffer.getInt(position + 4);
+            int metaLength = buffer.getInt(position + 8);
+            int bodyLength = buffer.getInt(position + 12);
+            long recordLength = (long) HEADER_SIZE + keyLength + metaLength + Math.max(0, bodyLength);
+            if (keyLength < 0 || metaLength < 0 || position + recordLength > segment.size) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            ByteBuffer keyView = buffer.duplicate();
+            keyView.position(position + HEADER_SIZE);
+            keyView.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+            if (bodyLength < 0) {
+                unlink(index.remove(key));
+            } else {
+                replace(key, new Location(segment, position, (int) recordLength));
+            }
+            position += (int) recordLength;
+        }
+        segment.writePosition = position;
+    }
+
+    /**
+     * 追加一条记录，当前分段空间不足时新建分段
+     */
+    private Location append(byte[] key, byte[] meta, ByteBuffer body, int recordLength) throws IOException {
+        if (active.size - active.writePosition < recordLength) {
+            active = newSegment(Math.max(segmentSize, recordLength));
+        }
+        int offset = active.writePosition;
+        ByteBuffer buffer = active.buffer.duplicate();
+        buffer.position(offset + 4);
+        buffer.putInt(key.length);
+        buffer.putInt(meta.length);
+        buffer.putInt(body == null ? -1 : body.remaining());
+        buffer.put(key);
+        buffer.put(meta);
+        if (body != null) {
+            buffer.put(body);
+        }
+        // 最后写入魔数，保证扫描时只看到完整的记录
+        active.buffer.putInt(offset, MAGIC);
+        active.advance(recordLength);
+        return new Location(active, offset, recordLength);
+    }
+
+    private void writeTombstone(String key) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        append(keyBytes, new byte[0], null, HEADER_SIZE + keyBytes.length);
+        unlink(index.remove(key));
+    }
+
+    private void replace(String key, Location location) {
+        unlink(index.put(key, location));
+        location.segment.liveBytes += location.length;
+        liveBytes += location.length;
+    }
+
+    private void unlink(Location location) {
+        if (location != null) {
+            location.segment.liveBytes -= location.length;
+            liveBytes -= location.length;
+        }
+    }
+
+    /**
+     * 存活数据超出预算时按LRU淘汰
+     */
+    private void evict() throws IOException {
+        while (liveBytes > maxBytes && !index.isEmpty()) {
+            Iterator<String> iterator = index.keySet().iterator();
+            String eldest = iterator.next();
+            log.debug("磁盘缓存淘汰: {}", eldest);
+            writeTombstone(eldest);
+        }
+    }
+
+    /**
+     * 文件总大小超出预算时，从最旧的分段开始回收
+     */
+    private void compact() throws IOException {
+        int rounds = segments.size();
+        while (fileBytes > maxBytes + segmentSize && segments.size() > 1 && rounds-- > 0) {
+            Segment oldest = segments.peekFirst();
+            if (oldest == active) {
+                break;
+            }
+            if (oldest.liveBytes > 0) {
+                relocate(oldest);
+            }
+            segments.pollFirst();
+            deleteSegment(oldest);
+        }
+    }
+
+    /**
+     * 将分段中存活的记录迁移到当前分段，不改变LRU顺序
+     */
+    private void relocate(Segment segment) throws IOException {
+        List<Map.Entry<String, Location>> live = new ArrayList<>();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == segment) {
+                live.add(entry);
+            }
+        }
+        for (Map.Entry<String, Location> entry : live) {
+            Location from = entry.getValue();
+            if (active.size - active.writePosition < from.length) {
+                active = newSegment(Math.max(segmentSize, from.length));
+            }
+            ByteBuffer source = segment.buffer.duplicate();
+            source.position(from.offset + 4);
+            source.limit(from.offset + from.length);
+            ByteBuffer target = active.buffer.duplicate();
+            target.position(active.writePosition + 4);
+            target.put(source);
+            active.buffer.putInt(active.writePosition, MAGIC);
+
+            Location to = new Location(active, active.writePosition, from.length);
+            active.advance(from.length);
+            segment.liveBytes -= from.length;
+            active.liveBytes += from.length;
+            entry.setValue(to);
+        }
+    }
+
+    private ByteBuffer bodyOf(Location location) {
+        ByteBuffer buffer = location.segment.buffer;
+        int keyLength = buffer.getInt(location.offset + 4);
+        int metaLength = buffer.getInt(location.offset + 8);
+        int bodyLength = buffer.getInt(location.offset + 12);
+        ByteBuffer body = buffer.asReadOnlyBuffer();
+        int start = location.offset + HEADER_SIZE + keyLength + metaLength;
+        body.position(start);
+        body.limit(start + bodyLength);
+        return body.slice();
+    }
+
+    private Segment newSegment(int size) throws IOException {
+        int id = nextSegmentId++;
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = openSegment(file, size);
+        segments.addLast(segment);
+        fileBytes += segment.size;
+        return segment;
+    }
+
+    private Segment openSegment(Path file, int size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(file, channel, buffer, size);
+    }
+
+    private void deleteSegment(Segment segment) throws IOException {
+        fileBytes -= segment.size;
+        segment.channel.close();
+        // 已映射的缓冲区在不再被引用后由GC释放，期间仍可安全读取
+        Files.deleteIfExists(segment.file);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("磁盘缓存已关闭: " + directory);
+        }
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 读取到的记录
+     */
+    @Getter
+    public static class Entry {
+        private final byte[] meta;
+        private final ByteBuffer body;
+
+        Entry(byte[] meta, ByteBuffer body) {
+            this.meta = meta;
+            this.body = body;
+        }
+    }
+
+    /**
+     * 分段文件
+     */
+    private static final class Segment {
+        final Path file;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int size;
+        int writePosition;
+        long liveBytes;
+
+        Segment(Path file, FileChannel channel, MappedByteBuffer buffer, int size) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        /**
+         * 移动写入位置，并在其后写入结束标记，避免残留数据被误认为记录
+         */
+        void advance(int length) {
+            writePosition += length;
+            if (writePosition + 4 <= size) {
+                buffer.putInt(writePosition, 0);
+            }
+        }
+    }
+
+    /**
+     * 记录在分段中的位置
+     */
+    private static final class Location {
+        final Segment segment;
+        final int offset;
+        final int length;
+
+        Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,633 @@
+package com.hyfly.template.httpclient.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.response.BufferedHttpClientResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 内存HTTP响应缓存 遵循RFC 7234
+ * <p>
+ * 支持Cache-Control（max-age、s-maxage、no-store、no-cache、private、must-revalidate、
+ * stale-while-revalidate）、Expires和Vary。过期条目通过If-None-Match/If-Modified-Since重新验证，
+ * 收到304时复用已缓存的响应体和解码结果。新鲜条目临近过期时按概率提前在后台刷新，避免集中过期时的请求风暴。
+ * 缓存按估算字节数限制大小，超出时淘汰最久未使用的条目。
+ * <p>
+ * 可选配置 {@link DiskCacheStore} 作为持久化的第二层：可存储的响应同时写入磁盘，重启后仍可命中；
+ * 响应体超过阈值的条目在内存中只保留内存映射视图，不占用堆内存。private响应和携带Authorization或Cookie的请求的响应
+ * 默认只保留在内存中，不以明文落盘，见 {@link #persistPrivate(boolean)}。
+ * <p>
+ * 携带Authorization或Cookie的请求的响应除非声明为public，否则按凭据的摘要区分变体，不会返回给持有其他凭据的请求。
+ */
+@Slf4j
+public class HttpCache {
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final double DEFAULT_EARLY_EXPIRY_BETA = 1.0;
+    private static final long DEFAULT_DISK_HEAP_THRESHOLD = 256 * 1024;
+    private static final String VARY_KEY_PREFIX = "vary\n";
+    private static final List<String> CREDENTIAL_HEADERS = Arrays.asList("Authorization", "Cookie");
+
+    private static final Executor DEFAULT_REFRESH_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "HttpCache-Refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean shared;
+    private double earlyExpiryBeta = DEFAULT_EARLY_EXPIRY_BETA;
+    private Executor refreshExecutor = DEFAULT_REFRESH_EXECUTOR;
+    private DiskCacheStore diskStore;
+    private long diskHeapThreshold = DEFAULT_DISK_HEAP_THRESHOLD;
+    private boolean persistPrivate;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, List<String>> varyByUri = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private long currentBytes;
+
+    public HttpCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public HttpCache(long maxBytes) {
+        this(maxBytes, false);
+    }
+
+    /**
+     * @param maxBytes 缓存最大字节数
+     * @param shared   是否作为共享缓存使用，共享缓存不存储private响应并优先使用s-maxage
+     */
+    public HttpCache(long maxBytes, boolean shared) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("缓存大小必须大于0: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.max(1, maxBytes / 8);
+        this.shared = shared;
+    }
+
+    /**
+     * 设置提前过期的系数，为0时关闭提前刷新
+     *
+     * @param earlyExpiryBeta 系数，越大越早刷新
+     * @return HttpCache
+     */
+    public HttpCache earlyExpiryBeta(double earlyExpiryBeta) {
+        this.earlyExpiryBeta = earlyExpiryBeta;
+        return this;
+    }
+
+    /**
+     * 设置后台刷新线程池
+     *
+     * @param refreshExecutor 线程池
+     * @return HttpCache
+     */
+    public HttpCache refreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
+    /**
+     * 设置持久化的磁盘缓存层
+     *
+     * @param diskStore 磁盘缓存
+     * @return HttpCache
+     */
+    public HttpCache diskStore(DiskCacheStore diskStore) {
+        this.diskStore = diskStore;
+        return this;
+    }
+
+    /**
+     * 设置响应体只保留磁盘映射视图的阈值
+     *
+     * @param diskHeapThreshold 字节数，响应体不小于该值时不在堆内保留副本
+     * @return HttpCache
+     */
+    public HttpCache diskHeapThreshold(long diskHeapThreshold) {
+        this.diskHeapThreshold = diskHeapThreshold;
+        return this;
+    }
+
+    /**
+     * 设置是否把private响应和携带Authorization或Cookie的请求的响应也写入磁盘层，默认关闭
+     *
+     * @param persistPrivate 是否写入磁盘
+     * @return HttpCache
+     */
+    public HttpCache persistPrivate(boolean persistPrivate) {
+        this.persistPrivate = persistPrivate;
+        return this;
+    }
+
+    /**
+     * 通过缓存执行GET请求
+     *
+     * @param uri          请求URI
+     * @param header       请求头
+     * @param responseType 响应类型
+     * @param fetcher      上游请求
+     * @param decoder      响应解码器
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> execute(URI uri, Header header, Type responseType, ResponseFetcher fetcher,
+                                         ResponseDecoder<T> decoder) throws Exception {
+        CacheControl requestControl = CacheControl.parse(
+                header != null ? header.getValueIgnoreCase("Cache-Control") : null);
+        if (requestControl.isNoStore()) {
+            BufferedHttpClientResponse response = fetcher.fetch(header);
+            try {
+                return decoder.decode(response);
+            } finally {
+                response.close();
+            }
+        }
+
+        String uriKey = uri.toString();
+        List<String> vary = varyByUri.get(uriKey);
+        if (vary == null) {
+            vary = loadVary(uriKey);
+        }
+        String variantKey = variantKey(uriKey, vary, header);
+        String credentialKey = credentialKey(variantKey, header);
+        CachedResponse entry = credentialKey != null ? lookup(credentialKey) : null;
+        if (entry == null) {
+            entry = lookup(variantKey);
+        }
+        long now = System.currentTimeMillis();
+        if (entry != null && !requestControl.isNoCache()) {
+            if (entry.isFresh(now)) {
+                if (shouldRefreshEarly(entry, now)) {
+                    refreshAsync(uri, header, entry, fetcher);
+                }
+                return entry.decode(responseType, decoder, this);
+            }
+            if (entry.isServableWhileRevalidating(now)) {
+                refreshAsync(uri, header, entry, fetcher);
+                return entry.decode(responseType, decoder, this);
+            }
+        }
+        return fetch(uri, header, entry, fetcher).decode(responseType, decoder, this);
+    }
+
+    /**
+     * 使URI对应的所有缓存变体失效，用于非安全方法请求之后
+     *
+     * @param uri 请求URI
+     */
+    public void invalidate(URI uri) {
+        String uriKey = uri.toString();
+        String variantPrefix = uriKey + "\n";
+        synchronized (this) {
+            Iterator<CachedResponse> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                CachedResponse entry = iterator.next();
+                if (entry.getKey().equals(uriKey) || entry.getKey().startsWith(variantPrefix)) {
+                    iterator.remove();
+                    currentBytes -= entry.getWeight();
+                }
+            }
+        }
+        varyByUri.remove(uriKey);
+        DiskCacheStore disk = this.diskStore;
+        if (disk != null) {
+            try {
+                disk.remove(uriKey);
+                disk.remove(VARY_KEY_PREFIX + uriKey);
+                disk.removeByPrefix(variantPrefix);
+            } catch (IOException e) {
+                log.warn("磁盘缓存失效失败: {}", uriKey, e);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存，包括磁盘缓存层
+     */
+    public void clear() {
+        synchronized (this) {
+            entries.clear();
+            currentBytes = 0;
+        }
+        varyByUri.clear();
+        DiskCacheStore disk = this.diskStore;
+        if (disk != null) {
+            try {
+                disk.clear();
+            } catch (IOException e) {
+                log.warn("清空磁盘缓存失败", e);
+            }
+        }
+    }
+
+    /**
+     * 获取缓存条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 获取当前占用的估算字节数
+     *
+     * @return 字节数
+     */
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * 从上游获取响应，存在过期条目时发送条件请求
+     */
+    private CachedResponse fetch(URI uri, Header header, CachedResponse stale, ResponseFetcher fetcher)
+            throws Exception {
+        Header requestHeader = header;
+        if (stale != null && stale.hasValidator()) {
+            requestHeader = header != null ? header.copy() : new Header();
+            if (stale.getETag() != null) {
+                requestHeader.addParam("If-None-Match", stale.getETag());
+            }
+            if (stale.getLastModified() != null) {
+                requestHeader.addParam("If-Modified-Since", stale.getLastModified());
+            }
+        }
+
+        long requestTime = System.currentTimeMillis();
+        BufferedHttpClientResponse response = fetcher.fetch(requestHeader);
+        long responseTime = System.currentTimeMillis();
+        try {
+            if (stale != null && response.getStatusCode() == 304) {
+                log.debug("缓存重新验证成功(304): {}", uri);
+                return store(stale.revalidated(response.getHeaders(), requestTime, responseTime), header, false);
+            }
+
+            String uriKey = uri.toString();
+            List<String> vary = parseVary(response.getHeader("Vary"));
+            String variantKey = variantKey(uriKey, vary, header);
+            String credentialKey = credentialKey(variantKey, header);
+            if (credentialKey != null && !CacheControl.parse(response.getHeader("Cache-Control")).isPublicResponse()) {
+                variantKey = credentialKey;
+            }
+            CachedResponse created = new CachedResponse(variantKey, response.getStatusCode(),
+                    response.getHeaders(), response.getBodyBuffer(), requestTime, responseTime, shared);
+            // 溢出到临时文件的响应体只能复制到磁盘层后缓存，不在内存层保留临时文件的映射
+            if ((!response.isSpilled() || diskStore != null) && isStorable(created, header, vary)) {
+                if (!vary.equals(varyByUri.put(uriKey, vary))) {
+                    storeVary(uriKey, vary);
+                }
+                return store(created, header, response.isSpilled());
+            }
+            if (stale != null) {
+                remove(stale);
+            }
+            return created;
+        } finally {
+            // 删除溢出的临时文件，返回的条目中的映射视图在被回收前仍然有效
+            response.close();
+        }
+    }
+
+    /**
+     * 存储条目：配置了磁盘层且允许落盘时先写入磁盘，较大的响应体换成映射视图后再放入内存
+     * <p>
+     * 溢出到临时文件的响应体只有换成磁盘层的映射后才放入内存。
+     */
+    private CachedResponse store(CachedResponse entry, Header requestHeader, boolean spilled) {
+        DiskCacheStore disk = this.diskStore;
+        boolean onDisk = false;
+        if (disk != null && !persistPrivate && isPrivate(entry, requestHeader)) {
+            // 只保留在内存中，同时删除同一个键之前落盘的公共版本
+            try {
+                disk.remove(entry.getKey());
+            } catch (IOException e) {
+                log.warn("删除磁盘缓存失败: {}", entry.getKey(), e);
+            }
+        } else if (disk != null) {
+            try {
+                ByteBuffer mapped = disk.put(entry.getKey(), encodeMeta(entry), entry.getBody());
+                if (mapped != null && (spilled || mapped.remaining() >= diskHeapThreshold)) {
+                    entry = entry.withBody(mapped);
+                    onDisk = true;
+                }
+            } catch (IOException e) {
+                log.warn("写入磁盘缓存失败: {}", entry.getKey(), e);
+            }
+        }
+        if (entry.getWeight() <= maxEntryBytes && (!spilled || onDisk)) {
+            put(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 在内存中查找条目，未命中时查找磁盘层并放入内存
+     */
+    private CachedResponse lookup(String key) {
+        CachedResponse entry = get(key);
+        DiskCacheStore disk = this.diskStore;
+        if (entry != null || disk == null) {
+            return entry;
+        }
+        DiskCacheStore.Entry stored = disk.get(key);
+        if (stored == null) {
+            return null;
+        }
+        JSONObject meta = JSON.parseObject(new String(stored.getMeta(), StandardCharsets.UTF_8));
+        Map<String, String> headers = new LinkedHashMap<>();
+        JSONObject storedHeaders = meta.getJSONObject("headers");
+        if (storedHeaders != null) {
+            for (Map.Entry<String, Object> header : storedHeaders.entrySet()) {
+                headers.put(header.getKey(), String.valueOf(header.getValue()));
+            }
+        }
+        ByteBuffer body = stored.getBody();
+        if (body.remaining() < diskHeapThreshold) {
+            // 小响应体复制到堆内，避免长期持有映射
+            ByteBuffer heap = ByteBuffer.allocate(body.remaining());
+            heap.put(body).flip();
+            body = heap;
+        }
+        entry = new CachedResponse(key, meta.getIntValue("status"), headers, body,
+                meta.getLongValue("requestTime"), meta.getLongValue("responseTime"), shared);
+        if (entry.getWeight() <= maxEntryBytes) {
+            put(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 从磁盘层加载URI的Vary信息
+     */
+    private List<String> loadVary(String uriKey) {
+        DiskCacheStore disk = this.diskStore;
+        if (disk == null) {
+            return null;
+        }
+        DiskCacheStore.Entry stored = disk.get(VARY_KEY_PREFIX + uriKey);
+        if (stored == null) {
+            return null;
+        }
+        JSONArray names = JSON.parseObject(new String(stored.getMeta(), StandardCharsets.UTF_8))
+                .getJSONArray("vary");
+        List<String> vary = names != null ? names.toJavaList(String.class) : Collections.emptyList();
+        varyByUri.put(uriKey, vary);
+        return vary;
+    }
+
+    /**
+     * 将URI的Vary信息写入磁盘层
+     */
+    private void storeVary(String uriKey, List<String> vary) {
+        DiskCacheStore disk = this.diskStore;
+        if (disk == null) {
+            return;
+        }
+        JSONObject meta = new JSONObject();
+        meta.put("vary", vary);
+        try {
+            disk.put(VARY_KEY_PREFIX + uriKey, meta.toJSONString().getBytes(StandardCharsets.UTF_8),
+                    ByteBuffer.allocate(0));
+        } catch (IOException e) {
+            log.warn("写入磁盘缓存失败: {}", uriKey, e);
+        }
+    }
+
+    /**
+     * 编码条目的元数据
+     */
+    private static byte[] encodeMeta(CachedResponse entry) {
+        JSONObject meta = new JSONObject();
+        meta.put("status", entry.getStatusCode());
+        meta.put("headers", entry.getHeaders());
+        meta.put("requestTime", entry.getRequestTime());
+        meta.put("responseTime", entry.getResponseTime());
+        return meta.toJSONString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 在后台重新验证条目，同一条目同时只刷新一次
+     */
+    private void refreshAsync(URI uri, Header header, CachedResponse entry, ResponseFetcher fetcher) {
+        if (!refreshing.add(entry.getKey())) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    fetch(uri, header, entry, fetcher);
+                } catch (Exception e) {
+                    log.warn("后台刷新缓存失败: {}", uri, e);
+                } finally {
+                    refreshing.remove(entry.getKey());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(entry.getKey());
+            log.warn("后台刷新任务被拒绝: {}", uri);
+        }
+    }
+
+    /**
+     * 概率提前过期：越接近过期、上次获取越慢，越可能提前刷新
+     */
+    private boolean shouldRefreshEarly(CachedResponse entry, long now) {
+        if (earlyExpiryBeta <= 0) {
+            return false;
+        }
+        long fetchMillis = Math.max(1, entry.getResponseTime() - entry.getRequestTime());
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double early = fetchMillis * earlyExpiryBeta * -Math.log(random);
+        return entry.currentAgeMillis(now) + early >= entry.getFreshnessLifetimeMillis();
+    }
+
+    /**
+     * 判断响应是否可以存储（RFC 7234 3）
+     */
+    private boolean isStorable(CachedResponse response, Header requestHeader, List<String> vary) {
+        int status = response.getStatusCode();
+        if (status == 206 || status == 304) {
+            return false;
+        }
+        CacheControl cacheControl = response.getCacheControl();
+        if (cacheControl.isNoStore() || vary.contains("*")) {
+            return false;
+        }
+        if (shared && cacheControl.isPrivateResponse()) {
+            return false;
+        }
+        if (shared && hasCredentials(requestHeader)
+                && !cacheControl.isPublicResponse() && cacheControl.getSMaxAge() < 0
+                && !cacheControl.isMustRevalidate()) {
+            return false;
+        }
+        if ((diskStore == null || !persistPrivate && isPrivate(response, requestHeader))
+                && response.getWeight() > maxEntryBytes) {
+            return false;
+        }
+        return response.isExplicitFreshness()
+                || (CachedResponse.CACHEABLE_BY_DEFAULT.contains(status) && response.hasValidator());
+    }
+
+    /**
+     * 是否为单个用户的响应：private响应或携带Authorization或Cookie的请求的响应
+     */
+    private static boolean isPrivate(CachedResponse response, Header requestHeader) {
+        return response.getCacheControl().isPrivateResponse() || hasCredentials(requestHeader);
+    }
+
+    private static boolean hasCredentials(Header header) {
+        if (header == null) {
+            return false;
+        }
+        for (String name : CREDENTIAL_HEADERS) {
+            if (header.getValueIgnoreCase(name) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算按凭据区分的变体键：变体键加上Authorization和Cookie的SHA-256摘要，请求不带凭据时返回null
+     */
+    private static String credentialKey(String variantKey, Header header) {
+        if (!hasCredentials(header)) {
+            return null;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: SHA-256", e);
+        }
+        for (String name : CREDENTIAL_HEADERS) {
+            String value = header.getValueIgnoreCase(name);
+            digest.update((name + '=' + (value != null ? value : "") + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder key = new StringBuilder(variantKey).append("\ncredentials=");
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * 解析Vary头中的请求头名称
+     */
+    private static List<String> parseVary(String vary) {
+        if (vary == null || vary.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : vary.split(",")) {
+            String trimmed = name.trim().toLowerCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * 计算缓存变体的键：URI加上Vary指定的请求头取值
+     */
+    private static String variantKey(String uriKey, List<String> vary, Header header) {
+        if (vary == null || vary.isEmpty()) {
+            return uriKey;
+        }
+        StringBuilder key = new StringBuilder(uriKey);
+        for (String name : vary) {
+            String value = header != null ? header.getValueIgnoreCase(name) : null;
+            key.append('\n').append(name).append('=').append(value != null ? value : "");
+        }
+        return key.toString();
+    }
+
+    private synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(CachedResponse response) {
+        CachedResponse previous = entries.put(response.getKey(), response);
+        if (previous != null) {
+            currentBytes -= previous.getWeight();
+        }
+        currentBytes += response.getWeight();
+        evict(response);
+    }
+
+    /**
+     * 计入缓存的解码结果的权重，条目仍在内存缓存中时同步调整总大小并淘汰
+     *
+     * @param response 缓存响应
+     * @param delta    变化的字节数，为正时超出单条目上限则拒绝
+     * @return 是否计入
+     */
+    synchronized boolean chargeDecoded(CachedResponse response, long delta) {
+        if (delta > 0 && response.getWeight() + delta > maxEntryBytes) {
+            return false;
+        }
+        response.addDecodedWeight(delta);
+        CachedResponse current = entries.get(response.getKey());
+        if (current != null && current.sharesDecoded(response)) {
+            currentBytes += delta;
+            evict(current);
+        }
+        return true;
+    }
+
+    /**
+     * 按LRU顺序淘汰条目直到总大小不超过上限，保留指定条目
+     */
+    private void evict(CachedResponse keep) {
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            CachedResponse eldest = iterator.next();
+            if (eldest != keep) {
+                iterator.remove();
+                currentBytes -= eldest.getWeight();
+            }
+        }
+    }
+
+    private synchronized void remove(CachedResponse response) {
+        if (entries.remove(response.getKey(), response)) {
+            currentBytes -= response.getWeight();
+        }
+    }
+}
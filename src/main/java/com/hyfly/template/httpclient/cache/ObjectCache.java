@@ -0,0 +1,511 @@
+package com.hyfly.template.httpclient.cache;
+
+import com.hyfly.template.httpclient.coalesce.RequestCoalescer.ResultSharing;
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.model.Query;
+import com.hyfly.template.httpclient.util.CopyUtils;
+import lombok.Getter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * 反序列化结果缓存 缓存已解析的响应对象，命中时跳过HTTP请求和JSON解析
+ * <p>
+ * 条目以URL、查询参数、响应类型和指定的请求头作为键，只缓存成功的结果。淘汰策略为W-TinyLFU：
+ * 新条目先进入占总容量1%的窗口LRU，被挤出窗口后与主区（SLRU，分为试用段和保护段）的淘汰候选比较访问频率，
+ * 频率更高者留下。访问频率由 {@link FrequencySketch} 估算，能挡住只访问一次的扫描流量。
+ * <p>
+ * 容量按权重计算，默认权重为数据对象的估算保留内存，尚未解码的延迟结果按响应体字节数计算，写入缓存不会触发解码。
+ * 每个条目记录自己的过期时间，读取时惰性清理。
+ * <p>
+ * {@link ResultSharing#SHARED} 模式下所有调用方共享缓存中的同一个数据对象，调用方不得修改；
+ * {@link ResultSharing#COPY} 模式下每次读取都返回数据的副本。
+ */
+public class ObjectCache {
+
+    private static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final long ESTIMATED_ENTRY_WEIGHT = 1024;
+
+    /**
+     * 条目过期时间计算函数
+     */
+    @FunctionalInterface
+    public interface Expiry {
+        /**
+         * 计算条目的存活时间
+         *
+         * @param url  请求URL
+         * @param data 响应数据
+         * @return 存活时间（毫秒），小于等于0表示不缓存
+         */
+        long expireAfterWriteMillis(String url, Object data);
+    }
+
+    private enum Segment {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node {
+        private final List<Object> key;
+        private final String url;
+        private final HttpRestResult<?> result;
+        private final long weight;
+        private final long expireAtNanos;
+        private Segment segment = Segment.WINDOW;
+
+        private Node(List<Object> key, String url, HttpRestResult<?> result, long weight, long expireAtNanos) {
+            this.key = key;
+            this.url = url;
+            this.result = result;
+            this.weight = weight;
+            this.expireAtNanos = expireAtNanos;
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    @Getter
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long evictionWeight;
+        private final long expiredCount;
+        private final long rejectedCount;
+
+        Stats(long hitCount, long missCount, long loadFailureCount, long evictionCount, long evictionWeight,
+              long expiredCount, long rejectedCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.evictionWeight = evictionWeight;
+            this.expiredCount = expiredCount;
+            this.rejectedCount = rejectedCount;
+        }
+
+        /**
+         * 获取命中率
+         *
+         * @return 命中率，无请求时为1
+         */
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hit=" + hitCount + ", miss=" + missCount + ", loadFailure=" + loadFailureCount
+                    + ", eviction=" + evictionCount + ", evictionWeight=" + evictionWeight
+                    + ", expired=" + expiredCount + ", rejected=" + rejectedCount + "}";
+        }
+    }
+
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final List<String> keyHeaders;
+    private Expiry expiry = (url, data) -> DEFAULT_TTL_MILLIS;
+    private ToLongFunction<Object> weigher = RetainedSizeEstimator::estimate;
+    private boolean expiryUsesData;
+    private boolean weigherUsesData;
+    private ResultSharing sharing = ResultSharing.SHARED;
+    private UnaryOperator<Object> copier;
+
+    private final Map<List<Object>, Node> data = new HashMap<>();
+    private final LinkedHashMap<List<Object>, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<List<Object>, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<List<Object>, Node> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private long hitCount;
+    private long missCount;
+    private long loadFailureCount;
+    private long evictionCount;
+    private long evictionWeight;
+    private long expiredCount;
+    private long rejectedCount;
+
+    public ObjectCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight  最大总权重，默认权重单位为字节
+     * @param keyHeaders 参与缓存键计算的请求头，如Authorization
+     */
+    public ObjectCache(long maxWeight, String... keyHeaders) {
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = Math.max(1, (long) (maxWeight * WINDOW_RATIO));
+        this.protectedMaxWeight = (long) ((maxWeight - windowMaxWeight) * PROTECTED_RATIO);
+        this.keyHeaders = Collections.unmodifiableList(Arrays.asList(keyHeaders));
+        this.sketch.ensureCapacity(maxWeight / ESTIMATED_ENTRY_WEIGHT);
+    }
+
+    /**
+     * 设置统一的存活时间
+     *
+     * @param duration 时长
+     * @param unit     时间单位
+     * @return ObjectCache
+     */
+    public ObjectCache expireAfterWrite(long duration, TimeUnit unit) {
+        long millis = unit.toMillis(duration);
+        this.expiry = (url, data) -> millis;
+        this.expiryUsesData = false;
+        return this;
+    }
+
+    /**
+     * 设置按条目计算存活时间的函数，函数需要数据对象，延迟解码的结果在写入缓存时解码
+     *
+     * @param expiry 过期时间计算函数
+     * @return ObjectCache
+     */
+    public ObjectCache expiry(Expiry expiry) {
+        this.expiry = expiry;
+        this.expiryUsesData = true;
+        return this;
+    }
+
+    /**
+     * 设置权重函数，默认为数据对象的估算保留内存；函数需要数据对象，延迟解码的结果在写入缓存时解码
+     *
+     * @param weigher 权重函数
+     * @return ObjectCache
+     */
+    public ObjectCache weigher(ToLongFunction<Object> weigher) {
+        this.weigher = weigher;
+        this.weigherUsesData = true;
+        return this;
+    }
+
+    /**
+     * 设置数据对象的共享方式
+     *
+     * @param sharing 共享方式
+     * @return ObjectCache
+     */
+    public ObjectCache sharing(ResultSharing sharing) {
+        this.sharing = sharing;
+        return this;
+    }
+
+    /**
+     * 设置COPY模式下的数据复制函数，默认通过JSON序列化再反序列化复制
+     *
+     * @param copier 复制函数
+     * @return ObjectCache
+     */
+    public ObjectCache copier(UnaryOperator<Object> copier) {
+        this.copier = copier;
+        return this;
+    }
+
+    /**
+     * 读取缓存，未命中时调用加载函数并缓存成功的结果
+     * <p>
+     * 并发的相同未命中各自加载，需要合并时配合 {@link com.hyfly.template.httpclient.coalesce.RequestCoalescer} 使用。
+     *
+     * @param url          请求URL
+     * @param header       请求头
+     * @param query        查询参数
+     * @param responseType 响应类型
+     * @param loader       加载函数
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> HttpRestResult<T> get(String url, Header header, Query query, Type responseType,
+                                     Callable<HttpRestResult<T>> loader) throws Exception {
+        List<Object> key = buildKey(url, header, query, responseType);
+        HttpRestResult<T> cached = (HttpRestResult<T>) lookup(key);
+        if (cached != null) {
+            return copyForReader(cached, responseType);
+        }
+
+        HttpRestResult<T> result;
+        try {
+            result = loader.call();
+        } catch (Exception e) {
+            synchronized (this) {
+                loadFailureCount++;
+            }
+            throw e;
+        }
+        if (result == null || !result.isSuccess()) {
+            return result;
+        }
+        long ttlMillis = expiry.expireAfterWriteMillis(url,
+                expiryUsesData || result.isDecoded() ? result.getData() : null);
+        if (ttlMillis > 0) {
+            long weight = ENTRY_OVERHEAD + weigh(result);
+            long expireAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            insert(new Node(key, url, result, weight, expireAt));
+        }
+        return copyForReader(result, responseType);
+    }
+
+    /**
+     * 计算数据的权重，未解码的延迟结果不为估算大小而解码
+     */
+    private long weigh(HttpRestResult<?> result) {
+        if (weigherUsesData || result.isDecoded()) {
+            return weigher.applyAsLong(result.getData());
+        }
+        long encodedSize = result.getEncodedSize();
+        return encodedSize >= 0 ? encodedSize : ESTIMATED_ENTRY_WEIGHT;
+    }
+
+    /**
+     * 使某个URL的所有条目失效
+     *
+     * @param url 请求URL
+     */
+    public synchronized void invalidate(String url) {
+        List<Node> matched = new ArrayList<>();
+        for (Node node : data.values()) {
+            if (node.url.equals(url)) {
+                matched.add(node);
+            }
+        }
+        for (Node node : matched) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * 清理所有已过期的条目
+     */
+    public synchronized void cleanUp() {
+        long now = System.nanoTime();
+        for (Node node : new ArrayList<>(data.values())) {
+            if (now - node.expireAtNanos >= 0) {
+                unlink(node);
+                expiredCount++;
+            }
+        }
+    }
+
+    /**
+     * 清空缓存，不重置统计
+     */
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = 0;
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * 获取条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return data.size();
+    }
+
+    /**
+     * 获取当前总权重
+     *
+     * @return 总权重
+     */
+    public synchronized long weightedSize() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 统计
+     */
+    public synchronized Stats stats() {
+        return new Stats(hitCount, missCount, loadFailureCount, evictionCount, evictionWeight, expiredCount,
+                rejectedCount);
+    }
+
+    /**
+     * 查找未过期的条目并记录访问
+     */
+    private synchronized HttpRestResult<?> lookup(List<Object> key) {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node != null && System.nanoTime() - node.expireAtNanos >= 0) {
+            unlink(node);
+            expiredCount++;
+            node = null;
+        }
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onAccess(node);
+        return node.result;
+    }
+
+    /**
+     * 命中后调整条目位置：试用段命中晋升到保护段，保护段超限时最久未用的条目降回试用段
+     */
+    private void onAccess(Node node) {
+        switch (node.segment) {
+            case WINDOW:
+                moveToTail(window, node);
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                node.segment = Segment.PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            default:
+                moveToTail(protectedSegment, node);
+                break;
+        }
+    }
+
+    private synchronized void insert(Node node) {
+        if (node.weight > maxWeight) {
+            rejectedCount++;
+            return;
+        }
+        Node existing = data.get(node.key);
+        if (existing != null) {
+            unlink(existing);
+        }
+        data.put(node.key, node);
+        window.put(node.key, node);
+        windowWeight += node.weight;
+        evict();
+    }
+
+    /**
+     * 窗口超限时把最久未用的条目移入试用段作为候选，总权重超限时候选与试用段最久未用的条目比较频率
+     */
+    private void evict() {
+        List<Node> candidates = new ArrayList<>();
+        while (windowWeight > windowMaxWeight && window.size() > 1) {
+            Node candidate = window.values().iterator().next();
+            window.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            candidate.segment = Segment.PROBATION;
+            probation.put(candidate.key, candidate);
+            probationWeight += candidate.weight;
+            candidates.add(candidate);
+        }
+
+        while (weightedSize() > maxWeight) {
+            Node victim = firstOf(probation);
+            Node candidate = candidates.isEmpty() ? null : candidates.get(candidates.size() - 1);
+            if (victim == null) {
+                victim = protectedSegment.isEmpty() ? firstOf(window) : firstOf(protectedSegment);
+            } else if (candidate != null && candidate != victim) {
+                if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    victim = candidate;
+                    rejectedCount++;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            candidates.remove(victim);
+            unlink(victim);
+            evictionCount++;
+            evictionWeight += victim.weight;
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaxWeight && protectedSegment.size() > 1) {
+            Node demoted = firstOf(protectedSegment);
+            protectedSegment.remove(demoted.key);
+            protectedWeight -= demoted.weight;
+            demoted.segment = Segment.PROBATION;
+            probation.put(demoted.key, demoted);
+            probationWeight += demoted.weight;
+        }
+    }
+
+    private void unlink(Node node) {
+        data.remove(node.key, node);
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node.key);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                probationWeight -= node.weight;
+                break;
+            default:
+                protectedSegment.remove(node.key);
+                protectedWeight -= node.weight;
+                break;
+        }
+    }
+
+    private static void moveToTail(LinkedHashMap<List<Object>, Node> segment, Node node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static Node firstOf(LinkedHashMap<List<Object>, Node> segment) {
+        return segment.isEmpty() ? null : segment.values().iterator().next();
+    }
+
+    /**
+     * 计算缓存键
+     */
+    private List<Object> buildKey(String url, Header header, Query query, Type responseType) {
+        List<Object> key = new ArrayList<>(3 + keyHeaders.size());
+        key.add(url);
+        key.add(query != null ? new TreeMap<>(query.getParams()) : Collections.emptyMap());
+        key.add(responseType);
+        for (String name : keyHeaders) {
+            key.add(header != null ? header.getValueIgnoreCase(name) : null);
+        }
+        return key;
+    }
+
+    /**
+     * 为调用方生成独立的结果对象，SHARED模式下与缓存共享延迟解码，第一次读取数据时才解码
+     */
+    private <T> HttpRestResult<T> copyForReader(HttpRestResult<T> cached, Type responseType) {
+        if (sharing != ResultSharing.COPY) {
+            return cached.shallowCopy();
+        }
+        T value = CopyUtils.copy(cached.getData(), responseType, copier);
+        return new HttpRestResult<>(cached.getCode(), cached.getMessage(), value, cached.getSuccess(),
+                cached.getFailed());
+    }
+}
@@ -0,0 +1,22 @@
+package com.hyfly.template.httpclient.cache;
+
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+
+/**
+ * 将响应解码为结果对象
+ *
+ * @param <T> 响应数据类型
+ */
+@FunctionalInterface
+public interface ResponseDecoder<T> {
+
+    /**
+     * 解码响应
+     *
+     * @param response HTTP响应
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    HttpRestResult<T> decode(HttpClientResponse response) throws Exception;
+}
@@ -0,0 +1,20 @@
+package com.hyfly.template.httpclient.cache;
+
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.response.BufferedHttpClientResponse;
+
+/**
+ * 缓存未命中或需要重新验证时，从上游获取响应
+ */
+@FunctionalInterface
+public interface ResponseFetcher {
+
+    /**
+     * 使用给定请求头获取完整响应
+     *
+     * @param header 请求头（可能带有条件请求头）
+     * @return 已读入内存的响应
+     * @throws Exception 异常
+     */
+    BufferedHttpClientResponse fetch(Header header) throws Exception;
+}
@@ -0,0 +1,244 @@
+package com.hyfly.template.httpclient.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 对象保留内存估算器 遍历对象图估算占用的堆内存，结果为近似值
+ * <p>
+ * 字符串、数组、集合和Map按元素估算，Buffer、BigInteger、BigDecimal、StringBuilder等常见JDK类型按内容估算；
+ * 其余JDK内部类不做反射，只计对象头；其余对象通过反射遍历实例字段。
+ * 遍历和待遍历的对象数都有上限，超出后不再深入。
+ */
+final class RetainedSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAX_VISITED = 100_000;
+
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private RetainedSizeEstimator() {
+    }
+
+    /**
+     * 估算对象图的保留大小
+     *
+     * @param root 根对象
+     * @return 字节数
+     */
+    static long estimate(Object root) {
+        if (root == null) {
+            return 0;
+        }
+        IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long size = 0;
+        while (!pending.isEmpty() && visited.size() < MAX_VISITED) {
+            Object object = pending.pop();
+            if (visited.put(object, Boolean.TRUE) != null) {
+                continue;
+            }
+            size += shallowSize(object, pending);
+        }
+        return size;
+    }
+
+    /**
+     * 计算对象本身的大小，并把引用的对象加入待遍历队列
+     */
+    private static long shallowSize(Object object, Deque<Object> pending) {
+        Class<?> type = object.getClass();
+        if (object instanceof String) {
+            return OBJECT_HEADER + 24 + 2L * ((String) object).length();
+        }
+        if (object instanceof Enum || object instanceof Class) {
+            return 0;
+        }
+        if (object instanceof Number && !(object instanceof BigInteger || object instanceof BigDecimal)
+                || object instanceof Boolean || object instanceof Character) {
+            return OBJECT_HEADER + 8;
+        }
+        if (type.isArray()) {
+            return arraySize(object, type.getComponentType(), pending);
+        }
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!pushIfPresent(pending, entry.getKey()) || !pushIfPresent(pending, entry.getValue())) {
+                    break;
+                }
+            }
+            return 64 + 40L * map.size();
+        }
+        if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            for (Object element : collection) {
+                if (!pushIfPresent(pending, element)) {
+                    break;
+                }
+            }
+            return 40 + 8L * collection.size();
+        }
+        if (isJdkType(type)) {
+            return jdkObjectSize(object, pending);
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : fieldsOf(type)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                size += primitiveSize(fieldType);
+                continue;
+            }
+            size += REFERENCE;
+            try {
+                pushIfPresent(pending, field.get(object));
+            } catch (IllegalAccessException e) {
+                // 无法访问的字段只计引用大小
+            }
+        }
+        return align(size);
+    }
+
+    private static long arraySize(Object array, Class<?> componentType, Deque<Object> pending) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(OBJECT_HEADER + (long) length * primitiveSize(componentType));
+        }
+        for (Object element : (Object[]) array) {
+            if (!pushIfPresent(pending, element)) {
+                break;
+            }
+        }
+        return align(OBJECT_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * 估算常见JDK类型的大小，堆外Buffer只计对象本身
+     */
+    private static long jdkObjectSize(Object object, Deque<Object> pending) {
+        if (object instanceof Buffer) {
+            Buffer buffer = (Buffer) object;
+            if (buffer.isDirect() || !buffer.hasArray()) {
+                return OBJECT_HEADER + 48;
+            }
+            return OBJECT_HEADER + 48 + align(OBJECT_HEADER + (long) buffer.capacity() * bufferElementSize(buffer));
+        }
+        if (object instanceof BigInteger) {
+            return OBJECT_HEADER + 24 + align(OBJECT_HEADER + ((BigInteger) object).bitLength() / 8 + 4);
+        }
+        if (object instanceof BigDecimal) {
+            BigInteger unscaled = ((BigDecimal) object).unscaledValue();
+            return OBJECT_HEADER + 24 + (unscaled.bitLength() > 63 ? jdkObjectSize(unscaled, pending) : 0);
+        }
+        if (object instanceof CharSequence) {
+            // StringBuilder、StringBuffer等按长度估算
+            return OBJECT_HEADER + 8 + align(OBJECT_HEADER + 2L * ((CharSequence) object).length());
+        }
+        if (object instanceof Optional) {
+            pushIfPresent(pending, ((Optional<?>) object).orElse(null));
+            return OBJECT_HEADER + REFERENCE;
+        }
+        if (object instanceof AtomicReference) {
+            pushIfPresent(pending, ((AtomicReference<?>) object).get());
+            return OBJECT_HEADER + REFERENCE;
+        }
+        if (object instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+            pushIfPresent(pending, entry.getKey());
+            pushIfPresent(pending, entry.getValue());
+            return OBJECT_HEADER + 2 * REFERENCE;
+        }
+        return OBJECT_HEADER + 8;
+    }
+
+    private static int bufferElementSize(Buffer buffer) {
+        if (buffer instanceof ByteBuffer) {
+            return 1;
+        }
+        if (buffer instanceof CharBuffer || buffer instanceof ShortBuffer) {
+            return 2;
+        }
+        if (buffer instanceof LongBuffer || buffer instanceof DoubleBuffer) {
+            return 8;
+        }
+        return 4;
+    }
+
+    private static Field[] fieldsOf(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // 模块系统禁止访问时跳过该字段
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || name.startsWith("jdk.");
+    }
+
+    /**
+     * 加入待遍历队列，队列已满时返回false
+     */
+    private static boolean pushIfPresent(Deque<Object> pending, Object value) {
+        if (pending.size() >= MAX_VISITED) {
+            return false;
+        }
+        if (value != null) {
+            pending.push(value);
+        }
+        return true;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,195 @@
+package com.hyfly.template.httpclient.coalesce;
+
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.util.CopyUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * 请求合并器 并发的相同请求只向上游发送一次，所有调用方共享同一个结果
+ * <p>
+ * 请求以HTTP方法、完整URI、凭证请求头（Authorization、Cookie）、指定的请求头和响应类型作为键，
+ * 不同用户的请求不会合并。每个调用方都会拿到独立的
+ * {@link HttpRestResult} 实例；响应数据在 {@link ResultSharing#SHARED} 模式下共享同一个对象，
+ * 调用方不得修改，在 {@link ResultSharing#COPY} 模式下跟随者拿到数据的副本，与领导者的调用方互不影响。
+ */
+@Slf4j
+public class RequestCoalescer {
+
+    /**
+     * 响应数据的共享方式
+     */
+    public enum ResultSharing {
+        /**
+         * 所有调用方共享同一个数据对象，调用方约定不修改
+         */
+        SHARED,
+        /**
+         * 跟随者拿到数据的副本，可以安全修改
+         */
+        COPY
+    }
+
+    private static final List<String> CREDENTIAL_HEADERS = Arrays.asList("Authorization", "Cookie");
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<HttpRestResult<?>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final List<String> keyHeaders;
+    private ResultSharing sharing = ResultSharing.SHARED;
+    private UnaryOperator<Object> copier;
+
+    /**
+     * @param keyHeaders 除Authorization和Cookie外还参与合并键计算的请求头，如租户标识
+     */
+    public RequestCoalescer(String... keyHeaders) {
+        List<String> names = new ArrayList<>(CREDENTIAL_HEADERS);
+        for (String name : keyHeaders) {
+            if (names.stream().noneMatch(name::equalsIgnoreCase)) {
+                names.add(name);
+            }
+        }
+        this.keyHeaders = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 设置响应数据的共享方式
+     *
+     * @param sharing 共享方式
+     * @return RequestCoalescer
+     */
+    public RequestCoalescer sharing(ResultSharing sharing) {
+        this.sharing = sharing;
+        return this;
+    }
+
+    /**
+     * 设置COPY模式下的数据复制函数，默认通过JSON序列化再反序列化复制
+     *
+     * @param copier 复制函数
+     * @return RequestCoalescer
+     */
+    public RequestCoalescer copier(UnaryOperator<Object> copier) {
+        this.copier = copier;
+        return this;
+    }
+
+    /**
+     * 获取当前正在进行的合并请求数
+     *
+     * @return 请求数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 合并执行请求
+     *
+     * @param httpMethod   HTTP方法
+     * @param uri          完整URI
+     * @param header       请求头
+     * @param responseType 响应类型
+     * @param call         实际的请求调用
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    @SuppressWarnings("unchecked")
+    public <T> HttpRestResult<T> execute(String httpMethod, URI uri, Header header, Type responseType,
+                                         Callable<HttpRestResult<T>> call) throws Exception {
+        List<Object> key = buildKey(httpMethod, uri, header, responseType);
+        CompletableFuture<HttpRestResult<?>> future = new CompletableFuture<>();
+        CompletableFuture<HttpRestResult<?>> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing == null) {
+            HttpRestResult<T> result;
+            try {
+                result = call.call();
+            } catch (Throwable e) {
+                inFlight.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+            inFlight.remove(key, future);
+            publish(future, result, responseType);
+            return result;
+        }
+
+        log.debug("合并相同的进行中请求: {} {}", httpMethod, uri);
+        HttpRestResult<T> shared;
+        try {
+            shared = (HttpRestResult<T>) existing.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        return copyForFollower(shared, responseType);
+    }
+
+    /**
+     * 把领导者的结果交给跟随者
+     * <p>
+     * COPY模式下领导者的调用方拿到结果后可能立即修改数据，跟随者从发布前复制的快照再复制，快照本身不交给任何调用方。
+     * 尚未解码的延迟结果发布的快照只持有解码器，每个跟随者各自解码出独立的数据对象。
+     */
+    private <T> void publish(CompletableFuture<HttpRestResult<?>> future, HttpRestResult<T> result,
+                             Type responseType) {
+        if (sharing != ResultSharing.COPY) {
+            future.complete(result);
+            return;
+        }
+        try {
+            future.complete(copyForFollower(result, responseType));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 计算合并键
+     */
+    private List<Object> buildKey(String httpMethod, URI uri, Header header, Type responseType) {
+        List<Object> key = new ArrayList<>(3 + keyHeaders.size());
+        key.add(httpMethod);
+        key.add(uri.toString());
+        key.add(responseType);
+        for (String name : keyHeaders) {
+            key.add(header != null ? header.getValueIgnoreCase(name) : null);
+        }
+        return key;
+    }
+
+    /**
+     * 为跟随者生成独立的结果对象，尚未解码的延迟结果由跟随者各自解码，不在领导者线程上解码
+     */
+    private <T> HttpRestResult<T> copyForFollower(HttpRestResult<T> shared, Type responseType) {
+        if (sharing != ResultSharing.COPY) {
+            return shared.shallowCopy();
+        }
+        if (!shared.isDecoded()) {
+            return shared.fork();
+        }
+        T data = CopyUtils.copy(shared.getData(), responseType, copier);
+        return new HttpRestResult<>(shared.getCode(), shared.getMessage(), data, shared.getSuccess(),
+                shared.getFailed());
+    }
+}
@@ -0,0 +1,19 @@
+package com.hyfly.template.httpclient.compress;
+
+import org.brotli.dec.BrotliInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * brotli解码 单独成类，类路径中没有 {@code org.brotli:dec} 时不会被加载
+ */
+final class BrotliDecoder {
+
+    private BrotliDecoder() {
+    }
+
+    static InputStream decode(InputStream wire) throws IOException {
+        return new BrotliInputStream(wire);
+    }
+}
@@ -0,0 +1,149 @@
+package com.hyfly.template.httpclient.compress;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按主机统计的响应压缩情况 传输字节数与解码后字节数，用于评估压缩的收益
+ * <p>
+ * 字节数在读取响应体时累加，只读取了部分的响应按实际读取的部分统计。未压缩的响应只计数，不统计字节。
+ * 主机数量超过上限时清空重新统计。线程安全。
+ */
+public class CompressionStats {
+
+    private static final int MAX_HOSTS = 4096;
+    private static final CompressionStats GLOBAL = new CompressionStats();
+
+    private final ConcurrentMap<String, HostCounters> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * 获取默认配置共用的统计
+     *
+     * @return 全局统计
+     */
+    public static CompressionStats global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 获取主机的统计，不存在时返回null
+     *
+     * @param host 主机名
+     * @return 主机统计
+     */
+    public HostCounters get(String host) {
+        return hosts.get(host);
+    }
+
+    /**
+     * 获取全部主机的统计
+     *
+     * @return 主机名到统计的映射
+     */
+    public Map<String, HostCounters> getHosts() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(hosts));
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        hosts.clear();
+    }
+
+    HostCounters counters(String host) {
+        String key = host != null ? host : "";
+        HostCounters counters = hosts.get(key);
+        if (counters != null) {
+            return counters;
+        }
+        if (hosts.size() >= MAX_HOSTS) {
+            hosts.clear();
+        }
+        return hosts.computeIfAbsent(key, k -> new HostCounters());
+    }
+
+    /**
+     * 一个主机的统计
+     */
+    public static final class HostCounters {
+
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+        private final LongAdder encodedResponses = new LongAdder();
+        private final LongAdder identityResponses = new LongAdder();
+
+        /**
+         * 压缩响应传输的字节数
+         *
+         * @return 字节数
+         */
+        public long getWireBytes() {
+            return wireBytes.sum();
+        }
+
+        /**
+         * 压缩响应解码后的字节数
+         *
+         * @return 字节数
+         */
+        public long getDecodedBytes() {
+            return decodedBytes.sum();
+        }
+
+        /**
+         * 压缩的响应数
+         *
+         * @return 响应数
+         */
+        public long getEncodedResponses() {
+            return encodedResponses.sum();
+        }
+
+        /**
+         * 协商了压缩但服务端没有压缩的响应数
+         *
+         * @return 响应数
+         */
+        public long getIdentityResponses() {
+            return identityResponses.sum();
+        }
+
+        /**
+         * 压缩比：解码后字节数与传输字节数之比，还没有数据时为0
+         *
+         * @return 压缩比
+         */
+        public double getRatio() {
+            long wire = getWireBytes();
+            return wire > 0 ? (double) getDecodedBytes() / wire : 0;
+        }
+
+        void addWire(long bytes) {
+            wireBytes.add(bytes);
+        }
+
+        void addDecoded(long bytes) {
+            decodedBytes.add(bytes);
+        }
+
+        void onEncoded() {
+            encodedResponses.increment();
+        }
+
+        void onIdentity() {
+            identityResponses.increment();
+        }
+
+        @Override
+        public String toString() {
+            return "HostCounters{wireBytes=" + getWireBytes() + ", decodedBytes=" + getDecodedBytes()
+                    + ", encodedResponses=" + getEncodedResponses()
+                    + ", identityResponses=" + getIdentityResponses() + "}";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.hyfly.template.httpclient.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 响应的内容编码 按 {@code Accept-Encoding} 中的顺序排列
+ * <p>
+ * gzip和deflate由JDK解码；br和zstd分别需要类路径中存在 {@code org.brotli:dec} 和 {@code com.github.luben:zstd-jni}，
+ * 不存在时不参与协商。
+ */
+public enum ContentCoding {
+
+    GZIP("gzip") {
+        @Override
+        InputStream decode(InputStream wire) throws IOException {
+            return new GZIPInputStream(wire, BUFFER_SIZE);
+        }
+    },
+
+    DEFLATE("deflate") {
+        @Override
+        InputStream decode(InputStream wire) throws IOException {
+            // 标准要求zlib格式，部分服务端发送不带头的原始deflate数据，按前两个字节区分
+            PushbackInputStream input = new PushbackInputStream(wire, 2);
+            byte[] head = new byte[2];
+            int n = input.read(head);
+            if (n > 0) {
+                input.unread(head, 0, n);
+            }
+            Inflater inflater = new Inflater(n < 2 || !isZlibHeader(head[0], head[1]));
+            return new InflaterInputStream(input, inflater, BUFFER_SIZE) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        // 自带的Inflater不会被父类释放
+                        inflater.end();
+                        super.close();
+                    }
+                }
+            };
+        }
+    },
+
+    BROTLI("br") {
+        @Override
+        InputStream decode(InputStream wire) throws IOException {
+            return BrotliDecoder.decode(wire);
+        }
+
+        @Override
+        boolean probe() {
+            return isPresent("org.brotli.dec.BrotliInputStream");
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        InputStream decode(InputStream wire) throws IOException {
+            return ZstdDecoder.decode(wire);
+        }
+
+        @Override
+        boolean probe() {
+            return isPresent("com.github.luben.zstd.ZstdInputStream") && ZstdDecoder.isLoaded();
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final String ACCEPT_ENCODING = buildAcceptEncoding();
+
+    private final String token;
+    private final boolean available;
+
+    ContentCoding(String token) {
+        this.token = token;
+        this.available = probe();
+    }
+
+    /**
+     * 按编码名称获取，忽略大小写，{@code x-gzip} 视为gzip
+     *
+     * @param token 编码名称
+     * @return ContentCoding，不支持的编码返回null
+     */
+    public static ContentCoding of(String token) {
+        if (token == null) {
+            return null;
+        }
+        String name = token.trim().toLowerCase(Locale.ROOT);
+        if ("x-gzip".equals(name)) {
+            return GZIP;
+        }
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(name)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取当前环境可以解码的全部编码，用作 {@code Accept-Encoding}
+     *
+     * @return 如 {@code gzip, deflate, br, zstd}
+     */
+    public static String acceptEncoding() {
+        return ACCEPT_ENCODING;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * 当前环境是否可以解码
+     *
+     * @return 是否可用
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 包装传输的数据为解码后的数据，关闭返回的流会关闭传输流
+     *
+     * @param wire 传输的数据
+     * @return 解码后的数据
+     * @throws IOException 编码头不合法
+     */
+    abstract InputStream decode(InputStream wire) throws IOException;
+
+    /**
+     * 检查解码依赖是否存在
+     */
+    boolean probe() {
+        return true;
+    }
+
+    private static boolean isZlibHeader(byte cmf, byte flg) {
+        return (cmf & 0x0F) == 8 && (((cmf & 0xFF) << 8) | (flg & 0xFF)) % 31 == 0;
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, ContentCoding.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static String buildAcceptEncoding() {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (ContentCoding coding : values()) {
+            if (coding.available) {
+                joiner.add(coding.token);
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.hyfly.template.httpclient.compress;
+
+import com.google.common.base.Strings;
+import com.google.common.net.HttpHeaders;
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * 内容压缩配置 协商响应压缩并边读边解码，可选地压缩较大的请求体
+ * <p>
+ * 请求没有 {@code Accept-Encoding} 时发送当前环境可以解码的全部编码（见 {@link ContentCoding#acceptEncoding()}），
+ * 响应按Content-Encoding解码后交给调用方，响应头中不再有Content-Encoding和Content-Length。
+ * 调用方自己设置了 {@code Accept-Encoding} 时视为需要原始数据，不解码；带Range的请求不协商，分段数据需要与原始字节对齐。
+ * <p>
+ * 请求体压缩默认关闭，开启后长度不小于阈值或长度未知（对象序列化、流式请求体）的请求体用gzip压缩，
+ * 压缩器从池中借用。服务端需要支持请求的Content-Encoding。
+ * <p>
+ * 配置在发送请求前设置，之后不应再修改。
+ */
+@Slf4j
+public class ContentCompression {
+
+    private static final int DEFAULT_POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private boolean decodeResponses = true;
+    private long requestThreshold = -1;
+    private DeflaterPool deflaterPool = new DeflaterPool(Deflater.DEFAULT_COMPRESSION, DEFAULT_POOL_CAPACITY);
+    private CompressionStats stats = CompressionStats.global();
+
+    /**
+     * 设置是否协商并解码压缩的响应，默认开启
+     *
+     * @param decodeResponses 是否解码
+     * @return ContentCompression
+     */
+    public ContentCompression decodeResponses(boolean decodeResponses) {
+        this.decodeResponses = decodeResponses;
+        return this;
+    }
+
+    /**
+     * 开启请求体压缩
+     *
+     * @param requestThreshold 压缩的最小请求体字节数，小于0表示关闭
+     * @return ContentCompression
+     */
+    public ContentCompression requestThreshold(long requestThreshold) {
+        this.requestThreshold = requestThreshold;
+        return this;
+    }
+
+    /**
+     * 设置请求体的压缩级别，默认为zlib的默认级别
+     *
+     * @param level 压缩级别，1到9
+     * @return ContentCompression
+     */
+    public ContentCompression level(int level) {
+        this.deflaterPool = new DeflaterPool(level, DEFAULT_POOL_CAPACITY);
+        return this;
+    }
+
+    /**
+     * 设置统计，默认使用 {@link CompressionStats#global()}
+     *
+     * @param stats 统计
+     * @return ContentCompression
+     */
+    public ContentCompression stats(CompressionStats stats) {
+        this.stats = stats;
+        return this;
+    }
+
+    public boolean isDecodeResponses() {
+        return decodeResponses;
+    }
+
+    public long getRequestThreshold() {
+        return requestThreshold;
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 是否为这个请求协商响应压缩
+     *
+     * @param headers 请求头
+     * @return 是否协商，协商时需要发送 {@link ContentCoding#acceptEncoding()}
+     */
+    public boolean negotiates(Header headers) {
+        if (!decodeResponses || Strings.isNullOrEmpty(ContentCoding.acceptEncoding())) {
+            return false;
+        }
+        return headers == null || headers.getValueIgnoreCase(HttpHeaders.ACCEPT_ENCODING) == null
+                && headers.getValueIgnoreCase(HttpHeaders.RANGE) == null;
+    }
+
+    /**
+     * 按Content-Encoding包装响应，只对协商了压缩的请求调用
+     *
+     * @param uri      请求URI
+     * @param response 原始响应
+     * @return 解码后的响应，没有压缩或编码不支持时返回原响应
+     */
+    public HttpClientResponse decode(URI uri, HttpClientResponse response) {
+        CompressionStats.HostCounters counters = stats.counters(uri.getHost());
+        String contentEncoding = response.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (Strings.isNullOrEmpty(contentEncoding) || "identity".equalsIgnoreCase(contentEncoding.trim())) {
+            counters.onIdentity();
+            return response;
+        }
+        List<ContentCoding> codings = new ArrayList<>(1);
+        for (String token : contentEncoding.split(",")) {
+            if ("identity".equalsIgnoreCase(token.trim())) {
+                continue;
+            }
+            ContentCoding coding = ContentCoding.of(token);
+            if (coding == null || !coding.isAvailable()) {
+                log.warn("不支持的响应编码: {}, 按原始数据返回: {}", contentEncoding, uri);
+                return response;
+            }
+            codings.add(coding);
+        }
+        if (codings.isEmpty()) {
+            counters.onIdentity();
+            return response;
+        }
+        counters.onEncoded();
+        return new DecodingHttpClientResponse(response, codings, counters);
+    }
+
+    /**
+     * 是否压缩这个请求体
+     *
+     * @param contentLength 请求体长度，未知时为-1
+     * @return 是否压缩
+     */
+    public boolean compresses(long contentLength) {
+        return requestThreshold >= 0 && (contentLength < 0 || contentLength >= requestThreshold);
+    }
+
+    /**
+     * 包装输出流为gzip压缩输出流，关闭返回的流不会关闭底层输出流
+     *
+     * @param output 底层输出流
+     * @return 压缩输出流
+     * @throws IOException 写入gzip头失败
+     */
+    public GzipEncodingOutputStream compress(OutputStream output) throws IOException {
+        return new GzipEncodingOutputStream(output, deflaterPool);
+    }
+}
@@ -0,0 +1,216 @@
+package com.hyfly.template.httpclient.compress;
+
+import com.google.common.net.HttpHeaders;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 边读边解码的响应 响应体按Content-Encoding逐层解码，响应头去掉Content-Encoding和Content-Length
+ * <p>
+ * 解码器在第一次读取时创建，空响应体（如HEAD、304）不会因缺少编码头而失败。
+ */
+final class DecodingHttpClientResponse implements HttpClientResponse {
+
+    private final HttpClientResponse delegate;
+    private final List<ContentCoding> codings;
+    private final CompressionStats.HostCounters counters;
+    private Map<String, String> headers;
+    private DecodingInputStream body;
+
+    /**
+     * @param delegate 原始响应
+     * @param codings  按应用顺序排列的编码，解码时从后往前
+     * @param counters 主机的统计
+     */
+    DecodingHttpClientResponse(HttpClientResponse delegate, List<ContentCoding> codings,
+                               CompressionStats.HostCounters counters) {
+        this.delegate = delegate;
+        this.codings = codings;
+        this.counters = counters;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        if (headers == null) {
+            Map<String, String> decoded = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : delegate.getHeaders().entrySet()) {
+                if (!HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(entry.getKey())
+                        && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey())) {
+                    decoded.put(entry.getKey(), entry.getValue());
+                }
+            }
+            headers = decoded;
+        }
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            InputStream wire = delegate.getBody();
+            if (wire == null) {
+                return null;
+            }
+            body = new DecodingInputStream(wire);
+        }
+        return body;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getContentType() {
+        return delegate.getContentType();
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            releaseDecoder();
+        }
+    }
+
+    @Override
+    public void abort() throws IOException {
+        try {
+            delegate.abort();
+        } finally {
+            releaseDecoder();
+        }
+    }
+
+    /**
+     * 连接已经关闭或归还，释放解码器的本地内存
+     */
+    private void releaseDecoder() {
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // 底层流已关闭，忽略
+            }
+        }
+    }
+
+    /**
+     * 统计传输字节数的流
+     */
+    private final class WireInputStream extends FilterInputStream {
+
+        WireInputStream(InputStream wire) {
+            super(wire);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counters.addWire(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counters.addWire(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counters.addWire(skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * 解码后的流 第一次读取时创建解码器，同时统计解码后的字节数
+     */
+    private final class DecodingInputStream extends InputStream {
+
+        private final PushbackInputStream wire;
+        private InputStream decoded;
+        private boolean closed;
+
+        DecodingInputStream(InputStream wire) {
+            this.wire = new PushbackInputStream(new WireInputStream(wire), 1);
+        }
+
+        private InputStream decoded() throws IOException {
+            if (closed) {
+                throw new IOException("响应体已关闭");
+            }
+            if (decoded == null) {
+                int first = wire.read();
+                if (first < 0) {
+                    decoded = wire;
+                } else {
+                    wire.unread(first);
+                    InputStream input = wire;
+                    for (int i = codings.size() - 1; i >= 0; i--) {
+                        input = codings.get(i).decode(input);
+                    }
+                    decoded = input;
+                }
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = decoded().read();
+            if (b >= 0) {
+                counters.addDecoded(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = decoded().read(b, off, len);
+            if (n > 0) {
+                counters.addDecoded(n);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded != null && !closed ? decoded.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                wire.close();
+            }
+        }
+    }
+}
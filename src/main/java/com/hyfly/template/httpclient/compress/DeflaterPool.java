@@ -0,0 +1,56 @@
+package com.hyfly.template.httpclient.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Deflater池 复用压缩器，避免每个请求体都分配和释放压缩器的本地内存
+ * <p>
+ * 池中都是不带zlib头的压缩器，由 {@link GzipEncodingOutputStream} 补上gzip的头和尾。超过容量的归还直接释放。线程安全。
+ */
+public class DeflaterPool {
+
+    private final int level;
+    private final ArrayBlockingQueue<Deflater> idle;
+
+    /**
+     * @param level    压缩级别，1到9，或 {@link Deflater#DEFAULT_COMPRESSION}
+     * @param capacity 最多保留的空闲压缩器数量
+     */
+    public DeflaterPool(int level, int capacity) {
+        if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("压缩级别不合法: " + level);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0: " + capacity);
+        }
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * 获取压缩器，使用完必须归还
+     *
+     * @return 已重置的压缩器
+     */
+    public Deflater acquire() {
+        Deflater deflater = idle.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    /**
+     * 归还压缩器，归还后调用方不能再使用它
+     *
+     * @param deflater 压缩器
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hyfly.template.httpclient.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * gzip压缩输出流 压缩器从 {@link DeflaterPool} 借用，结束时归还
+ * <p>
+ * 与 {@link java.util.zip.GZIPOutputStream} 格式相同。关闭时只写完gzip尾部并刷新，不关闭底层输出流，
+ * 底层是连接的输出流时由HTTP客户端决定何时关闭。
+ */
+public class GzipEncodingOutputStream extends DeflaterOutputStream {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final DeflaterPool pool;
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+
+    /**
+     * @param output 底层输出流
+     * @param pool   压缩器池
+     * @throws IOException 写入gzip头失败
+     */
+    public GzipEncodingOutputStream(OutputStream output, DeflaterPool pool) throws IOException {
+        this(output, pool, pool.acquire());
+    }
+
+    private GzipEncodingOutputStream(OutputStream output, DeflaterPool pool, Deflater deflater) throws IOException {
+        super(output, deflater, BUFFER_SIZE);
+        this.pool = pool;
+        try {
+            output.write(HEADER);
+        } catch (IOException e) {
+            pool.release(deflater);
+            finished = true;
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("压缩输出流已结束");
+        }
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    /**
+     * 写完剩余的压缩数据和gzip尾部，归还压缩器，不关闭底层输出流
+     *
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            super.finish();
+            long size = def.getBytesRead();
+            byte[] trailer = new byte[8];
+            writeInt(trailer, 0, crc.getValue());
+            writeInt(trailer, 4, size);
+            out.write(trailer);
+        } finally {
+            pool.release(def);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.flush();
+    }
+
+    private static void writeInt(byte[] buffer, int offset, long value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+}
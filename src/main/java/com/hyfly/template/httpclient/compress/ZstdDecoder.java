@@ -0,0 +1,34 @@
+package com.hyfly.template.httpclient.compress;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * zstd解码 单独成类，类路径中没有 {@code com.github.luben:zstd-jni} 时不会被加载
+ * <p>
+ * 使用不带finalizer的解码流，本地内存在关闭时释放，响应关闭时会关闭解码流。
+ */
+final class ZstdDecoder {
+
+    private ZstdDecoder() {
+    }
+
+    static InputStream decode(InputStream wire) throws IOException {
+        return new ZstdInputStreamNoFinalizer(wire);
+    }
+
+    /**
+     * 本地库是否可以加载，不支持的平台上不协商zstd
+     */
+    static boolean isLoaded() {
+        try {
+            Native.load();
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
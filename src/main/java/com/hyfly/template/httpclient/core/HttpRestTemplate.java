@@ -1,19 +1,51 @@
 package com.hyfly.template.httpclient.core;
 
+import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.cache.HttpCache;
+import com.hyfly.template.httpclient.coalesce.RequestCoalescer;
+import com.hyfly.template.httpclient.download.DownloadOptions;
+import com.hyfly.template.httpclient.download.DownloadResult;
+import com.hyfly.template.httpclient.download.FileDownloader;
+import com.hyfly.template.httpclient.download.SegmentedDownloader;
 import com.hyfly.template.httpclient.constants.HttpMethod;
 import com.hyfly.template.httpclient.handler.ResponseHandler;
+import com.hyfly.template.httpclient.hedge.HedgePolicy;
+import com.hyfly.template.httpclient.json.FieldSelection;
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorRegistry;
+import com.hyfly.template.httpclient.json.TypeReference;
 import com.hyfly.template.httpclient.model.Header;
 import com.hyfly.template.httpclient.model.HttpRestResult;
 import com.hyfly.template.httpclient.model.Query;
 import com.hyfly.template.httpclient.model.RequestHttpEntity;
 import com.hyfly.template.httpclient.request.HttpClientRequest;
+import com.hyfly.template.httpclient.request.JsonStreamBody;
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.request.UploadBody;
+import com.hyfly.template.httpclient.response.BufferedHttpClientResponse;
 import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.hyfly.template.httpclient.response.ResponseBodyReader;
+import com.hyfly.template.httpclient.response.ResponseTooLargeException;
+import com.hyfly.template.httpclient.stream.CloseableIterator;
+import com.hyfly.template.httpclient.stream.JsonArrayIterator;
+import com.hyfly.template.httpclient.stream.NdjsonIterator;
+import com.hyfly.template.httpclient.upload.MultipartUploadOptions;
+import com.hyfly.template.httpclient.upload.MultipartUploader;
+import com.hyfly.template.httpclient.upload.UploadCompletion;
+import com.hyfly.template.httpclient.upload.UploadPart;
 import com.hyfly.template.httpclient.util.HttpUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
 import org.apache.http.entity.ContentType;
 
+import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * HTTP REST模板类 - 支持各种HTTP操作的统一接口
@@ -23,12 +55,168 @@ public class HttpRestTemplate {
 
     private final HttpClientRequest requestClient;
 
+    /**
+     * GET请求的对冲策略，为空时不对冲
+     */
+    private volatile HedgePolicy hedgePolicy;
+
+    /**
+     * GET请求的合并器，为空时不合并
+     */
+    private volatile RequestCoalescer requestCoalescer;
+
+    /**
+     * GET响应缓存，为空时不缓存
+     */
+    private volatile HttpCache httpCache;
+
+    /**
+     * 响应解码使用的处理器注册表，默认为全局注册表
+     */
+    private volatile JsonProcessorRegistry jsonProcessorRegistry = JsonProcessorRegistry.global();
+
+    /**
+     * 是否延迟解码响应数据
+     */
+    private volatile boolean lazyDecoding;
+
+    /**
+     * 读取响应体使用的读取器，默认使用共享的缓冲区池
+     */
+    private volatile ResponseBodyReader responseBodyReader = ResponseBodyReader.shared();
+
+    /**
+     * 协商使用的Accept请求头，为空时保持默认的JSON
+     */
+    private volatile String acceptHeader;
+
+    /**
+     * 允许的最大响应体字节数，默认不限制
+     */
+    private volatile long maxBodySize = Long.MAX_VALUE;
+
+    /**
+     * 错误响应体保留的前缀字节数
+     */
+    private volatile int errorBodyLimit = ResponseHandler.DEFAULT_ERROR_BODY_LIMIT;
+
     public HttpRestTemplate(HttpClientRequest requestClient) {
         this.requestClient = requestClient;
     }
 
+    /**
+     * 设置GET请求的对冲策略
+     *
+     * @param hedgePolicy 对冲策略，为空时关闭对冲
+     */
+    public void setHedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+    }
+
+    /**
+     * 设置GET请求的合并器，并发的相同GET请求共享一次上游调用
+     *
+     * @param requestCoalescer 请求合并器，为空时关闭合并
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    /**
+     * 设置GET响应缓存，非安全方法请求成功后会使对应URI的缓存失效
+     *
+     * @param httpCache HTTP缓存，为空时关闭缓存
+     */
+    public void setHttpCache(HttpCache httpCache) {
+        this.httpCache = httpCache;
+    }
+
+    /**
+     * 设置响应解码使用的处理器注册表，按响应Content-Type选择处理器
+     *
+     * @param jsonProcessorRegistry 处理器注册表
+     */
+    public void setJsonProcessorRegistry(JsonProcessorRegistry jsonProcessorRegistry) {
+        this.jsonProcessorRegistry = jsonProcessorRegistry;
+    }
+
+    /**
+     * 获取响应解码使用的处理器注册表
+     *
+     * @return 处理器注册表
+     */
+    public JsonProcessorRegistry getJsonProcessorRegistry() {
+        return jsonProcessorRegistry;
+    }
+
+    /**
+     * 设置是否延迟解码响应数据
+     * <p>
+     * 开启后只把响应体读入内存，第一次调用 {@link HttpRestResult#getData()} 时才解码并缓存，解码失败时在该调用中抛出异常。
+     * 适合多数调用方只检查状态码的场景，不读取数据的结果只有一次字节复制的开销。
+     *
+     * @param lazyDecoding 是否延迟解码
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+    }
+
+    /**
+     * 设置读取响应体使用的读取器，可以换用堆外或不同分级的缓冲区池
+     * <p>
+     * 使用 {@link ResponseBodyReader#direct()} 时响应体读入池化的堆外缓冲区，解码后即归还，不在堆内留下短暂存活的大数组；
+     * 以 {@link PooledBuffer} 为响应类型时得到引用计数的堆外缓冲区句柄，由调用方释放。
+     *
+     * @param responseBodyReader 响应体读取器
+     */
+    public void setResponseBodyReader(ResponseBodyReader responseBodyReader) {
+        this.responseBodyReader = responseBodyReader;
+    }
+
+    /**
+     * 设置允许的最大响应体字节数，默认不限制
+     * <p>
+     * Content-Length超过上限时不读取响应体，长度未知时读到超限的那一刻停止，两种情况都断开连接并返回失败结果。
+     * 下载到文件和流式读取不受此限制。单次请求可以通过 {@link #exchange} 单独指定。
+     *
+     * @param maxBodySize 最大字节数
+     */
+    public void setMaxBodySize(long maxBodySize) {
+        if (maxBodySize <= 0) {
+            throw new IllegalArgumentException("最大响应体长度必须大于0: " + maxBodySize);
+        }
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * 设置错误响应体保留的前缀字节数，用于结果消息和日志，超出部分不读取
+     *
+     * @param errorBodyLimit 前缀字节数，默认4KB
+     */
+    public void setErrorBodyLimit(int errorBodyLimit) {
+        if (errorBodyLimit < 0) {
+            throw new IllegalArgumentException("错误响应体前缀长度不能为负数: " + errorBodyLimit);
+        }
+        this.errorBodyLimit = errorBodyLimit;
+    }
+
+    /**
+     * 设置偏好的响应数据格式，请求头仍为默认的JSON Accept时按偏好顺序发送二进制格式的Accept，JSON作为兜底
+     * <p>
+     * 响应按Content-Type选择处理器解码，服务端不支持二进制格式时返回的JSON照常解码。
+     *
+     * @param formats 格式名称，如 {@link JsonProcessorRegistry#SMILE}，按偏好从高到低；为空时恢复JSON
+     */
+    public void setPreferredFormats(String... formats) {
+        this.acceptHeader = formats == null || formats.length == 0
+                ? null : jsonProcessorRegistry.acceptHeader(formats);
+    }
+
     /**
      * GET请求
+     * <p>
+     * 响应类型为byte[]、ByteBuffer（只读）或 {@link PooledBuffer} 时原样返回响应体字节，不做字符解码，适合二进制数据和透传转发。
+     * PooledBuffer由调用方关闭归还，不经过响应缓存、请求合并和对冲。
      *
      * @param url          请求URL
      * @param header       请求头
@@ -40,7 +228,334 @@ public class HttpRestTemplate {
      */
     public <T> HttpRestResult<T> get(String url, Header header, Query query, Class<T> responseType)
             throws Exception {
-        return execute(url, HttpMethod.GET, new RequestHttpEntity(header, query), responseType);
+        return get(url, header, query, (Type) responseType);
+    }
+
+    /**
+     * GET请求（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 响应类型引用，如 {@code new TypeReference<List<Foo>>() {}}
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> get(String url, Header header, Query query, TypeReference<T> typeReference)
+            throws Exception {
+        return get(url, header, query, typeReference.getType());
+    }
+
+    /**
+     * GET请求的公共实现
+     */
+    private <T> HttpRestResult<T> get(String url, Header header, Query query, Type responseType)
+            throws Exception {
+        negotiate(header);
+        RequestHttpEntity requestEntity = new RequestHttpEntity(header, query);
+        URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        RequestCoalescer coalescer = this.requestCoalescer;
+        if (coalescer == null || responseType == PooledBuffer.class) {
+            return executeGet(uri, requestEntity, responseType);
+        }
+        return coalescer.execute(HttpMethod.GET, uri, header, responseType,
+                () -> executeGet(uri, requestEntity, responseType));
+    }
+
+    /**
+     * 执行GET请求，配置了缓存时先查缓存，配置了对冲策略时以对冲方式执行；调用方独占的PooledBuffer不缓存也不对冲
+     */
+    private <T> HttpRestResult<T> executeGet(URI uri, RequestHttpEntity requestEntity, Type responseType)
+            throws Exception {
+        HttpCache cache = this.httpCache;
+        if (cache != null && responseType != PooledBuffer.class) {
+            try {
+                return cache.execute(uri, requestEntity.getHeader(), responseType,
+                        header -> fetchBuffered(uri, new RequestHttpEntity(header, requestEntity.getQuery())),
+                        response -> this.<T>newResponseHandler(uri, responseType).handle(response));
+            } catch (ResponseTooLargeException e) {
+                // 与不经过缓存的请求一致，超限时返回失败结果；连接已在读取时断开
+                log.error("响应体过大，已断开连接: {}, {}", uri, e.getMessage());
+                return HttpRestResult.failure(500, e.getMessage());
+            }
+        }
+        HedgePolicy policy = this.hedgePolicy;
+        if (policy == null || responseType == PooledBuffer.class) {
+            return execute(uri, HttpMethod.GET, requestEntity, responseType, null);
+        }
+        return policy.execute(uri,
+                (target, cancellation) -> execute(target, HttpMethod.GET, requestEntity, responseType, cancellation));
+    }
+
+    /**
+     * GET请求，只提取选择的字段
+     * <p>
+     * 未选择的值只跳过不绑定，所有选择器取到值后停止读取并断开连接，适合从很大的响应中取少量字段。
+     * 结果不经过响应缓存和请求合并。
+     * <p>
+     * 始终请求JSON，不使用 {@link #setPreferredFormats(String...)} 协商的二进制格式。提前停止读取需要类路径中有Jackson；
+     * 只有Fastjson2时整个响应体会先读入内存，提前停止只省去解析和绑定。
+     *
+     * @param url       请求URL
+     * @param header    请求头
+     * @param query     查询参数
+     * @param selection 字段选择，如 {@code FieldSelection.of("$.meta.total", "$.items[0].id")}
+     * @return 响应结果，数据为选择器到值的映射，未找到的选择器不出现在结果中
+     * @throws Exception 异常
+     */
+    public HttpRestResult<Map<String, Object>> extract(String url, Header header, Query query,
+                                                       FieldSelection selection) throws Exception {
+        RequestHttpEntity requestEntity = new RequestHttpEntity(header, query);
+        URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        ResponseHandler<Map<String, Object>> responseHandler = newResponseHandler(uri, Map.class);
+        responseHandler.setFieldSelection(selection);
+        HedgePolicy policy = this.hedgePolicy;
+        if (policy == null) {
+            return execute(uri, HttpMethod.GET, requestEntity, responseHandler, null);
+        }
+        return policy.execute(uri, (target, cancellation) ->
+                execute(target, HttpMethod.GET, requestEntity, responseHandler, cancellation));
+    }
+
+    /**
+     * GET请求，逐个读取顶层JSON数组的元素
+     * <p>
+     * 元素在迭代时才从响应流中解码，内存占用与数组长度无关，适合导出类的大数组接口。响应的Content-Type为NDJSON时按行读取。
+     * 返回的迭代器持有连接，读完时自动释放，提前结束时必须关闭。结果不经过响应缓存、请求合并和对冲。
+     *
+     * @param url         请求URL
+     * @param header      请求头
+     * @param query       查询参数
+     * @param elementType 元素类型
+     * @param <T>         元素类型
+     * @return 响应结果，成功时数据为元素迭代器
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getStream(String url, Header header, Query query,
+                                                             Class<T> elementType) throws Exception {
+        return openStream(url, header, query, elementType, false);
+    }
+
+    /**
+     * GET请求，逐个读取顶层JSON数组的元素（泛型元素类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 元素类型引用
+     * @param <T>           元素类型
+     * @return 响应结果，成功时数据为元素迭代器
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getStream(String url, Header header, Query query,
+                                                             TypeReference<T> typeReference) throws Exception {
+        return openStream(url, header, query, typeReference.getType(), false);
+    }
+
+    /**
+     * GET请求，逐条读取NDJSON（JSON Lines）响应
+     * <p>
+     * 请求头仍为默认的JSON Accept时改为请求NDJSON。每读到一行就解码一条记录，不等待响应结束；
+     * 无论响应的Content-Type是什么都按行读取。返回的迭代器持有连接，读完时自动释放，提前结束时必须关闭。
+     *
+     * @param url        请求URL
+     * @param header     请求头
+     * @param query      查询参数
+     * @param recordType 记录类型
+     * @param <T>        记录类型
+     * @return 响应结果，成功时数据为记录迭代器
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getNdjson(String url, Header header, Query query,
+                                                             Class<T> recordType) throws Exception {
+        return openStream(url, acceptNdjson(header), query, recordType, true);
+    }
+
+    /**
+     * GET请求，逐条读取NDJSON响应（泛型记录类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 记录类型引用
+     * @param <T>           记录类型
+     * @return 响应结果，成功时数据为记录迭代器
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<CloseableIterator<T>> getNdjson(String url, Header header, Query query,
+                                                             TypeReference<T> typeReference) throws Exception {
+        return openStream(url, acceptNdjson(header), query, typeReference.getType(), true);
+    }
+
+    /**
+     * GET请求，逐条读取NDJSON响应并交给回调处理，处理完或出错时释放连接
+     *
+     * @param url        请求URL
+     * @param header     请求头
+     * @param query      查询参数
+     * @param recordType 记录类型
+     * @param consumer   记录回调，在调用线程中按到达顺序执行
+     * @param <T>        记录类型
+     * @return 响应结果，成功时数据为处理的记录数
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<Long> getNdjson(String url, Header header, Query query, Class<T> recordType,
+                                              Consumer<? super T> consumer) throws Exception {
+        HttpRestResult<CloseableIterator<T>> result = getNdjson(url, header, query, recordType);
+        if (!result.isSuccess()) {
+            return HttpRestResult.failure(result.getCode(), result.getMessage());
+        }
+        long count = 0;
+        try (CloseableIterator<T> iterator = result.getData()) {
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return HttpRestResult.success(count);
+    }
+
+    /**
+     * 发送GET请求并返回持有响应的迭代器
+     *
+     * @param ndjson 为true时始终按行读取，否则按响应的Content-Type选择
+     */
+    private <T> HttpRestResult<CloseableIterator<T>> openStream(String url, Header header, Query query,
+                                                               Type elementType, boolean ndjson)
+            throws Exception {
+        RequestHttpEntity requestEntity = new RequestHttpEntity(header, query);
+        URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        HttpClientResponse response = send(uri, HttpMethod.GET, requestEntity, null);
+        boolean streaming = false;
+        try {
+            if (response.getStatusCode() >= HttpStatus.SC_BAD_REQUEST) {
+                return this.<CloseableIterator<T>>newResponseHandler(uri, elementType).handle(response);
+            }
+            long contentLength = response.getContentLength();
+            if (contentLength > maxBodySize) {
+                // 关闭响应会读完剩余的响应体，超限时直接断开连接
+                response.abort();
+                String message = new ResponseTooLargeException(maxBodySize, contentLength).getMessage();
+                log.error("响应体过大，已断开连接，状态码: {}, {}", response.getStatusCode(), message);
+                return HttpRestResult.failure(500, message);
+            }
+            String contentType = response.getContentType();
+            JsonProcessor processor = jsonProcessorRegistry.resolve(contentType);
+            CloseableIterator<T> iterator = ndjson || NdjsonIterator.isNdjson(contentType)
+                    ? new NdjsonIterator<>(response, processor, elementType, maxBodySize)
+                    : new JsonArrayIterator<>(response, processor, elementType, maxBodySize);
+            streaming = true;
+            return HttpRestResult.success(iterator);
+        } finally {
+            if (!streaming) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * POST流式记录请求 逐条序列化迭代器或流中的记录并以分块传输发送，适合大批量导入
+     * <p>
+     * 请求体只能发送一次，不参与重试；发送成功后使对应URI的缓存失效。
+     *
+     * @param url          请求URL
+     * @param header       请求头
+     * @param body         流式记录请求体，如 {@code JsonStreamBody.ndjson(records.iterator())}
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> postStream(String url, Header header, JsonStreamBody body, Class<T> responseType)
+            throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(body.getMediaType()), body);
+        return execute(url, HttpMethod.POST, requestHttpEntity, responseType);
+    }
+
+    /**
+     * POST流式记录请求（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param body          流式记录请求体
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> postStream(String url, Header header, JsonStreamBody body,
+                                            TypeReference<T> typeReference) throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(body.getMediaType()), body);
+        return execute(url, HttpMethod.POST, requestHttpEntity, typeReference.getType());
+    }
+
+    /**
+     * POST流式上传请求 从文件、输入流或通道分块发送请求体，内存占用与文件大小无关
+     *
+     * @param url          请求URL
+     * @param header       请求头
+     * @param body         上传请求体，如 {@code UploadBody.of(path)}
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> upload(String url, Header header, UploadBody body, Class<T> responseType)
+            throws Exception {
+        return upload(url, HttpMethod.POST, header, null, body, responseType);
+    }
+
+    /**
+     * 流式上传请求
+     * <p>
+     * 默认发送 {@code Expect: 100-continue}，服务端拒绝时不传输请求体；输入流和通道请求体只能发送一次，不参与重试。
+     *
+     * @param url          请求URL
+     * @param httpMethod   请求方法，通常为POST或PUT
+     * @param header       请求头
+     * @param query        查询参数，可以为空
+     * @param body         上传请求体
+     * @param responseType 响应类型
+     * @param <T>          响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> upload(String url, String httpMethod, Header header, Query query, UploadBody body,
+                                        Class<T> responseType) throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(body.getMediaType()), query, body);
+        return execute(url, httpMethod, requestHttpEntity, responseType);
+    }
+
+    /**
+     * 分片并发上传文件 把文件切成多个分片在连接池的多个连接上并发上传，全部成功后执行完成回调
+     * <p>
+     * 每个分片单独重试，重试前按退避时间或服务端的Retry-After等待，某个分片失败不影响已成功的分片。
+     * 分片请求体直接从文件定位读取，内存占用与文件大小无关。
+     *
+     * @param file       文件
+     * @param httpMethod 分片请求方法，通常为PUT
+     * @param header     分片请求头，可以为空
+     * @param partUrl    分片的请求URL，如按分片序号拼接 {@code partNumber} 参数
+     * @param options    上传选项：分片大小、并发数、重试次数等
+     * @param completion 全部分片成功后的完成回调，通常发送合并分片的请求
+     * @param <R>        完成结果类型
+     * @return 响应结果，成功时数据为完成回调的结果
+     * @throws Exception 读取文件失败、分片被拒绝、分片重试耗尽或完成回调失败
+     */
+    public <R> HttpRestResult<R> uploadMultipart(Path file, String httpMethod, Header header,
+                                                 Function<UploadPart, String> partUrl, MultipartUploadOptions options,
+                                                 UploadCompletion<R> completion) throws Exception {
+        MultipartUploader uploader = new MultipartUploader((part, body, cancellation) -> {
+            URI uri = HttpUtils.buildUri(partUrl.apply(part), null);
+            Header partHeader = (header != null ? header.copy() : Header.newInstance())
+                    .setContentType(body.getMediaType());
+            return send(uri, httpMethod, new RequestHttpEntity(partHeader, body), cancellation);
+        });
+        return HttpRestResult.success(uploader.upload(file, options, completion));
     }
 
     /**
@@ -116,6 +631,24 @@ public class HttpRestTemplate {
         return execute(url, HttpMethod.POST, requestHttpEntity, responseType);
     }
 
+    /**
+     * POST JSON请求（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param body          请求体
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> postJson(String url, Header header, Object body, TypeReference<T> typeReference)
+            throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(MediaType.JSON_UTF_8.toString()), body);
+        return execute(url, HttpMethod.POST, requestHttpEntity, typeReference.getType());
+    }
+
     /**
      * POST JSON请求（带查询参数）
      *
@@ -190,6 +723,24 @@ public class HttpRestTemplate {
         return execute(url, HttpMethod.PUT, requestHttpEntity, responseType);
     }
 
+    /**
+     * PUT JSON请求（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param body          请求体
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> putJson(String url, Header header, Object body, TypeReference<T> typeReference)
+            throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(MediaType.JSON_UTF_8.toString()), body);
+        return execute(url, HttpMethod.PUT, requestHttpEntity, typeReference.getType());
+    }
+
     /**
      * PUT JSON请求（带查询参数）
      *
@@ -227,6 +778,98 @@ public class HttpRestTemplate {
         return execute(url, HttpMethod.DELETE, requestHttpEntity, responseType);
     }
 
+    /**
+     * DELETE请求（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param header        请求头
+     * @param query         查询参数
+     * @param typeReference 响应类型引用
+     * @param <T>           响应数据类型
+     * @return 响应结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> delete(String url, Header header, Query query, TypeReference<T> typeReference)
+            throws Exception {
+        RequestHttpEntity requestHttpEntity =
+                new RequestHttpEntity(header.setContentType(MediaType.FORM_DATA.toString()), query);
+        return execute(url, HttpMethod.DELETE, requestHttpEntity, typeReference.getType());
+    }
+
+    /**
+     * 下载到文件
+     *
+     * @param url    请求URL
+     * @param target 目标文件
+     * @return 响应结果，成功时数据为下载结果
+     * @throws Exception 请求失败、写入失败或响应体不完整
+     */
+    public HttpRestResult<DownloadResult> download(String url, Path target) throws Exception {
+        return download(url, Header.newInstance(), new Query(), target, DownloadOptions.defaults());
+    }
+
+    /**
+     * 下载到文件
+     * <p>
+     * 响应体经 {@link java.nio.channels.FileChannel#transferFrom} 直接写入文件，不在堆内聚合，适合GB级的文件。
+     * 请求头仍为默认的JSON Accept时改为接受任意类型。错误状态码返回失败结果，不写文件；
+     * 传输中途失败时断开连接而不是读完剩余数据，目标文件保持不变。结果不经过响应缓存、请求合并和对冲。
+     *
+     * @param url     请求URL
+     * @param header  请求头
+     * @param query   查询参数
+     * @param target  目标文件
+     * @param options 下载选项：进度回调、校验和等
+     * @return 响应结果，成功时数据为下载结果
+     * @throws Exception 请求失败、写入失败、响应体不完整或校验和不一致
+     */
+    public HttpRestResult<DownloadResult> download(String url, Header header, Query query, Path target,
+                                                   DownloadOptions options) throws Exception {
+        RequestHttpEntity requestEntity = new RequestHttpEntity(acceptAny(header), query);
+        URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        HttpClientResponse response = send(uri, HttpMethod.GET, requestEntity, null);
+        boolean completed = false;
+        try {
+            HttpRestResult<DownloadResult> result = response.getStatusCode() >= HttpStatus.SC_BAD_REQUEST
+                    ? this.<DownloadResult>newResponseHandler(uri, String.class).handle(response)
+                    : HttpRestResult.success(FileDownloader.download(response, target, options));
+            completed = true;
+            return result;
+        } finally {
+            if (completed) {
+                response.close();
+            } else {
+                response.abort();
+            }
+        }
+    }
+
+    /**
+     * 分段并发下载到文件，支持断点续传
+     * <p>
+     * 按Range把文件切成多个分段在连接池的多个连接上并发下载，定位写入同一个临时文件，并发数按吞吐量自动调整。
+     * 进度保存在临时文件旁的状态文件中，中断后用相同参数再次调用只下载缺失的分段。服务端不支持Range时退化为单连接下载。
+     *
+     * @param url     请求URL
+     * @param header  请求头
+     * @param query   查询参数
+     * @param target  目标文件
+     * @param options 下载选项：分段大小、并发数范围、重试次数、校验和等
+     * @return 响应结果，成功时数据为下载结果
+     * @throws Exception 请求失败、分段重试耗尽、写入失败或校验和不一致
+     */
+    public HttpRestResult<DownloadResult> downloadSegmented(String url, Header header, Query query, Path target,
+                                                            DownloadOptions options) throws Exception {
+        RequestHttpEntity requestEntity = new RequestHttpEntity(acceptAny(header), query);
+        URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        SegmentedDownloader downloader = new SegmentedDownloader(
+                (rangeHeader, cancellation) -> send(uri, HttpMethod.GET,
+                        new RequestHttpEntity(rangeHeader, requestEntity.getQuery()), cancellation),
+                requestEntity.getHeader(),
+                response -> this.<DownloadResult>newResponseHandler(uri, String.class).handle(response));
+        return downloader.download(target, options);
+    }
+
     /**
      * SSE流式请求 用于处理Server-Sent Events响应
      *
@@ -262,19 +905,85 @@ public class HttpRestTemplate {
         return sseStream(url, null, query);
     }
 
+    /**
+     * 执行HTTP请求，单独指定本次请求允许的最大响应体字节数
+     * <p>
+     * 不经过响应缓存、请求合并和对冲，非GET请求成功后同样使对应URI的缓存失效。
+     *
+     * @param url           请求URL
+     * @param httpMethod    请求方法
+     * @param requestEntity 请求头、查询参数和请求体
+     * @param responseType  响应类型
+     * @param maxBodySize   本次请求允许的最大响应体字节数
+     * @param <T>           响应数据类型
+     * @return 响应结果，响应体超限时为失败结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> exchange(String url, String httpMethod, RequestHttpEntity requestEntity,
+                                          Class<T> responseType, long maxBodySize) throws Exception {
+        return execute(url, httpMethod, requestEntity, responseType, maxBodySize);
+    }
+
+    /**
+     * 执行HTTP请求，单独指定本次请求允许的最大响应体字节数（泛型响应类型）
+     *
+     * @param url           请求URL
+     * @param httpMethod    请求方法
+     * @param requestEntity 请求头、查询参数和请求体
+     * @param typeReference 响应类型引用
+     * @param maxBodySize   本次请求允许的最大响应体字节数
+     * @param <T>           响应数据类型
+     * @return 响应结果，响应体超限时为失败结果
+     * @throws Exception 异常
+     */
+    public <T> HttpRestResult<T> exchange(String url, String httpMethod, RequestHttpEntity requestEntity,
+                                          TypeReference<T> typeReference, long maxBodySize) throws Exception {
+        return execute(url, httpMethod, requestEntity, typeReference.getType(), maxBodySize);
+    }
+
     /**
      * 执行HTTP请求的核心方法
      */
     private <T> HttpRestResult<T> execute(String url, String httpMethod, RequestHttpEntity requestEntity,
-                                          Class<T> responseType) throws Exception {
+                                          Type responseType) throws Exception {
+        return execute(url, httpMethod, requestEntity, responseType, this.maxBodySize);
+    }
+
+    /**
+     * 执行HTTP请求，使用指定的最大响应体长度
+     */
+    private <T> HttpRestResult<T> execute(String url, String httpMethod, RequestHttpEntity requestEntity,
+                                          Type responseType, long maxBodySize) throws Exception {
+        negotiate(requestEntity.getHeader());
         URI uri = HttpUtils.buildUri(url, requestEntity.getQuery());
+        ResponseHandler<T> responseHandler = newResponseHandler(uri, responseType);
+        responseHandler.setMaxBodySize(maxBodySize);
+        HttpRestResult<T> result = execute(uri, httpMethod, requestEntity, responseHandler, null);
+        HttpCache cache = this.httpCache;
+        if (cache != null && !HttpMethod.GET.equals(httpMethod) && result.isSuccess()) {
+            cache.invalidate(uri);
+        }
+        return result;
+    }
 
-        ResponseHandler<T> responseHandler = new ResponseHandler<>();
-        responseHandler.setResponseType(responseType);
+    /**
+     * 执行可取消的HTTP请求
+     */
+    private <T> HttpRestResult<T> execute(URI uri, String httpMethod, RequestHttpEntity requestEntity,
+                                          Type responseType, RequestCancellation cancellation)
+            throws Exception {
+        return execute(uri, httpMethod, requestEntity, this.<T>newResponseHandler(uri, responseType), cancellation);
+    }
 
+    /**
+     * 执行可取消的HTTP请求，使用指定的响应处理器
+     */
+    private <T> HttpRestResult<T> execute(URI uri, String httpMethod, RequestHttpEntity requestEntity,
+                                          ResponseHandler<T> responseHandler, RequestCancellation cancellation)
+            throws Exception {
         HttpClientResponse response = null;
         try {
-            response = this.requestClient.execute(uri, httpMethod, requestEntity);
+            response = send(uri, httpMethod, requestEntity, cancellation);
             return responseHandler.handle(response);
         } finally {
             if (response != null) {
@@ -282,4 +991,92 @@ public class HttpRestTemplate {
             }
         }
     }
+
+    /**
+     * 执行GET请求并将完整响应读入内存，配置了对冲策略时以对冲方式执行
+     */
+    private BufferedHttpClientResponse fetchBuffered(URI uri, RequestHttpEntity requestEntity) throws Exception {
+        HedgePolicy policy = this.hedgePolicy;
+        if (policy == null) {
+            return readFully(uri, requestEntity, null);
+        }
+        return policy.execute(uri, (target, cancellation) -> readFully(target, requestEntity, cancellation));
+    }
+
+    /**
+     * 发送GET请求并读取完整响应
+     */
+    private BufferedHttpClientResponse readFully(URI uri, RequestHttpEntity requestEntity,
+                                                 RequestCancellation cancellation) throws Exception {
+        HttpClientResponse response = null;
+        try {
+            response = send(uri, HttpMethod.GET, requestEntity, cancellation);
+            return BufferedHttpClientResponse.of(response, responseBodyReader, maxBodySize);
+        } catch (ResponseTooLargeException e) {
+            // 关闭响应会读完剩余的响应体，超限时直接断开连接
+            response.abort();
+            throw e;
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * 发送请求，返回的响应由调用方负责关闭
+     */
+    private HttpClientResponse send(URI uri, String httpMethod, RequestHttpEntity requestEntity,
+                                    RequestCancellation cancellation) throws Exception {
+        return cancellation != null
+                ? this.requestClient.execute(uri, httpMethod, requestEntity, cancellation)
+                : this.requestClient.execute(uri, httpMethod, requestEntity);
+    }
+
+    /**
+     * 请求头仍为默认的JSON Accept时改为请求NDJSON，不修改调用方的请求头
+     */
+    private Header acceptNdjson(Header header) {
+        Header ndjsonHeader = header != null ? header.copy() : Header.newInstance();
+        if (MediaType.JSON_UTF_8.toString().equals(ndjsonHeader.getValue(HttpHeaders.ACCEPT))) {
+            ndjsonHeader.addParam(HttpHeaders.ACCEPT, NdjsonIterator.MEDIA_TYPE + ", " + MediaType.JSON_UTF_8);
+        }
+        return ndjsonHeader;
+    }
+
+    /**
+     * 请求头仍为默认的JSON Accept时改为接受任意类型
+     */
+    private Header acceptAny(Header header) {
+        Header downloadHeader = header != null ? header : Header.newInstance();
+        if (MediaType.JSON_UTF_8.toString().equals(downloadHeader.getValue(HttpHeaders.ACCEPT))) {
+            downloadHeader.addParam(HttpHeaders.ACCEPT, MediaType.ANY_TYPE.toString());
+        }
+        return downloadHeader;
+    }
+
+    /**
+     * 配置了偏好格式时替换默认的JSON Accept，调用方显式设置的Accept保持不变
+     */
+    private void negotiate(Header header) {
+        String accept = this.acceptHeader;
+        if (accept != null && header != null
+                && MediaType.JSON_UTF_8.toString().equals(header.getValue(HttpHeaders.ACCEPT))) {
+            header.addParam(HttpHeaders.ACCEPT, accept);
+        }
+    }
+
+    /**
+     * 创建响应处理器
+     */
+    private <T> ResponseHandler<T> newResponseHandler(URI uri, Type responseType) {
+        ResponseHandler<T> responseHandler = new ResponseHandler<>(jsonProcessorRegistry);
+        responseHandler.setResponseType(responseType);
+        responseHandler.setLazyDecoding(lazyDecoding);
+        responseHandler.setBodyReader(responseBodyReader);
+        responseHandler.setEndpoint(ResponseBodyReader.endpointOf(uri));
+        responseHandler.setMaxBodySize(maxBodySize);
+        responseHandler.setErrorBodyLimit(errorBodyLimit);
+        return responseHandler;
+    }
 }
@@ -0,0 +1,17 @@
+package com.hyfly.template.httpclient.download;
+
+/**
+ * 下载进度监听器
+ */
+@FunctionalInterface
+public interface DownloadListener {
+
+    /**
+     * 下载进度更新，每传输一个进度间隔调用一次，完成时再调用一次
+     *
+     * @param transferred    已传输字节数
+     * @param total          总字节数，未知时为-1
+     * @param bytesPerSecond 从开始到现在的平均速度（字节/秒）
+     */
+    void onProgress(long transferred, long total, double bytesPerSecond);
+}
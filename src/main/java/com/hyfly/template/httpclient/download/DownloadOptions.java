@@ -0,0 +1,178 @@
+package com.hyfly.template.httpclient.download;
+
+import lombok.Getter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 下载选项
+ * <p>
+ * 校验和支持CRC32、ADLER32和JDK提供的任意MessageDigest算法（如MD5、SHA-256）。
+ * CRC32和ADLER32直接读取堆外缓冲区，摘要算法需要分块复制到堆内计算。
+ * <p>
+ * 分段相关的选项只用于分段下载：文件按分段大小切分，并发数从初始值开始按观测到的吞吐量在1到最大并发数之间调整。
+ */
+@Getter
+public class DownloadOptions {
+
+    private static final long DEFAULT_PROGRESS_INTERVAL = 4 * 1024 * 1024;
+    private static final long DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_INITIAL_CONCURRENCY = 2;
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_RETRY_DELAY_MILLIS = 200;
+    private static final long DEFAULT_MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private String checksumAlgorithm;
+    private String expectedChecksum;
+    private DownloadListener listener;
+    private long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    private boolean overwrite = true;
+    private long segmentSize = DEFAULT_SEGMENT_SIZE;
+    private int initialConcurrency = DEFAULT_INITIAL_CONCURRENCY;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+    private long maxRetryDelayMillis = DEFAULT_MAX_RETRY_DELAY_MILLIS;
+    private ExecutorService executor;
+
+    /**
+     * 创建默认选项：覆盖已有文件，不计算校验和
+     *
+     * @return DownloadOptions
+     */
+    public static DownloadOptions defaults() {
+        return new DownloadOptions();
+    }
+
+    /**
+     * 设置校验和算法
+     *
+     * @param checksumAlgorithm 算法名称，如 CRC32、SHA-256
+     * @return DownloadOptions
+     */
+    public DownloadOptions checksum(String checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+        return this;
+    }
+
+    /**
+     * 设置期望的校验和，下载完成后不一致时删除文件并返回失败
+     *
+     * @param checksumAlgorithm 算法名称
+     * @param expectedChecksum  十六进制校验和，忽略大小写
+     * @return DownloadOptions
+     */
+    public DownloadOptions verify(String checksumAlgorithm, String expectedChecksum) {
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.expectedChecksum = expectedChecksum;
+        return this;
+    }
+
+    /**
+     * 设置进度监听器
+     *
+     * @param listener 进度监听器
+     * @return DownloadOptions
+     */
+    public DownloadOptions listener(DownloadListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 设置进度回调的字节间隔，也是每次transferFrom的最大字节数
+     *
+     * @param progressInterval 字节间隔
+     * @return DownloadOptions
+     */
+    public DownloadOptions progressInterval(long progressInterval) {
+        if (progressInterval <= 0) {
+            throw new IllegalArgumentException("进度间隔必须大于0: " + progressInterval);
+        }
+        this.progressInterval = progressInterval;
+        return this;
+    }
+
+    /**
+     * 设置目标文件已存在时是否覆盖
+     *
+     * @param overwrite 是否覆盖，为false时目标文件已存在则失败
+     * @return DownloadOptions
+     */
+    public DownloadOptions overwrite(boolean overwrite) {
+        this.overwrite = overwrite;
+        return this;
+    }
+
+    /**
+     * 设置分段大小，也是续传的最小粒度，中断时未完成的分段会整段重新下载
+     *
+     * @param segmentSize 分段字节数
+     * @return DownloadOptions
+     */
+    public DownloadOptions segmentSize(long segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("分段大小必须大于0: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * 设置分段下载的并发数范围
+     *
+     * @param initialConcurrency 初始并发数
+     * @param maxConcurrency     最大并发数
+     * @return DownloadOptions
+     */
+    public DownloadOptions concurrency(int initialConcurrency, int maxConcurrency) {
+        if (initialConcurrency < 1 || maxConcurrency < initialConcurrency) {
+            throw new IllegalArgumentException("并发数范围不合法: " + initialConcurrency + " - " + maxConcurrency);
+        }
+        this.initialConcurrency = initialConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * 设置单个分段的最大重试次数，超过后整个下载失败，已完成的分段保留用于续传
+     *
+     * @param maxRetries 最大重试次数
+     * @return DownloadOptions
+     */
+    public DownloadOptions maxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("重试次数不能为负数: " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * 设置分段重试的退避时间，每次重试翻倍并加入随机抖动；服务端返回Retry-After时按其等待，不超过最大值
+     *
+     * @param retryDelayMillis    第一次重试前的等待时间（毫秒）
+     * @param maxRetryDelayMillis 最大等待时间（毫秒）
+     * @return DownloadOptions
+     */
+    public DownloadOptions retryBackoff(long retryDelayMillis, long maxRetryDelayMillis) {
+        if (retryDelayMillis < 0 || maxRetryDelayMillis < retryDelayMillis) {
+            throw new IllegalArgumentException("重试等待时间不合法: " + retryDelayMillis + " - " + maxRetryDelayMillis);
+        }
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+        return this;
+    }
+
+    /**
+     * 设置执行分段请求的线程池，为空时使用共享的守护线程池
+     *
+     * @param executor 线程池
+     * @return DownloadOptions
+     */
+    public DownloadOptions executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+}
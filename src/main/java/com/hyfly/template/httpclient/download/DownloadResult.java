@@ -0,0 +1,52 @@
+package com.hyfly.template.httpclient.download;
+
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * 下载结果
+ */
+@Data
+public class DownloadResult {
+
+    /**
+     * 目标文件
+     */
+    private Path path;
+
+    /**
+     * 写入的字节数
+     */
+    private long bytes;
+
+    /**
+     * 响应的Content-Length，未知时为-1
+     */
+    private long contentLength;
+
+    /**
+     * 续传时文件中已有、本次没有传输的字节数
+     */
+    private long resumedBytes;
+
+    /**
+     * 传输耗时（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 本次传输的平均速度（字节/秒）
+     */
+    private double bytesPerSecond;
+
+    /**
+     * 校验和算法，未计算时为空
+     */
+    private String checksumAlgorithm;
+
+    /**
+     * 校验和的十六进制小写字符串，未计算时为空
+     */
+    private String checksum;
+}
@@ -0,0 +1,115 @@
+package com.hyfly.template.httpclient.download;
+
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件下载器 把响应体通过 {@link FileChannel#transferFrom} 写入文件
+ * <p>
+ * 数据经文件通道的堆外传输缓冲区直接写入文件，不在堆内聚合完整的响应体。先写入同目录下的 {@code .part} 临时文件，
+ * 完整写入并通过校验后再移动为目标文件；失败时删除临时文件，目标文件保持不变。
+ */
+@Slf4j
+public final class FileDownloader {
+
+    static final String PART_SUFFIX = ".part";
+
+    private FileDownloader() {
+    }
+
+    /**
+     * 把响应体写入文件，不会关闭响应
+     *
+     * @param response 响应
+     * @param target   目标文件，上级目录不存在时自动创建
+     * @param options  下载选项
+     * @return 下载结果
+     * @throws IOException 写入失败、响应体不完整或校验和不一致
+     */
+    public static DownloadResult download(HttpClientResponse response, Path target, DownloadOptions options)
+            throws IOException {
+        if (!options.isOverwrite() && Files.exists(target)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        long contentLength = response.getContentLength();
+        DownloadListener listener = options.getListener();
+        TransferChannel source = new TransferChannel(response.getBodyChannel(), options.getChecksumAlgorithm());
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try (FileChannel file = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (!source.isEndOfStream()) {
+                long n = file.transferFrom(source, source.getTransferred(), options.getProgressInterval());
+                if (n > 0 && listener != null && !source.isEndOfStream()) {
+                    listener.onProgress(source.getTransferred(), contentLength, rate(source.getTransferred(), start));
+                }
+            }
+            if (contentLength >= 0 && source.getTransferred() != contentLength) {
+                throw new IOException("响应体不完整，期望 " + contentLength + " 字节，实际 " + source.getTransferred());
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(part);
+            }
+        }
+
+        String checksum = source.checksum();
+        String expected = options.getExpectedChecksum();
+        if (expected != null && !expected.equalsIgnoreCase(checksum)) {
+            Files.deleteIfExists(part);
+            throw new IOException("校验和不一致，期望 " + expected + "，实际 " + checksum);
+        }
+        moveIntoPlace(part, target, options.isOverwrite());
+
+        long elapsedNanos = System.nanoTime() - start;
+        DownloadResult result = new DownloadResult();
+        result.setPath(target);
+        result.setBytes(source.getTransferred());
+        result.setContentLength(contentLength);
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setBytesPerSecond(rate(source.getTransferred(), start));
+        result.setChecksumAlgorithm(source.getChecksumAlgorithm());
+        result.setChecksum(checksum);
+        if (listener != null) {
+            listener.onProgress(result.getBytes(), contentLength, result.getBytesPerSecond());
+        }
+        log.debug("下载完成: {}, {} 字节, {} ms", target, result.getBytes(), result.getElapsedMillis());
+        return result;
+    }
+
+    static void moveIntoPlace(Path part, Path target, boolean overwrite) throws IOException {
+        StandardCopyOption[] options = overwrite
+                ? new StandardCopyOption[]{StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING}
+                : new StandardCopyOption[]{StandardCopyOption.ATOMIC_MOVE};
+        try {
+            Files.move(part, target, options);
+        } catch (AtomicMoveNotSupportedException e) {
+            if (overwrite) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.move(part, target);
+            }
+        }
+    }
+
+    static double rate(long bytes, long startNanos) {
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+        return bytes * 1_000_000_000.0 / elapsed;
+    }
+}
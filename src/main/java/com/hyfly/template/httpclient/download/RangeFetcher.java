@@ -0,0 +1,22 @@
+package com.hyfly.template.httpclient.download;
+
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+
+/**
+ * 发送分段下载的GET请求
+ */
+@FunctionalInterface
+public interface RangeFetcher {
+
+    /**
+     * 发送请求，返回的响应由调用方负责关闭
+     *
+     * @param header       请求头，已带有Range等分段请求头
+     * @param cancellation 取消句柄，为空时不可取消
+     * @return 未读取的响应
+     * @throws Exception 异常
+     */
+    HttpClientResponse fetch(Header header, RequestCancellation cancellation) throws Exception;
+}
@@ -0,0 +1,191 @@
+package com.hyfly.template.httpclient.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * 分段下载的进度状态 保存在临时文件旁的状态文件中，中断后只重新下载缺失的分段
+ * <p>
+ * 状态文件记录资源总长度、校验器（ETag或Last-Modified）、分段大小和已完成的分段，
+ * 任意一项与本次下载不一致时视为新的下载；资源没有校验器时无法确认内容未变，不续传。
+ * 写入时先写临时文件再原子替换，中途崩溃不会留下损坏的状态。
+ */
+class SegmentState {
+
+    private static final String LENGTH = "length";
+    private static final String VALIDATOR = "validator";
+    private static final String SEGMENT_SIZE = "segmentSize";
+    private static final String COMPLETED = "completed";
+
+    private final Path path;
+    private final long length;
+    private final String validator;
+    private final long segmentSize;
+    private final int segmentCount;
+    private final BitSet completed;
+
+    private SegmentState(Path path, long length, String validator, long segmentSize, BitSet completed) {
+        this.path = path;
+        this.length = length;
+        this.validator = validator;
+        this.segmentSize = segmentSize;
+        this.segmentCount = (int) ((length + segmentSize - 1) / segmentSize);
+        this.completed = completed;
+    }
+
+    /**
+     * 读取状态文件，不存在或与本次下载不一致时返回全新的状态
+     *
+     * @param path        状态文件
+     * @param length      资源总长度
+     * @param validator   资源校验器，可以为空
+     * @param segmentSize 分段大小
+     * @return 状态
+     */
+    static SegmentState load(Path path, long length, String validator, long segmentSize) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            properties.load(input);
+        } catch (NoSuchFileException e) {
+            return new SegmentState(path, length, validator, segmentSize, new BitSet());
+        }
+        boolean matches = String.valueOf(length).equals(properties.getProperty(LENGTH))
+                && String.valueOf(segmentSize).equals(properties.getProperty(SEGMENT_SIZE))
+                && validator != null && Objects.equals(validator, properties.getProperty(VALIDATOR));
+        BitSet completed = matches ? parse(properties.getProperty(COMPLETED, "")) : new BitSet();
+        return new SegmentState(path, length, validator, segmentSize, completed);
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    int getSegmentCount() {
+        return segmentCount;
+    }
+
+    boolean isCompleted(int index) {
+        return completed.get(index);
+    }
+
+    boolean hasProgress() {
+        return !completed.isEmpty();
+    }
+
+    /**
+     * 分段的起始位置
+     */
+    long startOf(int index) {
+        return index * segmentSize;
+    }
+
+    /**
+     * 分段的结束位置（包含）
+     */
+    long endOf(int index) {
+        return Math.min(startOf(index) + segmentSize, length) - 1;
+    }
+
+    /**
+     * 已完成分段的总字节数
+     */
+    long completedBytes() {
+        long bytes = 0;
+        for (int i = completed.nextSetBit(0); i >= 0; i = completed.nextSetBit(i + 1)) {
+            bytes += endOf(i) - startOf(i) + 1;
+        }
+        return bytes;
+    }
+
+    /**
+     * 标记分段完成并写入状态文件
+     */
+    void complete(int index) throws IOException {
+        completed.set(index);
+        save();
+    }
+
+    /**
+     * 清空已完成的分段，重新下载全部分段
+     */
+    void reset() {
+        completed.clear();
+    }
+
+    /**
+     * 删除状态文件
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(LENGTH, String.valueOf(length));
+        properties.setProperty(SEGMENT_SIZE, String.valueOf(segmentSize));
+        if (validator != null) {
+            properties.setProperty(VALIDATOR, validator);
+        }
+        properties.setProperty(COMPLETED, format(completed));
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            properties.store(output, null);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 已完成的分段写成区间列表，如 {@code 0-3,5,7-9}
+     */
+    private static String format(BitSet bits) {
+        StringBuilder builder = new StringBuilder();
+        for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(start)) {
+            int end = bits.nextClearBit(start) - 1;
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(start);
+            if (end > start) {
+                builder.append('-').append(end);
+            }
+            start = end + 1;
+        }
+        return builder.toString();
+    }
+
+    private static BitSet parse(String ranges) {
+        BitSet bits = new BitSet();
+        for (String range : ranges.split(",")) {
+            String trimmed = range.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                int dash = trimmed.indexOf('-');
+                if (dash < 0) {
+                    bits.set(Integer.parseInt(trimmed));
+                } else {
+                    bits.set(Integer.parseInt(trimmed.substring(0, dash)),
+                            Integer.parseInt(trimmed.substring(dash + 1)) + 1);
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                // 状态文件损坏，重新下载全部分段
+                return new BitSet();
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,475 @@
+package com.hyfly.template.httpclient.download;
+
+import com.google.common.net.HttpHeaders;
+import com.hyfly.template.httpclient.cache.ResponseDecoder;
+import com.hyfly.template.httpclient.model.Header;
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.hyfly.template.httpclient.util.RetryBackoff;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分段下载器 按Range把大文件切成多个分段并发下载，各分段用定位写入同一个临时文件
+ * <p>
+ * 先用 {@code Range: bytes=0-0} 探测资源总长度和校验器；服务端不支持Range时直接用探测的完整响应单连接下载。
+ * 每完成一个分段先把已写入的数据刷到磁盘，再更新旁边的状态文件，中断后再次下载同一目标时只请求缺失的分段。
+ * 失败的分段按指数退避加随机抖动后重试，服务端返回Retry-After时按其等待。
+ * 分段请求带 {@code If-Range}，资源在下载过程中变化时服务端返回完整响应，下载失败并丢弃已有进度。
+ * <p>
+ * 并发数从初始值开始，每个统计窗口比较聚合吞吐量：比上个窗口提升超过10%时加一个并发，下降超过20%或分段失败时减一个。
+ */
+@Slf4j
+public class SegmentedDownloader {
+
+    private static final String STATE_SUFFIX = ".state";
+    private static final long ADAPT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int CHECKSUM_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Download-Worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RangeFetcher fetcher;
+    private final Header header;
+    private final ResponseDecoder<DownloadResult> errorDecoder;
+
+    /**
+     * @param fetcher      发送GET请求
+     * @param header       基础请求头，每个分段请求在它的副本上添加Range
+     * @param errorDecoder 探测请求返回错误状态码时的结果解码
+     */
+    public SegmentedDownloader(RangeFetcher fetcher, Header header, ResponseDecoder<DownloadResult> errorDecoder) {
+        this.fetcher = fetcher;
+        this.header = header;
+        this.errorDecoder = errorDecoder;
+    }
+
+    /**
+     * 下载到文件
+     *
+     * @param target  目标文件
+     * @param options 下载选项
+     * @return 响应结果，成功时数据为下载结果
+     * @throws Exception 请求失败、分段重试耗尽、写入失败或校验和不一致
+     */
+    public HttpRestResult<DownloadResult> download(Path target, DownloadOptions options) throws Exception {
+        if (!options.isOverwrite() && Files.exists(target)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        HttpClientResponse probe = fetcher.fetch(rangeHeader(0, 0, null), null);
+        boolean completed = false;
+        boolean released = false;
+        try {
+            int status = probe.getStatusCode();
+            if (status >= HttpStatus.SC_BAD_REQUEST && status != HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                HttpRestResult<DownloadResult> result = errorDecoder.decode(probe);
+                completed = true;
+                return result;
+            }
+            if (status == HttpStatus.SC_OK) {
+                // 服务端忽略Range，探测响应就是完整内容
+                log.debug("服务端不支持Range，使用单连接下载: {}", target);
+                DownloadResult result = FileDownloader.download(probe, target, options);
+                completed = true;
+                return HttpRestResult.success(result);
+            }
+            long length = status == HttpStatus.SC_PARTIAL_CONTENT
+                    ? totalLength(probe.getHeader(HttpHeaders.CONTENT_RANGE)) : -1;
+            if (length < 0) {
+                // 空资源（416）或没有给出总长度，重新请求完整内容
+                probe.close();
+                released = true;
+                completed = true;
+                return downloadWhole(target, options);
+            }
+            String validator = validatorOf(probe);
+            probe.close();
+            released = true;
+            completed = true;
+            return HttpRestResult.success(downloadSegments(target, options, length, validator));
+        } finally {
+            // 探测响应在发起后续请求前已经释放；直接返回的分支读完后关闭，归还连接
+            if (!completed) {
+                probe.abort();
+            } else if (!released) {
+                probe.close();
+            }
+        }
+    }
+
+    private HttpRestResult<DownloadResult> downloadWhole(Path target, DownloadOptions options) throws Exception {
+        HttpClientResponse response = fetcher.fetch(header.copy(), null);
+        boolean completed = false;
+        try {
+            HttpRestResult<DownloadResult> result = response.getStatusCode() >= HttpStatus.SC_BAD_REQUEST
+                    ? errorDecoder.decode(response)
+                    : HttpRestResult.success(FileDownloader.download(response, target, options));
+            completed = true;
+            return result;
+        } finally {
+            if (completed) {
+                response.close();
+            } else {
+                response.abort();
+            }
+        }
+    }
+
+    private DownloadResult downloadSegments(Path target, DownloadOptions options, long length, String validator)
+            throws Exception {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path part = target.resolveSibling(target.getFileName() + FileDownloader.PART_SUFFIX);
+        SegmentState state = SegmentState.load(part.resolveSibling(part.getFileName() + STATE_SUFFIX),
+                length, validator, options.getSegmentSize());
+        if (state.hasProgress() && (!Files.exists(part) || Files.size(part) != length)) {
+            // 临时文件已丢失或被改动，状态不可信
+            state.reset();
+        }
+        long resumed = state.completedBytes();
+        if (resumed > 0) {
+            log.info("续传下载: {}, 已完成 {}/{} 字节", target, resumed, length);
+        }
+
+        long start = System.nanoTime();
+        try (FileChannel file = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ)) {
+            if (resumed == 0) {
+                // 预先设置文件长度，transferFrom不能写到文件末尾之后
+                file.truncate(0);
+                if (length > 0) {
+                    file.write(ByteBuffer.allocate(1), length - 1);
+                }
+            }
+            runSegments(file, state, validator, options, resumed, start);
+            file.force(false);
+        }
+
+        String checksum = null;
+        if (options.getChecksumAlgorithm() != null) {
+            checksum = checksumOf(part, options.getChecksumAlgorithm());
+            String expected = options.getExpectedChecksum();
+            if (expected != null && !expected.equalsIgnoreCase(checksum)) {
+                Files.deleteIfExists(part);
+                state.delete();
+                throw new IOException("校验和不一致，期望 " + expected + "，实际 " + checksum);
+            }
+        }
+        FileDownloader.moveIntoPlace(part, target, options.isOverwrite());
+        state.delete();
+
+        DownloadResult result = new DownloadResult();
+        result.setPath(target);
+        result.setBytes(length);
+        result.setContentLength(length);
+        result.setResumedBytes(resumed);
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        result.setBytesPerSecond(FileDownloader.rate(length - resumed, start));
+        result.setChecksumAlgorithm(options.getChecksumAlgorithm());
+        result.setChecksum(checksum);
+        if (options.getListener() != null) {
+            options.getListener().onProgress(length, length, result.getBytesPerSecond());
+        }
+        return result;
+    }
+
+    /**
+     * 调度分段请求，直到所有分段完成或某个分段重试耗尽
+     */
+    private void runSegments(FileChannel file, SegmentState state, String validator, DownloadOptions options,
+                             long resumed, long start) throws Exception {
+        Deque<Integer> pending = new ArrayDeque<>();
+        PriorityQueue<DelayedSegment> delayed = new PriorityQueue<>();
+        for (int i = 0; i < state.getSegmentCount(); i++) {
+            if (!state.isCompleted(i)) {
+                pending.add(i);
+            }
+        }
+        ExecutorService executor = options.getExecutor() != null ? options.getExecutor() : DEFAULT_EXECUTOR;
+        CompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Long>, Integer> running = new HashMap<>();
+        Map<Future<Long>, RequestCancellation> cancellations = new HashMap<>();
+        Map<Integer, Integer> failures = new HashMap<>();
+        ConcurrencyTuner tuner = new ConcurrencyTuner(
+                Math.min(options.getInitialConcurrency(), Math.max(1, pending.size())), options.getMaxConcurrency());
+        long transferred = 0;
+        try {
+            while (!pending.isEmpty() || !delayed.isEmpty() || !running.isEmpty()) {
+                while (!delayed.isEmpty() && delayed.peek().readyAt - System.nanoTime() <= 0) {
+                    pending.addFirst(delayed.poll().index);
+                }
+                while (running.size() < tuner.concurrency && !pending.isEmpty()) {
+                    int index = pending.poll();
+                    RequestCancellation cancellation = new RequestCancellation();
+                    Future<Long> future = completion.submit(
+                            () -> fetchSegment(file, state, index, validator, cancellation));
+                    running.put(future, index);
+                    cancellations.put(future, cancellation);
+                }
+                Future<Long> done;
+                if (delayed.isEmpty()) {
+                    done = completion.take();
+                } else {
+                    // 等待分段完成，最多等到下一个退避中的分段可以重试
+                    long wait = Math.max(0, delayed.peek().readyAt - System.nanoTime());
+                    done = running.isEmpty() ? null : completion.poll(wait, TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        if (running.isEmpty()) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        continue;
+                    }
+                }
+                int index = running.remove(done);
+                cancellations.remove(done);
+                try {
+                    long bytes = done.get();
+                    // 数据落盘后再记录完成，避免崩溃后状态文件声称完成的分段实际未写入
+                    file.force(false);
+                    state.complete(index);
+                    transferred += bytes;
+                    tuner.onSegment(bytes);
+                    DownloadListener listener = options.getListener();
+                    if (listener != null) {
+                        listener.onProgress(resumed + transferred, state.getLength(),
+                                FileDownloader.rate(transferred, start));
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ResourceChangedException) {
+                        state.delete();
+                        throw (ResourceChangedException) cause;
+                    }
+                    int attempts = failures.merge(index, 1, Integer::sum);
+                    if (attempts > options.getMaxRetries()) {
+                        throw new IOException("分段 " + index + " 下载失败，已重试 " + options.getMaxRetries() + " 次",
+                                cause);
+                    }
+                    long retryAfter = cause instanceof SegmentFailedException
+                            ? ((SegmentFailedException) cause).retryAfterMillis : -1;
+                    long delay = RetryBackoff.delayMillis(attempts, options.getRetryDelayMillis(),
+                            options.getMaxRetryDelayMillis(), retryAfter);
+                    log.warn("分段 {} 下载失败，{} ms后第 {} 次重试: {}", index, delay, attempts, cause.toString());
+                    tuner.onFailure();
+                    delayed.add(new DelayedSegment(index, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay)));
+                }
+            }
+        } finally {
+            if (!running.isEmpty()) {
+                cancellations.values().forEach(RequestCancellation::cancel);
+                for (Future<Long> future : running.keySet()) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // 已取消的分段，忽略
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 下载一个分段，定位写入临时文件
+     *
+     * @return 写入的字节数
+     */
+    private long fetchSegment(FileChannel file, SegmentState state, int index, String validator,
+                              RequestCancellation cancellation) throws Exception {
+        long start = state.startOf(index);
+        long end = state.endOf(index);
+        HttpClientResponse response = fetcher.fetch(rangeHeader(start, end, validator), cancellation);
+        boolean completed = false;
+        try {
+            int status = response.getStatusCode();
+            if (status == HttpStatus.SC_OK) {
+                throw new ResourceChangedException("资源在下载过程中发生了变化");
+            }
+            if (status != HttpStatus.SC_PARTIAL_CONTENT) {
+                throw new SegmentFailedException("分段请求失败，状态码: " + status,
+                        RetryBackoff.retryAfterMillis(response.getHeader(HttpHeaders.RETRY_AFTER)));
+            }
+            String contentRange = response.getHeader(HttpHeaders.CONTENT_RANGE);
+            if (contentRange == null || !contentRange.trim().startsWith("bytes " + start + "-" + end + "/")) {
+                throw new IOException("分段范围不一致，请求 " + start + "-" + end + "，响应 " + contentRange);
+            }
+            long expected = end - start + 1;
+            TransferChannel source = new TransferChannel(response.getBodyChannel(), null);
+            while (!source.isEndOfStream() && source.getTransferred() < expected) {
+                file.transferFrom(source, start + source.getTransferred(), expected - source.getTransferred());
+            }
+            if (source.getTransferred() != expected) {
+                throw new IOException("分段不完整，期望 " + expected + " 字节，实际 " + source.getTransferred());
+            }
+            completed = true;
+            return expected;
+        } finally {
+            if (completed) {
+                response.close();
+            } else {
+                response.abort();
+            }
+        }
+    }
+
+    private Header rangeHeader(long start, long end, String validator) {
+        Header rangeHeader = header.copy();
+        rangeHeader.addParam(HttpHeaders.RANGE, "bytes=" + start + "-" + end);
+        if (validator != null) {
+            rangeHeader.addParam(HttpHeaders.IF_RANGE, validator);
+        }
+        return rangeHeader;
+    }
+
+    /**
+     * 强ETag优先，其次Last-Modified；弱ETag不能用于If-Range
+     */
+    private static String validatorOf(HttpClientResponse response) {
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.getHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * 从 {@code bytes 0-0/12345} 中解析总长度，未知时返回-1
+     */
+    private static long totalLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.lastIndexOf('/');
+        try {
+            return slash >= 0 ? Long.parseLong(contentRange.substring(slash + 1).trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String checksumOf(Path file, String algorithm) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            TransferChannel source = new TransferChannel(channel, algorithm);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER_SIZE);
+            while (source.read(buffer) >= 0) {
+                buffer.clear();
+            }
+            return source.checksum();
+        }
+    }
+
+    /**
+     * 按吞吐量调整并发数
+     */
+    private static class ConcurrencyTuner {
+
+        private final int maxConcurrency;
+        private int concurrency;
+        private long windowStart = System.nanoTime();
+        private long windowBytes;
+        private double lastRate;
+
+        ConcurrencyTuner(int initialConcurrency, int maxConcurrency) {
+            this.concurrency = initialConcurrency;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        void onSegment(long bytes) {
+            windowBytes += bytes;
+            long now = System.nanoTime();
+            long elapsed = now - windowStart;
+            if (elapsed < ADAPT_WINDOW_NANOS) {
+                return;
+            }
+            double rate = windowBytes * 1_000_000_000.0 / elapsed;
+            if (rate > lastRate * 1.1) {
+                if (concurrency < maxConcurrency) {
+                    concurrency++;
+                }
+            } else if (rate < lastRate * 0.8 && concurrency > 1) {
+                concurrency--;
+            }
+            log.debug("分段下载吞吐量: {} 字节/秒, 并发数: {}", (long) rate, concurrency);
+            lastRate = rate;
+            windowStart = now;
+            windowBytes = 0;
+        }
+
+        void onFailure() {
+            if (concurrency > 1) {
+                concurrency--;
+            }
+        }
+    }
+
+    /**
+     * 分段请求返回了错误状态码，可以按服务端要求的时间等待后重试
+     */
+    private static class SegmentFailedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterMillis;
+
+        SegmentFailedException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /**
+     * 退避等待中的分段，按可以重试的时间排序
+     */
+    private static final class DelayedSegment implements Comparable<DelayedSegment> {
+
+        private final int index;
+        private final long readyAt;
+
+        DelayedSegment(int index, long readyAt) {
+            this.index = index;
+            this.readyAt = readyAt;
+        }
+
+        @Override
+        public int compareTo(DelayedSegment other) {
+            return Long.compare(readyAt - other.readyAt, 0);
+        }
+    }
+
+    /**
+     * 分段请求收到完整响应，说明资源已变化，已有进度不可用
+     */
+    private static class ResourceChangedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        ResourceChangedException(String message) {
+            super(message);
+        }
+    }
+}
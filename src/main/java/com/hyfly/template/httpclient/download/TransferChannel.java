@@ -0,0 +1,142 @@
+package com.hyfly.template.httpclient.download;
+
+import com.google.common.io.BaseEncoding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * 传输通道 包装响应体通道，统计字节数、计算校验和并记录流是否已结束
+ * <p>
+ * {@link java.nio.channels.FileChannel#transferFrom} 读到流末尾时只返回0，需要由这里区分结束和空读。
+ */
+class TransferChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel source;
+    private final String checksumAlgorithm;
+    private final Checksum checksum;
+    private final MessageDigest digest;
+    private long transferred;
+    private boolean endOfStream;
+
+    /**
+     * @param source            响应体通道，为空时视为空响应体
+     * @param checksumAlgorithm 校验和算法，为空时不计算
+     */
+    TransferChannel(ReadableByteChannel source, String checksumAlgorithm) {
+        this.source = source;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.endOfStream = source == null;
+        String algorithm = checksumAlgorithm != null ? checksumAlgorithm.toUpperCase(Locale.ROOT) : null;
+        if (algorithm == null) {
+            this.checksum = null;
+            this.digest = null;
+        } else if ("CRC32".equals(algorithm)) {
+            this.checksum = new CRC32();
+            this.digest = null;
+        } else if ("ADLER32".equals(algorithm)) {
+            this.checksum = new Adler32();
+            this.digest = null;
+        } else {
+            this.checksum = null;
+            try {
+                this.digest = MessageDigest.getInstance(checksumAlgorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("不支持的校验和算法: " + checksumAlgorithm, e);
+            }
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (endOfStream) {
+            return -1;
+        }
+        int start = dst.position();
+        int n = source.read(dst);
+        if (n < 0) {
+            endOfStream = true;
+            return n;
+        }
+        if (n > 0) {
+            transferred += n;
+            update(dst, start, n);
+        }
+        return n;
+    }
+
+    private void update(ByteBuffer dst, int start, int length) {
+        if (checksum == null && digest == null) {
+            return;
+        }
+        ByteBuffer written = dst.duplicate();
+        written.position(start);
+        written.limit(start + length);
+        if (checksum instanceof CRC32) {
+            // CRC32可以直接读取堆外缓冲区
+            ((CRC32) checksum).update(written);
+        } else if (checksum instanceof Adler32) {
+            ((Adler32) checksum).update(written);
+        } else if (digest != null) {
+            digest.update(written);
+        }
+    }
+
+    /**
+     * 获取已读取的字节数
+     *
+     * @return 字节数
+     */
+    long getTransferred() {
+        return transferred;
+    }
+
+    /**
+     * 是否已读到流末尾
+     *
+     * @return 是否结束
+     */
+    boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * 获取校验和算法
+     *
+     * @return 算法名称，未计算时为空
+     */
+    String getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    /**
+     * 获取十六进制小写的校验和，只能在读取结束后调用一次
+     *
+     * @return 校验和，未计算时为空
+     */
+    String checksum() {
+        if (checksum != null) {
+            return String.format("%08x", checksum.getValue());
+        }
+        return digest != null ? BaseEncoding.base16().lowerCase().encode(digest.digest()) : null;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source == null || source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+}
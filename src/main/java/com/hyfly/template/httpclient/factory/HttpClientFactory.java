@@ -9,12 +9,21 @@ import org.apache.http.protocol.RequestContent;
 
 /**
  * HTTP客户端工厂类
+ * <p>
+ * Apache HttpClient自带的压缩处理只支持gzip和deflate，这里关闭它，由请求实现统一协商和解码响应压缩，
+ * 两种客户端的行为一致，见 {@link com.hyfly.template.httpclient.compress.ContentCompression}。
  */
 public class HttpClientFactory {
 
     public static final String HTTP_CLIENT_APACHE = "apache";
     public static final String HTTP_CLIENT_OKHTTP = "okhttp";
 
+    /**
+     * Apache HttpClient默认每个主机只有2个连接，分段下载和分片上传的并发会被卡在2，按OkHttp连接池的量级放宽
+     */
+    private static final int MAX_CONN_PER_ROUTE = 16;
+    private static final int MAX_CONN_TOTAL = 64;
+
     /**
      * 获取REST模板
      *
@@ -61,7 +70,10 @@ public class HttpClientFactory {
                 new ApacheHttpClientRequest(
                         HttpClients.custom()
                                 .addInterceptorLast(new RequestContent(true))
+                                .disableContentCompression()
                                 .setDefaultRequestConfig(defaultConfig)
+                                .setMaxConnPerRoute(MAX_CONN_PER_ROUTE)
+                                .setMaxConnTotal(MAX_CONN_TOTAL)
                                 .build(),
                         defaultConfig));
     }
@@ -101,7 +113,10 @@ public class HttpClientFactory {
                 new ApacheHttpClientRequest(
                         HttpClients.custom()
                                 .addInterceptorLast(new RequestContent(true))
+                                .disableContentCompression()
                                 .setDefaultRequestConfig(defaultConfig)
+                                .setMaxConnPerRoute(MAX_CONN_PER_ROUTE)
+                                .setMaxConnTotal(MAX_CONN_TOTAL)
                                 .build(),
                         defaultConfig));
     }
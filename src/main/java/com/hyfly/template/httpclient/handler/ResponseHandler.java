@@ -1,39 +1,141 @@
 package com.hyfly.template.httpclient.handler;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.CharStreams;
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.json.FieldSelection;
 import com.hyfly.template.httpclient.json.JsonProcessor;
-import com.hyfly.template.httpclient.json.JsonProcessorFactory;
+import com.hyfly.template.httpclient.json.JsonProcessorRegistry;
 import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.response.BufferedHttpClientResponse;
 import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.google.common.io.ByteStreams;
+import com.hyfly.template.httpclient.response.ResponseBodyReader;
+import com.hyfly.template.httpclient.response.ResponseTooLargeException;
+import com.hyfly.template.httpclient.util.BoundedInputStream;
+import com.hyfly.template.httpclient.util.ByteBufferInputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpStatus;
 
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * HTTP响应处理器
+ * <p>
+ * 响应体超过最大长度时在读取中途停止并断开连接，返回失败结果；错误响应体和解析失败信息只保留前缀用于结果消息和日志。
  *
  * @param <T> 响应数据类型
  */
 @Slf4j
 public class ResponseHandler<T> {
 
-    private Class<T> responseType;
+    /**
+     * 默认保留的错误响应体前缀字节数
+     */
+    public static final int DEFAULT_ERROR_BODY_LIMIT = 4 * 1024;
+
+    private Type responseType;
+    private FieldSelection fieldSelection;
+    private boolean lazyDecoding;
+    private ResponseBodyReader bodyReader = ResponseBodyReader.shared();
+    private String endpoint;
+    private long maxBodySize = Long.MAX_VALUE;
+    private int errorBodyLimit = DEFAULT_ERROR_BODY_LIMIT;
     private final JsonProcessor jsonProcessor;
+    private final JsonProcessorRegistry registry;
 
     public ResponseHandler() {
-        this.jsonProcessor = JsonProcessorFactory.getDefaultProcessor();
+        this(JsonProcessorRegistry.global());
     }
 
+    /**
+     * @param jsonProcessor 固定使用的JSON处理器
+     */
     public ResponseHandler(JsonProcessor jsonProcessor) {
         this.jsonProcessor = jsonProcessor;
+        this.registry = null;
     }
 
-    public void setResponseType(Class<T> responseType) {
+    /**
+     * @param registry 按响应Content-Type选择处理器的注册表
+     */
+    public ResponseHandler(JsonProcessorRegistry registry) {
+        this.jsonProcessor = null;
+        this.registry = registry;
+    }
+
+    /**
+     * 设置响应类型
+     *
+     * @param responseType 响应类型，可以是Class或参数化类型
+     */
+    public void setResponseType(Type responseType) {
         this.responseType = responseType;
     }
 
+    /**
+     * 设置字段选择，设置后只提取选择的字段，结果为选择器到值的Map
+     *
+     * @param fieldSelection 字段选择
+     */
+    public void setFieldSelection(FieldSelection fieldSelection) {
+        this.fieldSelection = fieldSelection;
+    }
+
+    /**
+     * 设置是否延迟解码：只读取响应体，第一次获取数据时才解码
+     *
+     * @param lazyDecoding 是否延迟解码
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        this.lazyDecoding = lazyDecoding;
+    }
+
+    /**
+     * 设置读取响应体的读取器
+     *
+     * @param bodyReader 响应体读取器，默认使用共享缓冲区池
+     */
+    public void setBodyReader(ResponseBodyReader bodyReader) {
+        this.bodyReader = bodyReader;
+    }
+
+    /**
+     * 设置请求的端点标识，没有Content-Length时按端点的典型大小预分配缓冲区
+     *
+     * @param endpoint 端点标识，见 {@link ResponseBodyReader#endpointOf}
+     */
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 设置允许的最大响应体字节数，超过时停止读取并断开连接，默认不限制
+     *
+     * @param maxBodySize 最大字节数
+     */
+    public void setMaxBodySize(long maxBodySize) {
+        if (maxBodySize <= 0) {
+            throw new IllegalArgumentException("最大响应体长度必须大于0: " + maxBodySize);
+        }
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * 设置错误响应体保留的前缀字节数，超出部分不读取，连接直接断开
+     *
+     * @param errorBodyLimit 前缀字节数
+     */
+    public void setErrorBodyLimit(int errorBodyLimit) {
+        if (errorBodyLimit < 0) {
+            throw new IllegalArgumentException("错误响应体前缀长度不能为负数: " + errorBodyLimit);
+        }
+        this.errorBodyLimit = errorBodyLimit;
+    }
+
     /**
      * 处理HTTP响应
      *
@@ -45,38 +147,202 @@ public class ResponseHandler<T> {
         if (response.getStatusCode() >= HttpStatus.SC_BAD_REQUEST) {
             return handleError(response);
         }
-        return convertResult(response, this.responseType);
+        try {
+            if (fieldSelection != null) {
+                return extractFields(response, fieldSelection);
+            }
+            if (isRawType(this.responseType)) {
+                return rawResult(response, this.responseType);
+            }
+            if (lazyDecoding) {
+                return lazyResult(response, this.responseType);
+            }
+            return convertResult(response, this.responseType);
+        } catch (ResponseTooLargeException e) {
+            // 关闭响应会读完剩余的响应体，超限时直接断开连接
+            response.abort();
+            log.error("响应体过大，已断开连接，状态码: {}, {}", response.getStatusCode(), e.getMessage());
+            return HttpRestResult.failure(500, e.getMessage());
+        }
     }
 
     /**
-     * 处理错误响应
+     * 处理错误响应 只读取响应体的前缀，还有剩余数据时断开连接而不是读完
      */
     private HttpRestResult<T> handleError(HttpClientResponse response) throws Exception {
-        String message = CharStreams.toString(
-                new InputStreamReader(response.getBody(), Charsets.UTF_8));
+        String message = "";
+        InputStream body = response.getBody();
+        if (body != null) {
+            long contentLength = response.getContentLength();
+            // 错误响应体不参与端点典型大小的学习
+            try (PooledBuffer prefix = bodyReader.read(ByteStreams.limit(body, errorBodyLimit),
+                    contentLength >= 0 ? Math.min(contentLength, errorBodyLimit) : -1, null)) {
+                message = prefix.decode(StandardCharsets.UTF_8);
+                if (prefix.size() >= errorBodyLimit && body.read() != -1) {
+                    response.abort();
+                    message = message + "...(已截断，共 " + (contentLength >= 0 ? contentLength + " 字节" : "未知长度") + ")";
+                }
+            }
+        }
         log.error("HTTP请求失败，状态码: {}, 响应内容: {}", response.getStatusCode(), message);
         return HttpRestResult.failure(response.getStatusCode(), message);
     }
 
     /**
-     * 转换响应结果
+     * 处理器会把解析异常包装成RuntimeException，取最内层的异常信息
+     */
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.toString();
+    }
+
+    /**
+     * 截取异常信息的前缀，解析器的异常信息可能带有整段响应内容
+     */
+    private String abbreviate(String message) {
+        if (message == null || message.length() <= errorBodyLimit) {
+            return message;
+        }
+        return message.substring(0, errorBodyLimit) + "...(已截断)";
+    }
+
+    /**
+     * 提取选择的字段 取到所有字段后如果响应体还有剩余数据，放弃响应而不是读完
      */
     @SuppressWarnings("unchecked")
-    private HttpRestResult<T> convertResult(HttpClientResponse response, Class<T> responseType)
+    private HttpRestResult<T> extractFields(HttpClientResponse response, FieldSelection selection)
             throws Exception {
-        String responseBody = CharStreams.toString(
-                new InputStreamReader(response.getBody(), Charsets.UTF_8));
+        JsonProcessor jsonProcessor = registry != null
+                ? registry.resolveExtractor(response.getContentType()) : this.jsonProcessor;
+        InputStream body = response.getBody();
+        if (body == null) {
+            return HttpRestResult.success((T) Collections.emptyMap());
+        }
+        if (maxBodySize < Long.MAX_VALUE) {
+            body = new BoundedInputStream(body, maxBodySize);
+        }
+        Map<String, Object> values;
+        try {
+            values = jsonProcessor.extract(body, selection);
+        } catch (Exception e) {
+            log.error("使用{}提取响应字段失败，状态码: {}, 选择器: {}, 原因: {}", jsonProcessor.getProcessorName(),
+                    response.getStatusCode(), selection.getPaths().keySet(), abbreviate(rootMessage(e)));
+            log.debug("提取响应字段失败", e);
+            response.abort();
+            return HttpRestResult.failure(500, "提取响应字段失败: " + e.getMessage());
+        }
+        if (body.read() != -1) {
+            response.abort();
+        } else {
+            body.close();
+        }
+        return HttpRestResult.success((T) values);
+    }
+
+    /**
+     * 是否为原始字节类型：byte[]、ByteBuffer或 {@link PooledBuffer}，这类响应不做字符解码
+     *
+     * @param type 响应类型
+     * @return 是否原始字节类型
+     */
+    public static boolean isRawType(Type type) {
+        return type == byte[].class || type == ByteBuffer.class || type == PooledBuffer.class;
+    }
+
+    /**
+     * 原样返回响应体字节 已在内存中的响应直接返回只读视图，不复制
+     */
+    @SuppressWarnings("unchecked")
+    private HttpRestResult<T> rawResult(HttpClientResponse response, Type responseType) throws Exception {
+        if (responseType == PooledBuffer.class) {
+            return HttpRestResult.success((T) bodyReader.read(response, endpoint, maxBodySize));
+        }
+        if (responseType == ByteBuffer.class && response instanceof BufferedHttpClientResponse) {
+            return HttpRestResult.success((T) ((BufferedHttpClientResponse) response).getBodyBuffer());
+        }
+        byte[] body;
+        try (PooledBuffer buffer = bodyReader.read(response, endpoint, maxBodySize)) {
+            if (responseType == ByteBuffer.class && buffer != null && buffer.isSpilled()) {
+                // 溢出的响应体直接返回映射视图，关闭只删除临时文件，映射在视图被回收前一直有效
+                return HttpRestResult.success((T) buffer.readOnlyBuffer());
+            }
+            body = buffer != null ? buffer.toByteArray() : null;
+        }
+        if (responseType == byte[].class || body == null) {
+            return HttpRestResult.success((T) body);
+        }
+        return HttpRestResult.success((T) ByteBuffer.wrap(body).asReadOnlyBuffer());
+    }
 
+    /**
+     * 延迟解码 只把响应体读入内存，解码推迟到第一次获取数据
+     */
+    @SuppressWarnings("unchecked")
+    private HttpRestResult<T> lazyResult(HttpClientResponse response, Type responseType) throws Exception {
+        byte[] body;
+        try (PooledBuffer buffer = bodyReader.read(response, endpoint, maxBodySize)) {
+            if (buffer == null) {
+                return HttpRestResult.success(null);
+            }
+            if (buffer.isSpilled()) {
+                // 延迟结果没有关闭的时机，不能持有临时文件；溢出的响应体立即从映射解码，不再复制一份到堆内
+                return decodeResult(response, buffer, responseType);
+            }
+            body = buffer.toByteArray();
+        }
         if (responseType == String.class) {
-            return HttpRestResult.success((T) responseBody);
+            return HttpRestResult.lazy(() -> (T) new String(body, StandardCharsets.UTF_8), body.length);
         }
+        JsonProcessor jsonProcessor = registry != null
+                ? registry.resolve(response.getContentType()) : this.jsonProcessor;
+        return HttpRestResult.lazy(() -> jsonProcessor.parseObject(body, 0, body.length, responseType), body.length);
+    }
 
+    /**
+     * 转换响应结果 响应体读入池化的缓冲区后直接解码，不生成完整的响应字符串，解码后归还缓冲区
+     */
+    private HttpRestResult<T> convertResult(HttpClientResponse response, Type responseType)
+            throws Exception {
+        try (PooledBuffer body = bodyReader.read(response, endpoint, maxBodySize)) {
+            return body != null ? decodeResult(response, body, responseType) : HttpRestResult.success(null);
+        }
+    }
+
+    /**
+     * 从已读取的响应体解码结果，内存中和溢出到临时文件的响应体读取方式相同
+     */
+    @SuppressWarnings("unchecked")
+    private HttpRestResult<T> decodeResult(HttpClientResponse response, PooledBuffer body, Type responseType) {
+        if (responseType == String.class) {
+            return HttpRestResult.success((T) body.decode(StandardCharsets.UTF_8));
+        }
+        JsonProcessor jsonProcessor = registry != null
+                ? registry.resolve(response.getContentType()) : this.jsonProcessor;
         try {
-            T data = jsonProcessor.parseObject(responseBody, responseType);
-            return HttpRestResult.success(data);
+            return HttpRestResult.success(parse(jsonProcessor, body.buffer(), responseType));
         } catch (Exception e) {
-            log.error("使用{}解析响应数据失败: {}", jsonProcessor.getProcessorName(), responseBody, e);
-            return HttpRestResult.failure(500, "解析响应数据失败: " + e.getMessage());
+            String cause = abbreviate(rootMessage(e));
+            log.error("使用{}解析响应数据失败，状态码: {}, 目标类型: {}, 原因: {}", jsonProcessor.getProcessorName(),
+                    response.getStatusCode(), responseType.getTypeName(), cause);
+            log.debug("解析响应数据失败", e);
+            return HttpRestResult.failure(500, "解析响应数据失败: " + cause);
+        }
+    }
+
+    /**
+     * 从缓冲区解码，空响应体解码为null
+     */
+    private static <T> T parse(JsonProcessor jsonProcessor, ByteBuffer buffer, Type responseType) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            return jsonProcessor.parseObject(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining(), responseType);
         }
+        return jsonProcessor.parseObject(new ByteBufferInputStream(buffer), responseType);
     }
 }
@@ -0,0 +1,62 @@
+package com.hyfly.template.httpclient.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求预算 每个原始请求存入一定比例的额度，发起对冲请求消耗一个完整额度
+ */
+public class HedgeBudget {
+
+    private static final long SCALE = 1000;
+    private static final int DEFAULT_MAX_BURST = 10;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * @param ratio 对冲请求占原始请求的最大比例，如0.05表示最多增加5%的负载
+     */
+    public HedgeBudget(double ratio) {
+        this(ratio, DEFAULT_MAX_BURST);
+    }
+
+    /**
+     * @param ratio    对冲请求占原始请求的最大比例
+     * @param maxBurst 最多累积的对冲额度
+     */
+    public HedgeBudget(double ratio, int maxBurst) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("对冲比例必须在0到1之间: " + ratio);
+        }
+        if (maxBurst <= 0) {
+            throw new IllegalArgumentException("对冲额度上限必须大于0: " + maxBurst);
+        }
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxBurst * SCALE;
+    }
+
+    /**
+     * 记录一次原始请求，存入额度
+     */
+    public void onRequest() {
+        balance.updateAndGet(current -> Math.min(maxBalance, current + depositPerRequest));
+    }
+
+    /**
+     * 尝试获取一次对冲额度
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.hyfly.template.httpclient.hedge;
+
+import com.hyfly.template.httpclient.model.HttpRestResult;
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+
+import java.net.URI;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * 对冲请求策略 原始请求在阈值时间内未返回时发起一次相同的请求，取先完成者并取消另一个
+ * <p>
+ * 阈值可以是固定值，也可以按端点学习的延迟分位数（如p95），对冲次数受 {@link HedgeBudget} 限制。
+ * 仅适用于幂等请求。
+ */
+@Slf4j
+@Getter
+public class HedgePolicy {
+
+    private static final double DEFAULT_PERCENTILE = 0.95;
+    private static final double DEFAULT_BUDGET_RATIO = 0.05;
+    private static final long DEFAULT_MIN_DELAY_MILLIS = 5;
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Hedge-Worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long fixedDelayMillis;
+    private final double percentile;
+    private final long fallbackDelayMillis;
+    private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+    private HedgeBudget budget = new HedgeBudget(DEFAULT_BUDGET_RATIO);
+    private LatencyTracker latencyTracker = new LatencyTracker();
+    private UnaryOperator<URI> hedgeUriResolver = UnaryOperator.identity();
+    private ExecutorService executor = DEFAULT_EXECUTOR;
+
+    private HedgePolicy(long fixedDelayMillis, double percentile, long fallbackDelayMillis) {
+        this.fixedDelayMillis = fixedDelayMillis;
+        this.percentile = percentile;
+        this.fallbackDelayMillis = fallbackDelayMillis;
+    }
+
+    /**
+     * 使用固定阈值的对冲策略
+     *
+     * @param delayMillis 对冲阈值（毫秒）
+     * @return HedgePolicy
+     */
+    public static HedgePolicy fixedDelay(long delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("对冲阈值不能为负数: " + delayMillis);
+        }
+        return new HedgePolicy(delayMillis, DEFAULT_PERCENTILE, delayMillis);
+    }
+
+    /**
+     * 使用按端点学习的p95延迟作为阈值的对冲策略
+     *
+     * @param fallbackDelayMillis 样本不足时使用的阈值（毫秒）
+     * @return HedgePolicy
+     */
+    public static HedgePolicy learnedDelay(long fallbackDelayMillis) {
+        return learnedDelay(DEFAULT_PERCENTILE, fallbackDelayMillis);
+    }
+
+    /**
+     * 使用按端点学习的延迟分位数作为阈值的对冲策略
+     *
+     * @param percentile          分位数（0-1）
+     * @param fallbackDelayMillis 样本不足时使用的阈值（毫秒）
+     * @return HedgePolicy
+     */
+    public static HedgePolicy learnedDelay(double percentile, long fallbackDelayMillis) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("分位数必须在0到1之间: " + percentile);
+        }
+        return new HedgePolicy(-1, percentile, fallbackDelayMillis);
+    }
+
+    /**
+     * 设置对冲预算比例
+     *
+     * @param ratio 对冲请求占原始请求的最大比例
+     * @return HedgePolicy
+     */
+    public HedgePolicy budgetRatio(double ratio) {
+        this.budget = new HedgeBudget(ratio);
+        return this;
+    }
+
+    /**
+     * 设置对冲预算
+     *
+     * @param budget 对冲预算
+     * @return HedgePolicy
+     */
+    public HedgePolicy budget(HedgeBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * 设置学习阈值的下限
+     *
+     * @param minDelayMillis 最小阈值（毫秒）
+     * @return HedgePolicy
+     */
+    public HedgePolicy minDelayMillis(long minDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+        return this;
+    }
+
+    /**
+     * 设置延迟统计器
+     *
+     * @param latencyTracker 延迟统计器
+     * @return HedgePolicy
+     */
+    public HedgePolicy latencyTracker(LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+        return this;
+    }
+
+    /**
+     * 设置对冲请求的目标地址解析器，可将对冲请求发往其他主机
+     *
+     * @param hedgeUriResolver 地址解析器
+     * @return HedgePolicy
+     */
+    public HedgePolicy hedgeUriResolver(UnaryOperator<URI> hedgeUriResolver) {
+        this.hedgeUriResolver = hedgeUriResolver;
+        return this;
+    }
+
+    /**
+     * 设置执行请求的线程池
+     *
+     * @param executor 线程池
+     * @return HedgePolicy
+     */
+    public HedgePolicy executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 计算端点当前的对冲阈值
+     *
+     * @param endpoint 端点标识
+     * @return 对冲阈值（毫秒）
+     */
+    public long hedgeDelayMillis(String endpoint) {
+        if (fixedDelayMillis >= 0) {
+            return fixedDelayMillis;
+        }
+        long learned = latencyTracker.percentile(endpoint, percentile);
+        return learned >= 0 ? Math.max(minDelayMillis, learned) : fallbackDelayMillis;
+    }
+
+    /**
+     * 以对冲方式执行请求
+     * <p>
+     * 取第一个成功的结果；失败的结果（失败的 {@link HttpRestResult} 或5xx响应）会继续等待其他请求，
+     * 全部失败时返回最后一个失败结果。每个完成的请求都记录自己的延迟，被取消的原始请求按已等待的时间记录，
+     * 避免学习到的分位数只来自胜出者而偏低。
+     *
+     * @param uri  请求URI
+     * @param call 请求调用
+     * @param <R>  结果类型
+     * @return 先成功的请求结果
+     * @throws Exception 所有请求均失败且没有失败结果时抛出最后一个异常
+     */
+    public <R> R execute(URI uri, HedgeableCall<R> call) throws Exception {
+        String endpoint = LatencyTracker.endpointOf(uri);
+        long delay = hedgeDelayMillis(endpoint);
+        budget.onRequest();
+
+        CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<R>, RequestCancellation> attempts = new IdentityHashMap<>(4);
+        long start = System.nanoTime();
+        Future<R> primary = submit(completion, attempts, endpoint, uri, call);
+
+        try {
+            Future<R> done = completion.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null && budget.tryAcquire()) {
+                URI hedgeUri = hedgeUriResolver.apply(uri);
+                log.debug("请求超过{}ms未返回，发起对冲请求: {}", delay, hedgeUri);
+                submit(completion, attempts, endpoint, hedgeUri, call);
+            }
+
+            Exception failure = null;
+            R failed = null;
+            int remaining = attempts.size();
+            while (remaining-- > 0) {
+                if (done == null) {
+                    done = completion.take();
+                }
+                attempts.remove(done);
+                try {
+                    R result = done.get();
+                    discard(failed);
+                    if (!isFailure(result)) {
+                        return result;
+                    }
+                    // 失败的结果继续等待其他请求，保留最后一个
+                    failed = result;
+                } catch (ExecutionException e) {
+                    failure = unwrap(e);
+                }
+                done = null;
+            }
+            if (failed != null) {
+                return failed;
+            }
+            throw failure;
+        } finally {
+            // 取消未完成的请求并中止其连接，已完成的落选结果需要释放
+            for (Map.Entry<Future<R>, RequestCancellation> attempt : attempts.entrySet()) {
+                if (attempt.getKey().cancel(true)) {
+                    attempt.getValue().cancel();
+                    if (attempt.getKey() == primary) {
+                        latencyTracker.record(endpoint,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                } else {
+                    discard(attempt.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 结果是否为失败：失败的 {@link HttpRestResult} 或5xx响应
+     */
+    private static boolean isFailure(Object result) {
+        if (result instanceof HttpRestResult) {
+            return !((HttpRestResult<?>) result).isSuccess();
+        }
+        if (result instanceof HttpClientResponse) {
+            try {
+                return ((HttpClientResponse) result).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            } catch (Exception e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 释放已完成但落选的请求结果
+     */
+    private static void discard(Future<?> attempt) {
+        Object result;
+        try {
+            result = attempt.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException | CancellationException e) {
+            return;
+        }
+        discard(result);
+    }
+
+    /**
+     * 释放落选的结果：响应、实现了AutoCloseable的结果或已解码的结果数据（如PooledBuffer）；
+     * 延迟解码的结果不为释放而解码
+     */
+    private static void discard(Object result) {
+        try {
+            Object resource = result;
+            if (result instanceof HttpRestResult) {
+                HttpRestResult<?> restResult = (HttpRestResult<?>) result;
+                resource = restResult.isDecoded() ? restResult.getData() : null;
+            }
+            if (resource instanceof HttpClientResponse) {
+                ((HttpClientResponse) resource).close();
+            } else if (resource instanceof AutoCloseable) {
+                ((AutoCloseable) resource).close();
+            }
+        } catch (Exception e) {
+            log.debug("释放落选的对冲请求结果失败", e);
+        }
+    }
+
+    /**
+     * 提交一次请求，完成时记录这次请求自己的延迟
+     */
+    private <R> Future<R> submit(CompletionService<R> completion, Map<Future<R>, RequestCancellation> attempts,
+                                 String endpoint, URI uri, HedgeableCall<R> call) {
+        RequestCancellation cancellation = new RequestCancellation();
+        Future<R> future = completion.submit(() -> {
+            long start = System.nanoTime();
+            R result = call.call(uri, cancellation);
+            latencyTracker.record(endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return result;
+        });
+        attempts.put(future, cancellation);
+        return future;
+    }
+
+    /**
+     * 解包异步执行异常
+     */
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hyfly.template.httpclient.hedge;
+
+import com.hyfly.template.httpclient.request.RequestCancellation;
+
+import java.net.URI;
+
+/**
+ * 可对冲的请求调用
+ *
+ * @param <R> 调用结果类型
+ */
+@FunctionalInterface
+public interface HedgeableCall<R> {
+
+    /**
+     * 执行一次请求
+     *
+     * @param uri          请求URI
+     * @param cancellation 取消句柄
+     * @return 调用结果
+     * @throws Exception 异常
+     */
+    R call(URI uri, RequestCancellation cancellation) throws Exception;
+}
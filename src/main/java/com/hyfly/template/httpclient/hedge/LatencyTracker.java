@@ -0,0 +1,105 @@
+package com.hyfly.template.httpclient.hedge;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按端点统计请求延迟 使用固定大小的滑动窗口估算分位数
+ */
+public class LatencyTracker {
+
+    private static final int DEFAULT_WINDOW_SIZE = 256;
+    private static final int DEFAULT_MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final int windowSize;
+    private final int minSamples;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LatencyTracker() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_MIN_SAMPLES);
+    }
+
+    public LatencyTracker(int windowSize, int minSamples) {
+        if (windowSize <= 0 || minSamples <= 0 || minSamples > windowSize) {
+            throw new IllegalArgumentException("窗口大小或最小样本数不合法");
+        }
+        this.windowSize = windowSize;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * 计算端点标识（协议、主机、端口和路径，不含查询参数）
+     *
+     * @param uri 请求URI
+     * @return 端点标识
+     */
+    public static String endpointOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+    }
+
+    /**
+     * 记录一次请求延迟
+     *
+     * @param endpoint      端点标识
+     * @param latencyMillis 延迟（毫秒）
+     */
+    public void record(String endpoint, long latencyMillis) {
+        windows.computeIfAbsent(endpoint, key -> new Window(windowSize)).add(latencyMillis);
+    }
+
+    /**
+     * 获取端点延迟分位数
+     *
+     * @param endpoint   端点标识
+     * @param percentile 分位数（0-1）
+     * @return 延迟（毫秒），样本不足时返回-1
+     */
+    public long percentile(String endpoint, double percentile) {
+        Window window = windows.get(endpoint);
+        return window != null ? window.percentile(percentile, minSamples) : -1;
+    }
+
+    /**
+     * 延迟采样窗口
+     */
+    private static final class Window {
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceCompute = RECOMPUTE_INTERVAL;
+        private double cachedPercentile;
+        private long cachedValue = -1;
+
+        Window(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void add(long latencyMillis) {
+            samples[next] = latencyMillis;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+            sinceCompute++;
+        }
+
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (sinceCompute < RECOMPUTE_INTERVAL && cachedPercentile == percentile) {
+                return cachedValue;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            cachedValue = sorted[Math.max(0, Math.min(index, count - 1))];
+            cachedPercentile = percentile;
+            sinceCompute = 0;
+            return cachedValue;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hyfly.template.httpclient.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * CBOR格式处理器（RFC 8949） 基于Jackson CBOR，跨语言支持广泛
+ * <p>
+ * 二进制格式不支持字符串形式的序列化和反序列化，只能通过输入输出流使用。
+ */
+public class CborProcessor extends JacksonProcessor {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    public CborProcessor() {
+        super(registerOptionalModules(new ObjectMapper(new CBORFactory())));
+    }
+
+    public CborProcessor(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "CBOR";
+    }
+}
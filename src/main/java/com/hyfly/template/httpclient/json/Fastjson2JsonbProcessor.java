@@ -0,0 +1,144 @@
+package com.hyfly.template.httpclient.json;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import com.alibaba.fastjson2.util.TypeUtils;
+import com.alibaba.fastjson2.writer.ObjectWriter;
+import com.google.common.io.ByteStreams;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fastjson2 JSONB二进制格式处理器 两端都使用fastjson2时编解码开销最低
+ * <p>
+ * 与 {@link Fastjson2Processor} 一样按类型缓存编译好的读写器。字符串形式的序列化和反序列化使用等价的JSON文本，
+ * 经JSONB字节转换，只用于日志、调试等字符串调用方，比直接读写字节多一次转换。
+ */
+@Slf4j
+public class Fastjson2JsonbProcessor implements JsonProcessor {
+
+    public static final String MEDIA_TYPE = "application/x-fastjson2-jsonb";
+
+    private final ConcurrentMap<Type, ObjectReader<?>> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter<?>> writers = new ConcurrentHashMap<>();
+
+    @Override
+    public String toJsonString(Object obj) {
+        byte[] bytes = toJsonBytes(obj);
+        try {
+            return JSON.toJSONString(JSONB.parse(bytes));
+        } catch (Exception e) {
+            log.error("JSONB序列化失败", e);
+            throw new RuntimeException("JSONB序列化失败", e);
+        }
+    }
+
+    @Override
+    public void writeTo(Object obj, OutputStream output) throws IOException {
+        try (JSONWriter writer = JSONWriter.ofJSONB()) {
+            try {
+                if (obj == null) {
+                    writer.writeNull();
+                } else {
+                    writerFor(obj.getClass()).writeJSONB(writer, obj, null, null, 0);
+                }
+            } catch (Exception e) {
+                log.error("JSONB序列化失败", e);
+                throw new RuntimeException("JSONB序列化失败", e);
+            }
+            writer.flushTo(output);
+        }
+    }
+
+    @Override
+    public <T> T parseObject(String json, Class<T> clazz) {
+        return parseObject(json, (Type) clazz);
+    }
+
+    @Override
+    public <T> T parseObject(String json, Type type) {
+        byte[] bytes;
+        try {
+            bytes = JSONB.toBytes(JSON.parse(json));
+        } catch (Exception e) {
+            log.error("JSONB反序列化失败: {}", json, e);
+            throw new RuntimeException("JSONB反序列化失败", e);
+        }
+        return parseObject(bytes, 0, bytes.length, type);
+    }
+
+    @Override
+    public <T> T parseObject(InputStream input, Type type) {
+        try {
+            byte[] bytes = ByteStreams.toByteArray(input);
+            return parseObject(bytes, 0, bytes.length, type);
+        } catch (IOException e) {
+            log.error("JSONB反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSONB反序列化失败", e);
+        }
+    }
+
+    @Override
+    public <T> T parseObject(byte[] bytes, int offset, int length, Type type) {
+        if (length == 0) {
+            return null;
+        }
+        try (JSONReader reader = JSONReader.ofJSONB(bytes, offset, length)) {
+            ObjectReader<T> objectReader = readerFor(type);
+            T object = objectReader.readJSONBObject(reader, type, null, 0);
+            reader.handleResolveTasks(object);
+            return object;
+        } catch (Exception e) {
+            log.error("JSONB反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSONB反序列化失败", e);
+        }
+    }
+
+    @Override
+    public void warmUp(Type type) {
+        readerFor(type);
+        Class<?> rawType = TypeUtils.getClass(type);
+        if (rawType != null) {
+            writerFor(rawType);
+        }
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "Fastjson2 JSONB";
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ObjectReader<T> readerFor(Type type) {
+        ObjectReader<?> objectReader = readers.get(type);
+        if (objectReader == null) {
+            objectReader = readers.computeIfAbsent(type,
+                    t -> JSONFactory.getDefaultObjectReaderProvider().getObjectReader(t));
+        }
+        return (ObjectReader<T>) objectReader;
+    }
+
+    private ObjectWriter<?> writerFor(Class<?> type) {
+        ObjectWriter<?> objectWriter = writers.get(type);
+        if (objectWriter == null) {
+            objectWriter = writers.computeIfAbsent(type,
+                    c -> JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(c, c, false));
+        }
+        return objectWriter;
+    }
+}
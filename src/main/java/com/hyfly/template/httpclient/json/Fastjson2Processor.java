@@ -1,36 +1,210 @@
 package com.hyfly.template.httpclient.json;
 
-import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import com.alibaba.fastjson2.util.TypeUtils;
+import com.alibaba.fastjson2.writer.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Fastjson2 JSON处理器实现
+ * <p>
+ * 按类型缓存编译好的 {@link ObjectReader} 和按运行时类缓存 {@link ObjectWriter}，重复调用时跳过类型查找和内省。
  */
 @Slf4j
 public class Fastjson2Processor implements JsonProcessor {
 
+    private final ConcurrentMap<Type, ObjectReader<?>> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter<?>> writers = new ConcurrentHashMap<>();
+
     @Override
     public String toJsonString(Object obj) {
-        try {
-            return JSON.toJSONString(obj);
+        try (JSONWriter writer = JSONWriter.of()) {
+            write(writer, obj);
+            return writer.toString();
         } catch (Exception e) {
             log.error("Fastjson2序列化失败", e);
             throw new RuntimeException("JSON序列化失败", e);
         }
     }
 
+    @Override
+    public void writeTo(Object obj, OutputStream output) throws IOException {
+        // 序列化到fastjson2复用的字节缓冲区后直接写入输出流
+        try (JSONWriter writer = JSONWriter.ofUTF8()) {
+            try {
+                write(writer, obj);
+            } catch (Exception e) {
+                log.error("Fastjson2序列化失败", e);
+                throw new RuntimeException("JSON序列化失败", e);
+            }
+            writer.flushTo(output);
+        }
+    }
+
     @Override
     public <T> T parseObject(String json, Class<T> clazz) {
-        try {
-            return JSON.parseObject(json, clazz);
+        return parseObject(json, (Type) clazz);
+    }
+
+    @Override
+    public <T> T parseObject(String json, Type type) {
+        try (JSONReader reader = JSONReader.of(json)) {
+            return read(reader, type);
         } catch (Exception e) {
             log.error("Fastjson2反序列化失败: {}", json, e);
             throw new RuntimeException("JSON反序列化失败", e);
         }
     }
 
+    @Override
+    public <T> T parseObject(InputStream input, Type type) {
+        // 读取缓冲区在关闭时归还给fastjson2复用，输入流本身不会被关闭
+        try (JSONReader reader = JSONReader.of(new NonClosingInputStream(input), StandardCharsets.UTF_8)) {
+            return read(reader, type);
+        } catch (Exception e) {
+            log.error("Fastjson2流式反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSON反序列化失败", e);
+        }
+    }
+
+    @Override
+    public <T> T parseObject(byte[] bytes, int offset, int length, Type type) {
+        try (JSONReader reader = JSONReader.of(bytes, offset, length, StandardCharsets.UTF_8)) {
+            return read(reader, type);
+        } catch (Exception e) {
+            log.error("Fastjson2反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSON反序列化失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> extract(InputStream input, FieldSelection selection) throws IOException {
+        // fastjson2从输入流创建读取器时会先读入全部数据，提前停止只省去解析和绑定；需要同时省去IO时使用Jackson
+        try (JSONReader reader = JSONReader.of(new NonClosingInputStream(input), StandardCharsets.UTF_8)) {
+            if (reader.isEnd()) {
+                return Collections.emptyMap();
+            }
+            return selection.extract(new ReaderCursor(reader));
+        } catch (JSONException e) {
+            log.error("Fastjson2字段提取失败: {}", selection.getPaths().keySet(), e);
+            throw new RuntimeException("JSON字段提取失败", e);
+        }
+    }
+
+    @Override
+    public void warmUp(Type type) {
+        readerFor(type);
+        Class<?> rawType = TypeUtils.getClass(type);
+        if (rawType != null) {
+            writerFor(rawType);
+        }
+    }
+
     @Override
     public String getProcessorName() {
         return "Fastjson2";
     }
+
+    private <T> T read(JSONReader reader, Type type) {
+        if (reader.isEnd()) {
+            return null;
+        }
+        ObjectReader<T> objectReader = readerFor(type);
+        T object = objectReader.readObject(reader, type, null, 0);
+        reader.handleResolveTasks(object);
+        if (!reader.isEnd()) {
+            throw new JSONException(reader.info("input not end"));
+        }
+        return object;
+    }
+
+    private void write(JSONWriter writer, Object obj) {
+        if (obj == null) {
+            writer.writeNull();
+            return;
+        }
+        writerFor(obj.getClass()).write(writer, obj, null, null, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ObjectReader<T> readerFor(Type type) {
+        ObjectReader<?> objectReader = readers.get(type);
+        if (objectReader == null) {
+            objectReader = readers.computeIfAbsent(type,
+                    t -> JSONFactory.getDefaultObjectReaderProvider().getObjectReader(t));
+        }
+        return (ObjectReader<T>) objectReader;
+    }
+
+    /**
+     * 基于JSONReader的令牌游标，跳过和绑定都会消费值后面的逗号
+     */
+    private class ReaderCursor implements JsonTokenCursor {
+
+        private final JSONReader reader;
+
+        ReaderCursor(JSONReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean nextIfObjectStart() {
+            return reader.nextIfObjectStart();
+        }
+
+        @Override
+        public boolean nextIfObjectEnd() {
+            return reader.nextIfObjectEnd();
+        }
+
+        @Override
+        public boolean nextIfArrayStart() {
+            return reader.nextIfArrayStart();
+        }
+
+        @Override
+        public boolean nextIfArrayEnd() {
+            return reader.nextIfArrayEnd();
+        }
+
+        @Override
+        public String readFieldName() {
+            return reader.readFieldName();
+        }
+
+        @Override
+        public void skipValue() {
+            reader.skipValue();
+        }
+
+        @Override
+        public Object read(Type type) {
+            Object object = readerFor(type).readObject(reader, type, null, 0);
+            reader.handleResolveTasks(object);
+            return object;
+        }
+    }
+
+    private ObjectWriter<?> writerFor(Class<?> type) {
+        ObjectWriter<?> objectWriter = writers.get(type);
+        if (objectWriter == null) {
+            objectWriter = writers.computeIfAbsent(type,
+                    c -> JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(c, c, false));
+        }
+        return objectWriter;
+    }
 }
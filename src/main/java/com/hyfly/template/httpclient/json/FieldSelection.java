@@ -0,0 +1,257 @@
+package com.hyfly.template.httpclient.json;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字段选择 用类JSONPath的选择器从大文档中只提取需要的字段
+ * <p>
+ * 支持的语法是JSONPath的子集：{@code $} 表示根，{@code .name} 或 {@code ['name']} 选择字段，{@code [n]} 选择数组下标，
+ * 如 {@code $.data.items[0].id}。未选择的值只做跳过不做绑定；所有选择器都取到值后立即停止读取，不再解析文档剩余部分。
+ * <p>
+ * 选择器在创建时编译为前缀树，构建完成后可以在多个线程间共享。
+ */
+public class FieldSelection {
+
+    private final Node root = new Node();
+    private final Map<String, Type> paths = new LinkedHashMap<>();
+
+    /**
+     * 创建字段选择，值绑定为通用类型（Map、List、String、Number等）
+     *
+     * @param paths 选择器
+     * @return FieldSelection
+     */
+    public static FieldSelection of(String... paths) {
+        FieldSelection selection = new FieldSelection();
+        for (String path : paths) {
+            selection.select(path, Object.class);
+        }
+        return selection;
+    }
+
+    /**
+     * 添加选择器，值绑定为通用类型
+     *
+     * @param path 选择器
+     * @return FieldSelection
+     */
+    public FieldSelection select(String path) {
+        return select(path, Object.class);
+    }
+
+    /**
+     * 添加选择器
+     *
+     * @param path          选择器
+     * @param typeReference 值的类型引用
+     * @return FieldSelection
+     */
+    public FieldSelection select(String path, TypeReference<?> typeReference) {
+        return select(path, typeReference.getType());
+    }
+
+    /**
+     * 添加选择器
+     *
+     * @param path 选择器
+     * @param type 值的类型
+     * @return FieldSelection
+     */
+    public FieldSelection select(String path, Type type) {
+        Node node = root;
+        for (Object segment : parse(path)) {
+            if (node.path != null) {
+                throw new IllegalArgumentException("选择器不能以另一个选择器为前缀: " + path + ", " + node.path);
+            }
+            node = segment instanceof Integer
+                    ? node.indices.computeIfAbsent((Integer) segment, i -> new Node())
+                    : node.fields.computeIfAbsent((String) segment, n -> new Node());
+        }
+        if (!node.fields.isEmpty() || !node.indices.isEmpty()) {
+            throw new IllegalArgumentException("选择器不能是另一个选择器的前缀: " + path);
+        }
+        if (node.path == null) {
+            node.path = path;
+        }
+        node.type = type;
+        paths.put(node.path, type);
+        return this;
+    }
+
+    /**
+     * 获取所有选择器及其值类型
+     *
+     * @return 选择器到类型的映射
+     */
+    public Map<String, Type> getPaths() {
+        return Collections.unmodifiableMap(paths);
+    }
+
+    /**
+     * 遍历文档提取选择的值，未找到的选择器不出现在结果中
+     *
+     * @param cursor 令牌游标
+     * @return 选择器到值的映射，按添加顺序排列
+     */
+    Map<String, Object> extract(JsonTokenCursor cursor) throws IOException {
+        Map<String, Object> found = new HashMap<>();
+        if (!paths.isEmpty()) {
+            visit(root, cursor, found);
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String path : paths.keySet()) {
+            if (found.containsKey(path)) {
+                values.put(path, found.get(path));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 从已解析的通用对象树（Map、List）中提取选择的值，非通用类型的值通过处理器重新绑定
+     *
+     * @param document  对象树
+     * @param processor 用于绑定值的处理器
+     * @return 选择器到值的映射，按添加顺序排列
+     */
+    Map<String, Object> extract(Object document, JsonProcessor processor) {
+        Map<String, Object> found = new HashMap<>();
+        if (!paths.isEmpty()) {
+            visit(root, document, processor, found);
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String path : paths.keySet()) {
+            if (found.containsKey(path)) {
+                values.put(path, found.get(path));
+            }
+        }
+        return values;
+    }
+
+    private void visit(Node node, Object value, JsonProcessor processor, Map<String, Object> found) {
+        if (node.path != null) {
+            boolean generic = node.type == Object.class || value == null;
+            found.put(node.path, generic ? value : processor.parseObject(processor.toJsonString(value), node.type));
+            return;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> fields = (Map<?, ?>) value;
+            for (Map.Entry<String, Node> child : node.fields.entrySet()) {
+                if (fields.containsKey(child.getKey())) {
+                    visit(child.getValue(), fields.get(child.getKey()), processor, found);
+                }
+            }
+        } else if (value instanceof List) {
+            List<?> elements = (List<?>) value;
+            for (Map.Entry<Integer, Node> child : node.indices.entrySet()) {
+                if (child.getKey() < elements.size()) {
+                    visit(child.getValue(), elements.get(child.getKey()), processor, found);
+                }
+            }
+        }
+    }
+
+    /**
+     * 访问当前值
+     *
+     * @return 所有选择器都已取到值时返回true，调用方应立即停止遍历
+     */
+    private boolean visit(Node node, JsonTokenCursor cursor, Map<String, Object> found) throws IOException {
+        if (node.path != null) {
+            found.put(node.path, cursor.read(node.type));
+            return found.size() == paths.size();
+        }
+        if (!node.fields.isEmpty() && cursor.nextIfObjectStart()) {
+            while (!cursor.nextIfObjectEnd()) {
+                Node child = node.fields.get(cursor.readFieldName());
+                if (child == null) {
+                    cursor.skipValue();
+                } else if (visit(child, cursor, found)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (!node.indices.isEmpty() && cursor.nextIfArrayStart()) {
+            for (int index = 0; !cursor.nextIfArrayEnd(); index++) {
+                Node child = node.indices.get(index);
+                if (child == null) {
+                    cursor.skipValue();
+                } else if (visit(child, cursor, found)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        cursor.skipValue();
+        return false;
+    }
+
+    /**
+     * 解析选择器为字段名（String）和下标（Integer）组成的路径
+     */
+    private static Object[] parse(String path) {
+        // 允许省略$和开头的点，如 data.items[0]
+        String expression = path.startsWith("$") ? path.substring(1) : path;
+        if (!expression.isEmpty() && expression.charAt(0) != '.' && expression.charAt(0) != '[') {
+            expression = "." + expression;
+        }
+        List<Object> segments = new ArrayList<>();
+        int length = expression.length();
+        int i = 0;
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < length && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == i + 1) {
+                    throw new IllegalArgumentException("选择器字段名为空: " + path);
+                }
+                segments.add(expression.substring(i + 1, end));
+                i = end;
+            } else if (c == '[') {
+                int end = expression.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("选择器缺少']': " + path);
+                }
+                String token = expression.substring(i + 1, end).trim();
+                if (token.length() >= 2 && (token.charAt(0) == '\'' || token.charAt(0) == '"')
+                        && token.charAt(token.length() - 1) == token.charAt(0)) {
+                    segments.add(token.substring(1, token.length() - 1));
+                } else {
+                    try {
+                        segments.add(Integer.valueOf(token));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("不支持的选择器下标: " + path, e);
+                    }
+                }
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("无法解析的选择器: " + path);
+            }
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("选择器不能选择整个文档: " + path);
+        }
+        return segments.toArray();
+    }
+
+    /**
+     * 前缀树节点，path不为空时是叶子节点
+     */
+    private static class Node {
+        final Map<String, Node> fields = new HashMap<>();
+        final Map<Integer, Node> indices = new HashMap<>();
+        String path;
+        Type type;
+    }
+}
@@ -1,46 +1,235 @@
 package com.hyfly.template.httpclient.json;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Jackson JSON处理器实现
+ * <p>
+ * 按类型缓存 {@link ObjectReader}、按运行时类缓存 {@link ObjectWriter}，两者都已解析好JavaType并预取根序列化器，
+ * 重复调用时跳过类型构造和序列化器查找。缓存基于创建时的ObjectMapper配置，之后修改ObjectMapper不会影响已缓存的条目。
+ * <p>
+ * 默认构造时如果类路径中有Blackbird模块（jackson-module-blackbird，需要Java 11+）会自动注册，
+ * 用LambdaMetafactory生成的访问器代替反射。
  */
 @Slf4j
 public class JacksonProcessor implements JsonProcessor {
 
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
     private final ObjectMapper objectMapper;
+    private final ObjectWriter nullWriter;
+    private final ConcurrentMap<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
 
     public JacksonProcessor() {
-        this.objectMapper = new ObjectMapper();
+        this(registerOptionalModules(new ObjectMapper()));
     }
 
     public JacksonProcessor(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
+        this.nullWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @Override
     public String toJsonString(Object obj) {
         try {
-            return objectMapper.writeValueAsString(obj);
+            return writerFor(obj).writeValueAsString(obj);
         } catch (Exception e) {
             log.error("Jackson序列化失败", e);
             throw new RuntimeException("JSON序列化失败", e);
         }
     }
 
+    @Override
+    public void writeTo(Object obj, OutputStream output) throws IOException {
+        // 输出流由调用方关闭
+        writerFor(obj).writeValue(output, obj);
+    }
+
+    @Override
+    public boolean supportsStreamingWrite() {
+        return true;
+    }
+
     @Override
     public <T> T parseObject(String json, Class<T> clazz) {
+        return parseObject(json, (Type) clazz);
+    }
+
+    @Override
+    public <T> T parseObject(String json, Type type) {
         try {
-            return objectMapper.readValue(json, clazz);
+            return readerFor(type).readValue(json);
         } catch (Exception e) {
             log.error("Jackson反序列化失败: {}", json, e);
             throw new RuntimeException("JSON反序列化失败", e);
         }
     }
 
+    @Override
+    public <T> T parseObject(InputStream input, Type type) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            // 输入流由调用方关闭
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return readerFor(type).readValue(parser);
+        } catch (Exception e) {
+            log.error("Jackson流式反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSON反序列化失败", e);
+        }
+    }
+
+    @Override
+    public <T> T parseObject(byte[] bytes, int offset, int length, Type type) {
+        try {
+            return readerFor(type).readValue(bytes, offset, length);
+        } catch (Exception e) {
+            log.error("Jackson反序列化失败: {}", type.getTypeName(), e);
+            throw new RuntimeException("JSON反序列化失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> extract(InputStream input, FieldSelection selection) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            // 输入流由调用方关闭
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() == null) {
+                return Collections.emptyMap();
+            }
+            return selection.extract(new ParserCursor(parser));
+        }
+    }
+
+    @Override
+    public void warmUp(Type type) {
+        readerFor(type);
+        Class<?> rawType = objectMapper.constructType(type).getRawClass();
+        writers.computeIfAbsent(rawType, this::createWriter);
+    }
+
     @Override
     public String getProcessorName() {
         return "Jackson";
     }
+
+    private ObjectReader readerFor(Type type) {
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = readers.computeIfAbsent(type, t -> objectMapper.readerFor(objectMapper.constructType(t)));
+        }
+        return reader;
+    }
+
+    /**
+     * 基于JsonParser的令牌游标，解析器的当前令牌就是下一个未消费的令牌
+     */
+    private class ParserCursor implements JsonTokenCursor {
+
+        private final JsonParser parser;
+
+        ParserCursor(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean nextIfObjectStart() throws IOException {
+            return nextIf(JsonToken.START_OBJECT);
+        }
+
+        @Override
+        public boolean nextIfObjectEnd() throws IOException {
+            return nextIf(JsonToken.END_OBJECT);
+        }
+
+        @Override
+        public boolean nextIfArrayStart() throws IOException {
+            return nextIf(JsonToken.START_ARRAY);
+        }
+
+        @Override
+        public boolean nextIfArrayEnd() throws IOException {
+            return nextIf(JsonToken.END_ARRAY);
+        }
+
+        @Override
+        public String readFieldName() throws IOException {
+            String name = parser.currentName();
+            parser.nextToken();
+            return name;
+        }
+
+        @Override
+        public void skipValue() throws IOException {
+            parser.skipChildren();
+            parser.nextToken();
+        }
+
+        @Override
+        public Object read(Type type) throws IOException {
+            Object value = readerFor(type).readValue(parser);
+            parser.nextToken();
+            return value;
+        }
+
+        private boolean nextIf(JsonToken token) throws IOException {
+            if (parser.currentToken() != token) {
+                return false;
+            }
+            parser.nextToken();
+            return true;
+        }
+    }
+
+    private ObjectWriter writerFor(Object obj) {
+        if (obj == null) {
+            return nullWriter;
+        }
+        ObjectWriter writer = writers.get(obj.getClass());
+        if (writer == null) {
+            writer = writers.computeIfAbsent(obj.getClass(), this::createWriter);
+        }
+        return writer;
+    }
+
+    private ObjectWriter createWriter(Class<?> type) {
+        return objectMapper.writerFor(type).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * 注册类路径中存在的可选模块
+     *
+     * @param objectMapper ObjectMapper
+     * @return 注册后的ObjectMapper
+     */
+    protected static ObjectMapper registerOptionalModules(ObjectMapper objectMapper) {
+        try {
+            Class<?> moduleClass = Class.forName(BLACKBIRD_MODULE);
+            objectMapper.registerModule((Module) moduleClass.getDeclaredConstructor().newInstance());
+            log.info("已注册Jackson Blackbird模块");
+        } catch (ClassNotFoundException e) {
+            // 未引入Blackbird，使用反射访问器
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("注册Jackson Blackbird模块失败", e);
+        }
+        return objectMapper;
+    }
 }
@@ -1,5 +1,16 @@
 package com.hyfly.template.httpclient.json;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * JSON处理器接口 支持不同的JSON库实现
  */
@@ -13,6 +24,46 @@ public interface JsonProcessor {
      */
     String toJsonString(Object obj);
 
+    /**
+     * 对象序列化为UTF-8字节写入输出流，不经过中间字符串
+     * <p>
+     * 不会关闭输出流，由调用方负责关闭。默认实现先通过 {@link #toJsonString(Object)} 序列化为字符串，支持流式写出的实现应覆盖。
+     *
+     * @param obj    要序列化的对象
+     * @param output 输出流
+     * @throws IOException 写入输出流失败
+     */
+    default void writeTo(Object obj, OutputStream output) throws IOException {
+        output.write(toJsonString(obj).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 对象序列化为UTF-8字节数组，用于发送长度已知的请求体
+     *
+     * @param obj 要序列化的对象
+     * @return UTF-8字节
+     */
+    default byte[] toJsonBytes(Object obj) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            writeTo(obj, output);
+        } catch (IOException e) {
+            throw new RuntimeException("JSON序列化失败", e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * {@link #writeTo(Object, OutputStream)} 是否边序列化边写出，不在内存中保留完整结果
+     * <p>
+     * 为true时请求体以分块传输直接写入连接，否则先序列化为字节数组，以固定长度发送。
+     *
+     * @return 是否流式写出
+     */
+    default boolean supportsStreamingWrite() {
+        return false;
+    }
+
     /**
      * JSON字符串反序列化为对象
      *
@@ -23,6 +74,114 @@ public interface JsonProcessor {
      */
     <T> T parseObject(String json, Class<T> clazz);
 
+    /**
+     * JSON字符串反序列化为泛型类型的对象
+     * <p>
+     * 默认实现按类型的原始类调用 {@link #parseObject(String, Class)}，泛型参数不参与绑定，支持泛型的实现应覆盖。
+     *
+     * @param json JSON字符串
+     * @param type 目标类型，可以是参数化类型
+     * @param <T>  泛型类型
+     * @return 反序列化后的对象
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T parseObject(String json, Type type) {
+        Type rawType = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+        if (!(rawType instanceof Class)) {
+            throw new IllegalArgumentException(getProcessorName() + "不支持的目标类型: " + type.getTypeName());
+        }
+        return parseObject(json, (Class<T>) rawType);
+    }
+
+    /**
+     * JSON字符串反序列化为泛型类型的对象
+     *
+     * @param json          JSON字符串
+     * @param typeReference 目标类型引用
+     * @param <T>           泛型类型
+     * @return 反序列化后的对象
+     */
+    default <T> T parseObject(String json, TypeReference<T> typeReference) {
+        return parseObject(json, typeReference.getType());
+    }
+
+    /**
+     * 从UTF-8字节流直接反序列化为对象，不经过中间字符串
+     * <p>
+     * 不会关闭输入流，由调用方负责关闭。默认实现先读入全部数据再通过 {@link #parseObject(String, Type)} 解析，支持流式解析的实现应覆盖。
+     *
+     * @param input 输入流
+     * @param type  目标类型
+     * @param <T>   泛型类型
+     * @return 反序列化后的对象，输入为空时返回null
+     */
+    default <T> T parseObject(InputStream input, Type type) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        try {
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("JSON反序列化失败", e);
+        }
+        if (buffer.size() == 0) {
+            return null;
+        }
+        return parseObject(new String(buffer.toByteArray(), StandardCharsets.UTF_8), type);
+    }
+
+    /**
+     * 从UTF-8字节数组的一段反序列化为对象，用于逐条解码流式响应中切分出的元素
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param type   目标类型
+     * @param <T>    泛型类型
+     * @return 反序列化后的对象
+     */
+    default <T> T parseObject(byte[] bytes, int offset, int length, Type type) {
+        return parseObject(new ByteArrayInputStream(bytes, offset, length), type);
+    }
+
+    /**
+     * 从输入流中只提取选择的字段，未选择的值只跳过不绑定，所有选择器取到值后立即停止读取
+     * <p>
+     * 不会关闭输入流，停止读取时流中可能还有未读的数据，由调用方决定读完还是放弃。
+     * 默认实现先把整个文档解析为通用对象树再按选择器取值，非通用类型的值经字符串重新绑定，支持令牌级读取的实现应覆盖。
+     *
+     * @param input     输入流
+     * @param selection 字段选择
+     * @return 选择器到值的映射，未找到的选择器不出现在结果中
+     * @throws IOException 读取输入流失败
+     */
+    default Map<String, Object> extract(InputStream input, FieldSelection selection) throws IOException {
+        Object document = parseObject(input, Object.class);
+        if (document == null) {
+            return Collections.emptyMap();
+        }
+        return selection.extract(document, this);
+    }
+
+    /**
+     * 预热：提前构建类型的序列化和反序列化元数据
+     *
+     * @param type 类型
+     */
+    default void warmUp(Type type) {
+    }
+
+    /**
+     * 获取处理器对应的媒体类型，用于Accept协商和按Content-Type选择解码器
+     *
+     * @return 媒体类型
+     */
+    default String getMediaType() {
+        return "application/json";
+    }
+
     /**
      * 获取处理器名称
      *
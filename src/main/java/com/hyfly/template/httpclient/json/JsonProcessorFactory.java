@@ -1,22 +1,20 @@
 package com.hyfly.template.httpclient.json;
 
 /**
- * JSON处理器工厂
+ * JSON处理器工厂 基于全局 {@link JsonProcessorRegistry}，返回的都是共享的长期实例
  */
 public class JsonProcessorFactory {
 
     public static final String FASTJSON2 = "fastjson2";
     public static final String JACKSON = "jackson";
 
-    private static JsonProcessor defaultProcessor = new Fastjson2Processor();
-
     /**
      * 获取默认的JSON处理器
      *
      * @return JSON处理器
      */
     public static JsonProcessor getDefaultProcessor() {
-        return defaultProcessor;
+        return JsonProcessorRegistry.global().getDefaultProcessor();
     }
 
     /**
@@ -25,7 +23,7 @@ public class JsonProcessorFactory {
      * @param processor JSON处理器
      */
     public static void setDefaultProcessor(JsonProcessor processor) {
-        defaultProcessor = processor;
+        JsonProcessorRegistry.global().setDefaultProcessor(processor);
     }
 
     /**
@@ -35,14 +33,7 @@ public class JsonProcessorFactory {
      * @return JSON处理器
      */
     public static JsonProcessor getProcessor(String type) {
-        switch (type.toLowerCase()) {
-            case FASTJSON2:
-                return new Fastjson2Processor();
-            case JACKSON:
-                return new JacksonProcessor();
-            default:
-                throw new IllegalArgumentException("不支持的JSON处理器类型: " + type);
-        }
+        return JsonProcessorRegistry.global().getProcessor(type);
     }
 
     /**
@@ -51,7 +42,7 @@ public class JsonProcessorFactory {
      * @return Fastjson2处理器
      */
     public static JsonProcessor getFastjson2Processor() {
-        return new Fastjson2Processor();
+        return getProcessor(FASTJSON2);
     }
 
     /**
@@ -60,6 +51,6 @@ public class JsonProcessorFactory {
      * @return Jackson处理器
      */
     public static JsonProcessor getJacksonProcessor() {
-        return new JacksonProcessor();
+        return getProcessor(JACKSON);
     }
 }
@@ -0,0 +1,298 @@
+package com.hyfly.template.httpclient.json;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JSON处理器注册表 管理长期存活、线程安全的处理器实例，并按响应的Content-Type选择处理器
+ * <p>
+ * 处理器按名称注册，整个进程共享同一个实例，避免重复创建ObjectMapper等重量级对象导致序列化器缓存失效。
+ * 媒体类型映射优先精确匹配（如 application/json），其次按结构化后缀匹配（如 application/problem+json 匹配 +json），
+ * 都未匹配时使用默认处理器。
+ * <p>
+ * 二进制格式（fastjson2 JSONB，以及类路径中存在对应模块时的Smile、CBOR、MessagePack）通过 {@link #registerFormat}
+ * 同时按名称和媒体类型注册，配合 {@link #acceptHeader} 与服务端协商；服务端不支持时按响应的Content-Type回退到JSON。
+ * <p>
+ * {@link #global()} 是全局注册表，{@link JsonProcessorFactory} 基于它实现；需要单独配置的
+ * {@link com.hyfly.template.httpclient.core.HttpRestTemplate} 可以使用 {@link #copy()} 得到独立的注册表后再修改。
+ */
+@Slf4j
+public class JsonProcessorRegistry {
+
+    public static final String JSONB = "jsonb";
+    public static final String SMILE = "smile";
+    public static final String CBOR = "cbor";
+    public static final String MSGPACK = "msgpack";
+
+    private static final String JACKSON_CLASS = "com.fasterxml.jackson.databind.ObjectMapper";
+    private static final String SMILE_CLASS = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+    private static final String CBOR_CLASS = "com.fasterxml.jackson.dataformat.cbor.CBORFactory";
+    private static final String MSGPACK_CLASS = "org.msgpack.jackson.dataformat.MessagePackFactory";
+    private static final String JSON_MEDIA_TYPE = "application/json";
+    private static final JsonProcessorRegistry GLOBAL = createDefault();
+
+    private final ConcurrentMap<String, JsonProcessor> processors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JsonProcessor> mediaTypes = new ConcurrentHashMap<>();
+    private volatile JsonProcessor defaultProcessor;
+
+    /**
+     * @param defaultProcessor 默认处理器
+     */
+    public JsonProcessorRegistry(JsonProcessor defaultProcessor) {
+        this.defaultProcessor = defaultProcessor;
+    }
+
+    /**
+     * 获取全局注册表
+     *
+     * @return 全局注册表
+     */
+    public static JsonProcessorRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 创建包含内置处理器的注册表，Jackson及其二进制格式模块仅在类路径中存在时注册
+     */
+    private static JsonProcessorRegistry createDefault() {
+        JsonProcessor fastjson2 = new Fastjson2Processor();
+        JsonProcessorRegistry registry = new JsonProcessorRegistry(fastjson2);
+        registry.register(JsonProcessorFactory.FASTJSON2, fastjson2);
+        registry.registerFormat(JSONB, new Fastjson2JsonbProcessor());
+        if (isPresent(JACKSON_CLASS)) {
+            registry.register(JsonProcessorFactory.JACKSON, new JacksonProcessor());
+            if (isPresent(SMILE_CLASS)) {
+                registry.registerFormat(SMILE, new SmileProcessor());
+            }
+            if (isPresent(CBOR_CLASS)) {
+                registry.registerFormat(CBOR, new CborProcessor());
+            }
+            if (isPresent(MSGPACK_CLASS)) {
+                registry.registerFormat(MSGPACK, new MessagePackProcessor());
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * 按名称注册处理器
+     *
+     * @param name      处理器名称
+     * @param processor 处理器
+     * @return JsonProcessorRegistry
+     */
+    public JsonProcessorRegistry register(String name, JsonProcessor processor) {
+        processors.put(name.toLowerCase(Locale.ROOT), processor);
+        return this;
+    }
+
+    /**
+     * 为媒体类型注册处理器
+     *
+     * @param mediaType 媒体类型，如 application/json；以+开头表示结构化后缀，如 +json
+     * @param processor 处理器
+     * @return JsonProcessorRegistry
+     */
+    public JsonProcessorRegistry registerMediaType(String mediaType, JsonProcessor processor) {
+        mediaTypes.put(mediaType.trim().toLowerCase(Locale.ROOT), processor);
+        return this;
+    }
+
+    /**
+     * 注册数据格式：同时按名称和处理器声明的媒体类型注册
+     *
+     * @param name      格式名称，如 smile
+     * @param processor 处理器
+     * @return JsonProcessorRegistry
+     */
+    public JsonProcessorRegistry registerFormat(String name, JsonProcessor processor) {
+        register(name, processor);
+        return registerMediaType(processor.getMediaType(), processor);
+    }
+
+    /**
+     * 是否注册了该名称的处理器
+     *
+     * @param name 处理器名称
+     * @return 是否已注册
+     */
+    public boolean contains(String name) {
+        return processors.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 按偏好顺序生成Accept请求头，未注册的格式会被跳过，JSON始终作为最低优先级的兜底
+     * <p>
+     * 例如 acceptHeader("smile", "cbor") 得到 application/x-jackson-smile, application/cbor;q=0.9, application/json;q=0.5
+     *
+     * @param names 格式名称，按偏好从高到低
+     * @return Accept请求头的值
+     */
+    public String acceptHeader(String... names) {
+        StringBuilder accept = new StringBuilder();
+        int rank = 0;
+        for (String name : names) {
+            JsonProcessor processor = processors.get(name.toLowerCase(Locale.ROOT));
+            if (processor == null) {
+                log.warn("未注册的数据格式，已忽略: {}", name);
+                continue;
+            }
+            String mediaType = processor.getMediaType();
+            if (JSON_MEDIA_TYPE.equals(mediaType)) {
+                continue;
+            }
+            if (accept.length() > 0) {
+                accept.append(", ");
+            }
+            accept.append(mediaType);
+            if (rank > 0) {
+                accept.append(";q=0.").append(Math.max(10 - rank, 6));
+            }
+            rank++;
+        }
+        if (accept.length() > 0) {
+            accept.append(", ");
+            accept.append(JSON_MEDIA_TYPE).append(";q=0.5");
+        } else {
+            accept.append(JSON_MEDIA_TYPE);
+        }
+        return accept.toString();
+    }
+
+    /**
+     * 按名称获取处理器
+     *
+     * @param name 处理器名称
+     * @return 处理器
+     */
+    public JsonProcessor getProcessor(String name) {
+        JsonProcessor processor = processors.get(name.toLowerCase(Locale.ROOT));
+        if (processor == null) {
+            throw new IllegalArgumentException("不支持的JSON处理器类型: " + name);
+        }
+        return processor;
+    }
+
+    /**
+     * 获取默认处理器
+     *
+     * @return 默认处理器
+     */
+    public JsonProcessor getDefaultProcessor() {
+        return defaultProcessor;
+    }
+
+    /**
+     * 设置默认处理器
+     *
+     * @param processor 默认处理器
+     */
+    public void setDefaultProcessor(JsonProcessor processor) {
+        this.defaultProcessor = processor;
+    }
+
+    /**
+     * 按Content-Type选择处理器
+     *
+     * @param contentType Content-Type，可以带参数
+     * @return 处理器
+     */
+    public JsonProcessor resolve(String contentType) {
+        if (contentType == null || mediaTypes.isEmpty()) {
+            return defaultProcessor;
+        }
+        int paramStart = contentType.indexOf(';');
+        String mediaType = (paramStart >= 0 ? contentType.substring(0, paramStart) : contentType)
+                .trim().toLowerCase(Locale.ROOT);
+        JsonProcessor processor = mediaTypes.get(mediaType);
+        if (processor == null) {
+            int suffixStart = mediaType.lastIndexOf('+');
+            if (suffixStart >= 0) {
+                processor = mediaTypes.get(mediaType.substring(suffixStart));
+            }
+        }
+        return processor != null ? processor : defaultProcessor;
+    }
+
+    /**
+     * 按Content-Type选择字段提取使用的处理器
+     * <p>
+     * JSON响应在注册了Jackson时使用Jackson：它边读边解析，取到所有字段后同时省去剩余的IO；
+     * Fastjson2会先把整个响应体读入内存，提前停止只省去解析和绑定。
+     *
+     * @param contentType Content-Type，可以带参数
+     * @return 处理器
+     */
+    public JsonProcessor resolveExtractor(String contentType) {
+        JsonProcessor processor = resolve(contentType);
+        if (JSON_MEDIA_TYPE.equals(processor.getMediaType())) {
+            JsonProcessor jackson = processors.get(JsonProcessorFactory.JACKSON);
+            if (jackson != null) {
+                return jackson;
+            }
+        }
+        return processor;
+    }
+
+    /**
+     * 预热：为所有已注册的处理器提前构建这些类型的序列化元数据，避免首批请求承担构建开销
+     *
+     * @param types 需要预热的类型
+     */
+    public void warmUp(Type... types) {
+        Set<JsonProcessor> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.add(defaultProcessor);
+        distinct.addAll(processors.values());
+        distinct.addAll(mediaTypes.values());
+        long start = System.nanoTime();
+        for (JsonProcessor processor : distinct) {
+            for (Type type : types) {
+                try {
+                    processor.warmUp(type);
+                } catch (RuntimeException e) {
+                    log.warn("{}预热类型失败: {}", processor.getProcessorName(), type.getTypeName(), e);
+                }
+            }
+        }
+        log.info("JSON处理器预热完成，处理器数: {}，类型数: {}，耗时: {}ms", distinct.size(), types.length,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 复制注册表，处理器实例仍然共享
+     *
+     * @return 新的注册表
+     */
+    public JsonProcessorRegistry copy() {
+        JsonProcessorRegistry copy = new JsonProcessorRegistry(defaultProcessor);
+        copy.processors.putAll(processors);
+        copy.mediaTypes.putAll(mediaTypes);
+        return copy;
+    }
+
+    /**
+     * 获取已注册的媒体类型映射
+     *
+     * @return 媒体类型到处理器的映射
+     */
+    public Map<String, JsonProcessor> getMediaTypes() {
+        return Collections.unmodifiableMap(mediaTypes);
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, JsonProcessorRegistry.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
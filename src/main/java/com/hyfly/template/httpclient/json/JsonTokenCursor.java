@@ -0,0 +1,35 @@
+package com.hyfly.template.httpclient.json;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON令牌游标 屏蔽fastjson2 JSONReader与Jackson JsonParser的差异，供 {@link FieldSelection} 遍历文档
+ * <p>
+ * 游标始终停在下一个未消费的令牌上，nextIf开头的方法只在令牌匹配时消费它。
+ */
+interface JsonTokenCursor {
+
+    boolean nextIfObjectStart() throws IOException;
+
+    boolean nextIfObjectEnd() throws IOException;
+
+    boolean nextIfArrayStart() throws IOException;
+
+    boolean nextIfArrayEnd() throws IOException;
+
+    /**
+     * 读取字段名，之后游标停在字段值上
+     */
+    String readFieldName() throws IOException;
+
+    /**
+     * 跳过当前值，包括嵌套的对象和数组，不做绑定
+     */
+    void skipValue() throws IOException;
+
+    /**
+     * 将当前值绑定为指定类型
+     */
+    Object read(Type type) throws IOException;
+}
@@ -0,0 +1,32 @@
+package com.hyfly.template.httpclient.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+/**
+ * MessagePack格式处理器 基于jackson-dataformat-msgpack，跨语言支持广泛
+ * <p>
+ * 二进制格式不支持字符串形式的序列化和反序列化，只能通过输入输出流使用。
+ */
+public class MessagePackProcessor extends JacksonProcessor {
+
+    public static final String MEDIA_TYPE = "application/x-msgpack";
+
+    public MessagePackProcessor() {
+        super(registerOptionalModules(new ObjectMapper(new MessagePackFactory())));
+    }
+
+    public MessagePackProcessor(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "MessagePack";
+    }
+}
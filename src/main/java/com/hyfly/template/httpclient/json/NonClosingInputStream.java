@@ -0,0 +1,19 @@
+package com.hyfly.template.httpclient.json;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * 忽略close的输入流 交给会在关闭时关闭底层流的解析器使用，底层流仍由调用方关闭
+ */
+final class NonClosingInputStream extends FilterInputStream {
+
+    NonClosingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public void close() {
+        // 底层流由调用方关闭
+    }
+}
@@ -0,0 +1,32 @@
+package com.hyfly.template.httpclient.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Jackson Smile二进制格式处理器 JSON数据模型的二进制编码，重复的字段名和短字符串通过回引用压缩
+ * <p>
+ * 二进制格式不支持字符串形式的序列化和反序列化，只能通过输入输出流使用。
+ */
+public class SmileProcessor extends JacksonProcessor {
+
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    public SmileProcessor() {
+        super(registerOptionalModules(new ObjectMapper(new SmileFactory())));
+    }
+
+    public SmileProcessor(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "Smile";
+    }
+}
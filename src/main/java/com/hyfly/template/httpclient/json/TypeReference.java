@@ -0,0 +1,49 @@
+package com.hyfly.template.httpclient.json;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * 泛型类型引用 通过匿名子类保留完整的泛型信息，用于表达 {@code List<Foo>}、{@code Page<Bar>} 等类型
+ * <p>
+ * 用法：{@code new TypeReference<List<Foo>>() {}}
+ *
+ * @param <T> 目标类型
+ */
+public abstract class TypeReference<T> {
+
+    private final Type type;
+
+    protected TypeReference() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalArgumentException("TypeReference必须指定泛型参数");
+        }
+        this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    }
+
+    private TypeReference(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * 由已有的Type创建类型引用
+     *
+     * @param type 类型
+     * @param <T>  目标类型
+     * @return 类型引用
+     */
+    public static <T> TypeReference<T> of(Type type) {
+        return new TypeReference<T>(type) {
+        };
+    }
+
+    /**
+     * 获取完整的泛型类型
+     *
+     * @return 类型
+     */
+    public Type getType() {
+        return type;
+    }
+}
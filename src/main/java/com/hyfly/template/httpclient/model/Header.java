@@ -109,6 +109,37 @@ public class Header {
         return header.get(key);
     }
 
+    /**
+     * 忽略大小写获取请求头值
+     *
+     * @param key 请求头名称
+     * @return 请求头值
+     */
+    public String getValueIgnoreCase(String key) {
+        String value = header.get(key);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> entry : header.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(key)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 复制请求头
+     *
+     * @return 新的Header
+     */
+    public Header copy() {
+        Header copy = new Header();
+        copy.header.clear();
+        copy.header.putAll(this.header);
+        return copy;
+    }
+
     /**
      * 获取字符集
      *
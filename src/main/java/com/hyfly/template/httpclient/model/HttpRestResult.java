@@ -1,16 +1,24 @@
 package com.hyfly.template.httpclient.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
 
 /**
  * HTTP响应结果封装类
+ * <p>
+ * 延迟解码的结果只保存响应体，第一次调用 {@link #getData()} 时才解码并缓存解码结果，解码失败时在这次调用中抛出异常。
  *
  * @param <T> 响应数据类型
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class HttpRestResult<T> {
 
@@ -39,6 +47,23 @@ public class HttpRestResult<T> {
      */
     private Boolean failed;
 
+    /**
+     * 延迟解码的数据，为空时直接使用data
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile LazyData<T> lazyData;
+
+    public HttpRestResult(Integer code, String message, T data, Boolean success, Boolean failed) {
+        this.code = code;
+        this.message = message;
+        this.data = data;
+        this.success = success;
+        this.failed = failed;
+    }
+
     /**
      * 创建成功响应
      *
@@ -56,6 +81,103 @@ public class HttpRestResult<T> {
         return result;
     }
 
+    /**
+     * 创建延迟解码的成功响应，第一次获取数据时才调用解码器
+     *
+     * @param decoder 解码器
+     * @param <T>     数据类型
+     * @return HttpRestResult
+     */
+    public static <T> HttpRestResult<T> lazy(Callable<T> decoder) {
+        return lazy(decoder, -1);
+    }
+
+    /**
+     * 创建延迟解码的成功响应，并记录编码后的数据大小
+     *
+     * @param decoder     解码器
+     * @param encodedSize 待解码的响应体字节数，未知时为-1
+     * @param <T>         数据类型
+     * @return HttpRestResult
+     */
+    public static <T> HttpRestResult<T> lazy(Callable<T> decoder, long encodedSize) {
+        HttpRestResult<T> result = success(null);
+        result.lazyData = new LazyData<>(decoder, encodedSize);
+        return result;
+    }
+
+    /**
+     * 获取响应数据，延迟解码的结果在第一次调用时解码
+     *
+     * @return 响应数据
+     * @throws IllegalStateException 解码失败
+     */
+    public T getData() {
+        LazyData<T> lazy = this.lazyData;
+        return lazy != null ? lazy.get() : data;
+    }
+
+    /**
+     * 设置响应数据，会取消尚未进行的延迟解码
+     *
+     * @param data 响应数据
+     */
+    public void setData(T data) {
+        this.data = data;
+        this.lazyData = null;
+    }
+
+    /**
+     * 数据是否已经可用（非延迟解码或已解码）
+     *
+     * @return 是否已解码
+     */
+    public boolean isDecoded() {
+        LazyData<T> lazy = this.lazyData;
+        return lazy == null || lazy.done;
+    }
+
+    /**
+     * 获取延迟解码结果的响应体字节数，用于在不解码的情况下估算大小
+     *
+     * @return 字节数，非延迟解码或未知时为-1
+     */
+    public long getEncodedSize() {
+        LazyData<T> lazy = this.lazyData;
+        return lazy != null ? lazy.encodedSize : -1;
+    }
+
+    /**
+     * 复制结果对象，数据不复制；延迟解码的结果与副本共享解码结果，只解码一次
+     * <p>
+     * ByteBuffer数据复制为共享内容、position独立的视图，多个副本可以各自读取。
+     *
+     * @return 新的结果对象
+     */
+    @SuppressWarnings("unchecked")
+    public HttpRestResult<T> shallowCopy() {
+        T view = data instanceof ByteBuffer ? (T) ((ByteBuffer) data).duplicate() : data;
+        HttpRestResult<T> copy = new HttpRestResult<>(code, message, view, success, failed);
+        copy.lazyData = this.lazyData;
+        return copy;
+    }
+
+    /**
+     * 复制结果对象，尚未解码的延迟结果在副本中独立解码，得到自己的数据对象；已解码的结果等同于 {@link #shallowCopy()}
+     *
+     * @return 新的结果对象
+     */
+    public HttpRestResult<T> fork() {
+        LazyData<T> lazy = this.lazyData;
+        Callable<T> decoder = lazy != null ? lazy.pendingDecoder() : null;
+        if (decoder == null) {
+            return shallowCopy();
+        }
+        HttpRestResult<T> copy = new HttpRestResult<>(code, message, null, success, failed);
+        copy.lazyData = new LazyData<>(decoder, lazy.encodedSize);
+        return copy;
+    }
+
     /**
      * 创建失败响应
      *
@@ -81,4 +203,49 @@ public class HttpRestResult<T> {
     public boolean isSuccess() {
         return success != null && success;
     }
+
+    /**
+     * 延迟解码的数据，线程安全，只解码一次
+     */
+    private static final class LazyData<T> {
+
+        private final long encodedSize;
+        private Callable<T> decoder;
+        private T value;
+        private RuntimeException failure;
+        private volatile boolean done;
+
+        LazyData(Callable<T> decoder, long encodedSize) {
+            this.decoder = decoder;
+            this.encodedSize = encodedSize;
+        }
+
+        /**
+         * 还未解码时返回解码器，已解码时返回null
+         */
+        synchronized Callable<T> pendingDecoder() {
+            return done ? null : decoder;
+        }
+
+        T get() {
+            if (!done) {
+                synchronized (this) {
+                    if (!done) {
+                        try {
+                            value = decoder.call();
+                        } catch (Exception e) {
+                            failure = new IllegalStateException("解析响应数据失败: " + e.getMessage(), e);
+                        }
+                        // 解码后释放响应体
+                        decoder = null;
+                        done = true;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package com.hyfly.template.httpclient.request;
 
-import com.alibaba.fastjson2.JSONObject;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
+import com.hyfly.template.httpclient.compress.ContentCoding;
+import com.hyfly.template.httpclient.compress.ContentCompression;
 import com.hyfly.template.httpclient.enums.BaseHttpMethod;
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorFactory;
 import com.hyfly.template.httpclient.model.Header;
 import com.hyfly.template.httpclient.model.RequestHttpEntity;
 import com.hyfly.template.httpclient.response.ApacheHttpClientResponse;
@@ -40,25 +43,69 @@ public class ApacheHttpClientRequest implements HttpClientRequest {
 
     private final CloseableHttpClient client;
     private final RequestConfig defaultConfig;
+    private final JsonProcessor jsonProcessor;
+    private volatile ContentCompression compression = new ContentCompression();
 
     public ApacheHttpClientRequest(CloseableHttpClient client, RequestConfig defaultConfig) {
+        this(client, defaultConfig, null);
+    }
+
+    /**
+     * @param client        HttpClient
+     * @param defaultConfig 默认请求配置
+     * @param jsonProcessor 请求体序列化使用的JSON处理器，为空时使用默认处理器
+     */
+    public ApacheHttpClientRequest(CloseableHttpClient client, RequestConfig defaultConfig,
+                                   JsonProcessor jsonProcessor) {
         this.client = client;
         this.defaultConfig = defaultConfig;
+        this.jsonProcessor = jsonProcessor;
+    }
+
+    /**
+     * 设置内容压缩配置，默认协商并解码压缩的响应，不压缩请求体
+     * <p>
+     * 由这里协商时，HttpClient自带的压缩处理应关闭（{@code disableContentCompression()}），
+     * 否则gzip和deflate会先被HttpClient解码，不计入统计。
+     *
+     * @param compression 内容压缩配置
+     */
+    public void setContentCompression(ContentCompression compression) {
+        this.compression = compression;
+    }
+
+    public ContentCompression getContentCompression() {
+        return compression;
     }
 
     @Override
     public HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity)
             throws Exception {
-        HttpRequestBase request = buildRequest(uri, httpMethod, requestHttpEntity);
+        return execute(uri, httpMethod, requestHttpEntity, null);
+    }
+
+    @Override
+    public HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity,
+                                      RequestCancellation cancellation) throws Exception {
+        ContentCompression compression = this.compression;
+        boolean negotiated = compression.negotiates(requestHttpEntity.getHeader());
+        HttpRequestBase request = buildRequest(uri, httpMethod, requestHttpEntity, compression);
+        if (negotiated) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentCoding.acceptEncoding());
+        }
+        if (cancellation != null) {
+            cancellation.bind(request::abort);
+        }
         CloseableHttpResponse closeableHttpResponse = client.execute(request);
-        return new ApacheHttpClientResponse(closeableHttpResponse);
+        HttpClientResponse response = new ApacheHttpClientResponse(closeableHttpResponse);
+        return negotiated ? compression.decode(uri, response) : response;
     }
 
     /**
      * 构建HTTP请求
      */
-    private HttpRequestBase buildRequest(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity)
-            throws Exception {
+    private HttpRequestBase buildRequest(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity,
+                                         ContentCompression compression) throws Exception {
         Object body = requestHttpEntity.getBody();
         BaseHttpMethod method = BaseHttpMethod.of(httpMethod);
         Header headers = requestHttpEntity.getHeader();
@@ -69,15 +116,26 @@ public class ApacheHttpClientRequest implements HttpClientRequest {
         // 根据不同的Content-Type处理请求体
         String contentType = headers.getValue(HttpHeaders.CONTENT_TYPE);
 
-        if (MediaType.FORM_DATA.toString().equals(contentType)) {
+        if (body instanceof UploadBody) {
+            handleUpload(requestBase, (UploadBody) body);
+            compressEntity(requestBase, headers, compression);
+        } else if (MediaType.FORM_DATA.toString().equals(contentType)) {
             handleFormData(requestBase, requestHttpEntity);
         } else if (ContentType.MULTIPART_FORM_DATA.getMimeType().equals(contentType)) {
             handleMultipartFormData(requestBase, requestHttpEntity);
         } else {
             handleJsonData(requestBase, body, headers);
+            compressEntity(requestBase, headers, compression);
         }
 
-        requestBase.setConfig(defaultConfig);
+        if (body instanceof UploadBody && ((UploadBody) body).isExpectContinue()) {
+            // 先发送请求头，收到100 Continue后才传输请求体，服务端拒绝时请求体一个字节都不发送
+            RequestConfig.Builder config = defaultConfig != null
+                    ? RequestConfig.copy(defaultConfig) : RequestConfig.custom();
+            requestBase.setConfig(config.setExpectContinueEnabled(true).build());
+        } else {
+            requestBase.setConfig(defaultConfig);
+        }
         return requestBase;
     }
 
@@ -145,6 +203,31 @@ public class ApacheHttpClientRequest implements HttpClientRequest {
         }
     }
 
+    /**
+     * 处理流式上传数据
+     */
+    private void handleUpload(HttpRequestBase requestBase, UploadBody body) {
+        if (requestBase instanceof HttpEntityEnclosingRequest) {
+            ((HttpEntityEnclosingRequest) requestBase).setEntity(new UploadHttpEntity(body));
+        }
+    }
+
+    /**
+     * 按配置压缩JSON和流式上传的请求体，表单请求体通常很小，不压缩；调用方自己设置了Content-Encoding时保持原样
+     */
+    private void compressEntity(HttpRequestBase requestBase, Header headers, ContentCompression compression) {
+        if (!(requestBase instanceof HttpEntityEnclosingRequest)
+                || headers != null && headers.getValueIgnoreCase(HttpHeaders.CONTENT_ENCODING) != null) {
+            return;
+        }
+        HttpEntityEnclosingRequest request = (HttpEntityEnclosingRequest) requestBase;
+        HttpEntity entity = request.getEntity();
+        if (entity != null && entity.getContentEncoding() == null
+                && compression.compresses(entity.getContentLength())) {
+            request.setEntity(new CompressedHttpEntity(entity, compression));
+        }
+    }
+
     /**
      * 处理JSON数据
      */
@@ -157,15 +240,26 @@ public class ApacheHttpClientRequest implements HttpClientRequest {
             HttpEntity entity;
             if (body instanceof byte[]) {
                 entity = new ByteArrayEntity((byte[]) body, contentType);
+            } else if (body instanceof String) {
+                entity = new StringEntity((String) body, contentType);
+            } else if (body instanceof JsonStreamBody) {
+                entity = new JsonStreamHttpEntity((JsonStreamBody) body, getJsonProcessor());
+            } else if (getJsonProcessor().supportsStreamingWrite()) {
+                entity = new JsonHttpEntity(body, getJsonProcessor());
             } else {
-                String jsonString = body instanceof String ?
-                        (String) body : JSONObject.toJSONString(body);
-                entity = new StringEntity(jsonString, contentType);
+                entity = new ByteArrayEntity(getJsonProcessor().toJsonBytes(body), contentType);
             }
             request.setEntity(entity);
         }
     }
 
+    /**
+     * 获取请求体序列化使用的JSON处理器
+     */
+    private JsonProcessor getJsonProcessor() {
+        return jsonProcessor != null ? jsonProcessor : JsonProcessorFactory.getDefaultProcessor();
+    }
+
     /**
      * 获取表单数据
      */
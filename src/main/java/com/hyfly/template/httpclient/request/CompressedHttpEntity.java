@@ -0,0 +1,52 @@
+package com.hyfly.template.httpclient.request;
+
+import com.google.common.net.HttpHeaders;
+import com.hyfly.template.httpclient.compress.ContentCompression;
+import com.hyfly.template.httpclient.compress.GzipEncodingOutputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * gzip压缩的请求实体（Apache HttpClient） 发送时边压缩边写入，压缩后长度未知，使用分块传输
+ * <p>
+ * Content-Encoding由实体提供，{@link org.apache.http.protocol.RequestContent} 会把它加到请求头。
+ */
+public class CompressedHttpEntity extends HttpEntityWrapper {
+
+    private static final Header GZIP = new BasicHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+    private final ContentCompression compression;
+
+    public CompressedHttpEntity(HttpEntity entity, ContentCompression compression) {
+        super(entity);
+        this.compression = compression;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return GZIP;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream output) throws IOException {
+        // 压缩流关闭时只写完gzip尾部，不关闭连接的输出流
+        try (GzipEncodingOutputStream gzip = compression.compress(output)) {
+            wrappedEntity.writeTo(gzip);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hyfly.template.httpclient.request;
+
+import com.hyfly.template.httpclient.compress.ContentCompression;
+import com.hyfly.template.httpclient.compress.GzipEncodingOutputStream;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+import java.io.IOException;
+
+/**
+ * gzip压缩的请求体（OkHttp） 发送时边压缩边写入，压缩后长度未知，使用分块传输
+ * <p>
+ * 需要同时设置 {@code Content-Encoding: gzip} 请求头。
+ */
+public class CompressedRequestBody extends RequestBody {
+
+    private final RequestBody body;
+    private final ContentCompression compression;
+
+    public CompressedRequestBody(RequestBody body, ContentCompression compression) {
+        this.body = body;
+        this.compression = compression;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return body.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return body.isOneShot();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // 不关闭sink，否则会关闭底层连接；压缩流关闭时只写完gzip尾部
+        try (GzipEncodingOutputStream gzip = compression.compress(sink.outputStream())) {
+            BufferedSink compressed = Okio.buffer(Okio.sink(gzip));
+            body.writeTo(compressed);
+            compressed.emit();
+        }
+    }
+}
@@ -22,4 +22,19 @@ public interface HttpClientRequest extends Closeable {
      */
     HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity)
             throws Exception;
+
+    /**
+     * 执行可取消的HTTP请求
+     *
+     * @param uri               请求URI
+     * @param httpMethod        HTTP方法
+     * @param requestHttpEntity 请求实体
+     * @param cancellation      取消句柄
+     * @return HTTP响应
+     * @throws Exception 异常
+     */
+    default HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity,
+                                       RequestCancellation cancellation) throws Exception {
+        return execute(uri, httpMethod, requestHttpEntity);
+    }
 }
@@ -0,0 +1,61 @@
+package com.hyfly.template.httpclient.request;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 流式JSON请求实体（Apache HttpClient） 发送时由JsonProcessor直接把UTF-8字节写入连接
+ * <p>
+ * 序列化前无法得知长度，使用分块传输，只用于 {@link JsonProcessor#supportsStreamingWrite()} 的处理器，
+ * 其余处理器先序列化为字节数组以固定长度发送。实体可重复发送，每次发送重新序列化。
+ */
+public class JsonHttpEntity extends AbstractHttpEntity {
+
+    private final Object body;
+    private final JsonProcessor jsonProcessor;
+
+    public JsonHttpEntity(Object body, JsonProcessor jsonProcessor) {
+        this.body = body;
+        this.jsonProcessor = jsonProcessor;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * 序列化到内存后返回，仅供需要读取实体内容的场景使用，发送请求时不会调用
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonProcessor.writeTo(body, output);
+        return new ByteArrayInputStream(output.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream output) throws IOException {
+        jsonProcessor.writeTo(body, output);
+        output.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.hyfly.template.httpclient.request;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * 流式JSON请求体（OkHttp） 发送时由JsonProcessor直接把UTF-8字节写入连接
+ * <p>
+ * 序列化前无法得知长度，使用分块传输，只用于 {@link JsonProcessor#supportsStreamingWrite()} 的处理器，
+ * 其余处理器先序列化为字节数组以固定长度发送。重试时重新序列化。
+ */
+public class JsonRequestBody extends RequestBody {
+
+    private final Object body;
+    private final JsonProcessor jsonProcessor;
+    private final MediaType mediaType;
+
+    public JsonRequestBody(Object body, JsonProcessor jsonProcessor, MediaType mediaType) {
+        this.body = body;
+        this.jsonProcessor = jsonProcessor;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // 不关闭outputStream，否则会关闭底层连接的sink
+        jsonProcessor.writeTo(body, sink.outputStream());
+    }
+}
@@ -0,0 +1,166 @@
+package com.hyfly.template.httpclient.request;
+
+import com.google.common.net.MediaType;
+import com.hyfly.template.httpclient.json.JsonProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 流式记录请求体 发送时逐条读取迭代器并序列化，记录不需要一次性放进内存
+ * <p>
+ * 支持NDJSON（每行一条记录）和JSON数组两种格式，使用分块传输。记录先写入复用的暂存缓冲区，
+ * 攒够一批后再写入连接，连接写不动时写入阻塞，读取记录随之暂停。
+ * <p>
+ * 迭代器只能读取一次，因此请求体只能发送一次，不参与重试。
+ */
+public class JsonStreamBody {
+
+    /**
+     * 记录的编码格式
+     */
+    public enum Format {
+        /**
+         * 每行一条JSON记录
+         */
+        NDJSON("application/x-ndjson"),
+        /**
+         * 顶层JSON数组
+         */
+        JSON_ARRAY(MediaType.JSON_UTF_8.toString());
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private static final int BATCH_SIZE = 16 * 1024;
+
+    private final Iterator<?> records;
+    private final Format format;
+    private final AutoCloseable resource;
+    private boolean consumed;
+
+    private JsonStreamBody(Iterator<?> records, Format format, AutoCloseable resource) {
+        this.records = records;
+        this.format = format;
+        this.resource = resource;
+    }
+
+    /**
+     * 以NDJSON格式发送迭代器中的记录
+     *
+     * @param records 记录迭代器
+     * @return JsonStreamBody
+     */
+    public static JsonStreamBody ndjson(Iterator<?> records) {
+        return new JsonStreamBody(records, Format.NDJSON, null);
+    }
+
+    /**
+     * 以NDJSON格式发送流中的记录，发送结束后关闭流
+     *
+     * @param records 记录流
+     * @return JsonStreamBody
+     */
+    public static JsonStreamBody ndjson(Stream<?> records) {
+        return new JsonStreamBody(records.iterator(), Format.NDJSON, records);
+    }
+
+    /**
+     * 以JSON数组格式发送迭代器中的记录
+     *
+     * @param records 记录迭代器
+     * @return JsonStreamBody
+     */
+    public static JsonStreamBody array(Iterator<?> records) {
+        return new JsonStreamBody(records, Format.JSON_ARRAY, null);
+    }
+
+    /**
+     * 以JSON数组格式发送流中的记录，发送结束后关闭流
+     *
+     * @param records 记录流
+     * @return JsonStreamBody
+     */
+    public static JsonStreamBody array(Stream<?> records) {
+        return new JsonStreamBody(records.iterator(), Format.JSON_ARRAY, records);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * 获取请求体的媒体类型
+     *
+     * @return 媒体类型
+     */
+    public String getMediaType() {
+        return format.getMediaType();
+    }
+
+    /**
+     * 逐条序列化记录并写入输出流，不关闭输出流
+     *
+     * @param output        输出流
+     * @param jsonProcessor 记录序列化使用的处理器
+     * @throws IOException 写入失败
+     */
+    public synchronized void writeTo(OutputStream output, JsonProcessor jsonProcessor) throws IOException {
+        if (consumed) {
+            throw new IllegalStateException("流式请求体只能发送一次");
+        }
+        consumed = true;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(BATCH_SIZE + 1024);
+        try {
+            if (format == Format.JSON_ARRAY) {
+                batch.write('[');
+            }
+            boolean first = true;
+            while (records.hasNext()) {
+                if (format == Format.JSON_ARRAY && !first) {
+                    batch.write(',');
+                }
+                first = false;
+                jsonProcessor.writeTo(records.next(), batch);
+                if (format == Format.NDJSON) {
+                    batch.write('\n');
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    batch.writeTo(output);
+                    batch.reset();
+                }
+            }
+            if (format == Format.JSON_ARRAY) {
+                batch.write(']');
+            }
+            batch.writeTo(output);
+            output.flush();
+        } finally {
+            closeResource();
+        }
+    }
+
+    private void closeResource() throws IOException {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("关闭记录流失败", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hyfly.template.httpclient.request;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 流式记录请求实体（Apache HttpClient） 发送时逐条序列化 {@link JsonStreamBody} 中的记录
+ * <p>
+ * 使用分块传输，实体不可重复发送。
+ */
+public class JsonStreamHttpEntity extends AbstractHttpEntity {
+
+    private final JsonStreamBody body;
+    private final JsonProcessor jsonProcessor;
+
+    public JsonStreamHttpEntity(JsonStreamBody body, JsonProcessor jsonProcessor) {
+        this.body = body;
+        this.jsonProcessor = jsonProcessor;
+        setContentType(body.getMediaType());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("流式请求实体不支持读取内容");
+    }
+
+    @Override
+    public void writeTo(OutputStream output) throws IOException {
+        body.writeTo(output, jsonProcessor);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+}
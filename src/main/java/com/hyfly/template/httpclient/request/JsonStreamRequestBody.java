@@ -0,0 +1,47 @@
+package com.hyfly.template.httpclient.request;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * 流式记录请求体（OkHttp） 发送时逐条序列化 {@link JsonStreamBody} 中的记录
+ * <p>
+ * 使用分块传输，只能发送一次，OkHttp不会重试。
+ */
+public class JsonStreamRequestBody extends RequestBody {
+
+    private final JsonStreamBody body;
+    private final JsonProcessor jsonProcessor;
+    private final MediaType mediaType;
+
+    public JsonStreamRequestBody(JsonStreamBody body, JsonProcessor jsonProcessor, MediaType mediaType) {
+        this.body = body;
+        this.jsonProcessor = jsonProcessor;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // 不关闭outputStream，否则会关闭底层连接的sink
+        body.writeTo(sink.outputStream(), jsonProcessor);
+    }
+}
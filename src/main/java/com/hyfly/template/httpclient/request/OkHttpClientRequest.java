@@ -1,8 +1,11 @@
 package com.hyfly.template.httpclient.request;
 
-import com.alibaba.fastjson2.JSONObject;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
+import com.hyfly.template.httpclient.compress.ContentCoding;
+import com.hyfly.template.httpclient.compress.ContentCompression;
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorFactory;
 import com.hyfly.template.httpclient.model.Header;
 import com.hyfly.template.httpclient.model.RequestHttpEntity;
 import com.hyfly.template.httpclient.response.HttpClientResponse;
@@ -25,32 +28,70 @@ import java.util.concurrent.TimeUnit;
 public class OkHttpClientRequest implements HttpClientRequest {
 
     private final OkHttpClient client;
+    private final JsonProcessor jsonProcessor;
+    private volatile ContentCompression compression = new ContentCompression();
 
     public OkHttpClientRequest(OkHttpClient client) {
+        this(client, null);
+    }
+
+    /**
+     * @param client        OkHttpClient
+     * @param jsonProcessor 请求体序列化使用的JSON处理器，为空时使用默认处理器
+     */
+    public OkHttpClientRequest(OkHttpClient client, JsonProcessor jsonProcessor) {
         this.client = client;
+        this.jsonProcessor = jsonProcessor;
     }
 
     public OkHttpClientRequest(int connectTimeout, int readTimeout, int writeTimeout) {
-        this.client = new OkHttpClient.Builder()
+        this(new OkHttpClient.Builder()
                 .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
                 .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
                 .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS)
-                .build();
+                .build());
+    }
+
+    /**
+     * 设置内容压缩配置，默认协商并解码压缩的响应，不压缩请求体
+     * <p>
+     * 协商时显式发送 {@code Accept-Encoding}，OkHttp不再自动处理gzip，统一由这里解码；关闭解码时恢复OkHttp自带的gzip处理。
+     *
+     * @param compression 内容压缩配置
+     */
+    public void setContentCompression(ContentCompression compression) {
+        this.compression = compression;
+    }
+
+    public ContentCompression getContentCompression() {
+        return compression;
     }
 
     @Override
     public HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity)
             throws Exception {
-        Request request = buildRequest(uri, httpMethod, requestHttpEntity);
-        Response response = client.newCall(request).execute();
-        return new OkHttpClientResponse(response);
+        return execute(uri, httpMethod, requestHttpEntity, null);
+    }
+
+    @Override
+    public HttpClientResponse execute(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity,
+                                      RequestCancellation cancellation) throws Exception {
+        ContentCompression compression = this.compression;
+        boolean negotiated = compression.negotiates(requestHttpEntity.getHeader());
+        Request request = buildRequest(uri, httpMethod, requestHttpEntity, compression, negotiated);
+        Call call = client.newCall(request);
+        if (cancellation != null) {
+            cancellation.bind(call::cancel);
+        }
+        HttpClientResponse response = new OkHttpClientResponse(call.execute());
+        return negotiated ? compression.decode(uri, response) : response;
     }
 
     /**
      * 构建OkHttp请求
      */
-    private Request buildRequest(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity)
-            throws Exception {
+    private Request buildRequest(URI uri, String httpMethod, RequestHttpEntity requestHttpEntity,
+                                 ContentCompression compression, boolean negotiated) throws Exception {
         Request.Builder requestBuilder = new Request.Builder().url(uri.toString());
 
         // 设置请求头
@@ -63,8 +104,20 @@ public class OkHttpClientRequest implements HttpClientRequest {
             }
         }
 
+        if (negotiated) {
+            requestBuilder.header(HttpHeaders.ACCEPT_ENCODING, ContentCoding.acceptEncoding());
+        }
+
         // 根据HTTP方法和Content-Type构建请求体
-        RequestBody requestBody = buildRequestBody(requestHttpEntity);
+        RequestBody requestBody = buildRequestBody(requestHttpEntity, compression);
+        if (requestBody instanceof CompressedRequestBody) {
+            requestBuilder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        Object body = requestHttpEntity.getBody();
+        if (body instanceof UploadBody && ((UploadBody) body).isExpectContinue()) {
+            // OkHttp看到该请求头时先发送请求头，收到100 Continue后才写请求体，收到最终响应则跳过请求体
+            requestBuilder.header(HttpHeaders.EXPECT, "100-continue");
+        }
 
         switch (httpMethod.toUpperCase()) {
             case "GET":
@@ -96,7 +149,8 @@ public class OkHttpClientRequest implements HttpClientRequest {
     /**
      * 构建请求体
      */
-    private RequestBody buildRequestBody(RequestHttpEntity requestHttpEntity) throws Exception {
+    private RequestBody buildRequestBody(RequestHttpEntity requestHttpEntity, ContentCompression compression)
+            throws Exception {
         Object body = requestHttpEntity.getBody();
         if (body == null) {
             return null;
@@ -105,15 +159,28 @@ public class OkHttpClientRequest implements HttpClientRequest {
         Header headers = requestHttpEntity.getHeader();
         String contentType = headers != null ? headers.getValue(HttpHeaders.CONTENT_TYPE) : null;
 
-        if (MediaType.FORM_DATA.toString().equals(contentType)) {
+        if (body instanceof UploadBody) {
+            return compress(new UploadRequestBody((UploadBody) body), headers, compression);
+        } else if (MediaType.FORM_DATA.toString().equals(contentType)) {
             return buildFormRequestBody(requestHttpEntity);
         } else if (ContentType.MULTIPART_FORM_DATA.getMimeType().equals(contentType)) {
             return buildMultipartRequestBody(requestHttpEntity);
         } else {
-            return buildJsonRequestBody(body, contentType);
+            return compress(buildJsonRequestBody(body, contentType), headers, compression);
         }
     }
 
+    /**
+     * 按配置压缩JSON和流式上传的请求体，调用方自己设置了Content-Encoding时保持原样
+     */
+    private RequestBody compress(RequestBody body, Header headers, ContentCompression compression)
+            throws IOException {
+        if (headers != null && headers.getValueIgnoreCase(HttpHeaders.CONTENT_ENCODING) != null) {
+            return body;
+        }
+        return compression.compresses(body.contentLength()) ? new CompressedRequestBody(body, compression) : body;
+    }
+
     /**
      * 构建表单请求体
      */
@@ -161,21 +228,33 @@ public class OkHttpClientRequest implements HttpClientRequest {
      * 构建JSON请求体
      */
     private RequestBody buildJsonRequestBody(Object body, String contentType) {
-        String jsonString;
-        if (body instanceof String) {
-            jsonString = (String) body;
-        } else if (body instanceof byte[]) {
+        if (body instanceof byte[]) {
             return RequestBody.create((byte[]) body,
                     okhttp3.MediaType.parse("application/json; charset=utf-8"));
-        } else {
-            jsonString = JSONObject.toJSONString(body);
         }
 
         okhttp3.MediaType mediaType = contentType != null ?
                 okhttp3.MediaType.parse(contentType) :
                 okhttp3.MediaType.parse("application/json; charset=utf-8");
 
-        return RequestBody.create(jsonString, mediaType);
+        if (body instanceof String) {
+            return RequestBody.create((String) body, mediaType);
+        }
+        if (body instanceof JsonStreamBody) {
+            return new JsonStreamRequestBody((JsonStreamBody) body, getJsonProcessor(), mediaType);
+        }
+        JsonProcessor processor = getJsonProcessor();
+        if (processor.supportsStreamingWrite()) {
+            return new JsonRequestBody(body, processor, mediaType);
+        }
+        return RequestBody.create(processor.toJsonBytes(body), mediaType);
+    }
+
+    /**
+     * 获取请求体序列化使用的JSON处理器
+     */
+    private JsonProcessor getJsonProcessor() {
+        return jsonProcessor != null ? jsonProcessor : JsonProcessorFactory.getDefaultProcessor();
     }
 
     /**
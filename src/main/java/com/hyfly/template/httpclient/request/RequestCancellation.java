@@ -0,0 +1,45 @@
+package com.hyfly.template.httpclient.request;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 请求取消句柄 由调用方持有，底层客户端在发起请求时绑定中止动作
+ */
+public class RequestCancellation {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private volatile Runnable abortAction;
+
+    /**
+     * 绑定中止动作，若已取消则立即执行
+     *
+     * @param action 中止动作
+     */
+    public void bind(Runnable action) {
+        this.abortAction = action;
+        if (cancelled.get()) {
+            action.run();
+        }
+    }
+
+    /**
+     * 取消请求，中止底层连接
+     */
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            Runnable action = abortAction;
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    /**
+     * 判断是否已取消
+     *
+     * @return 是否已取消
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+}
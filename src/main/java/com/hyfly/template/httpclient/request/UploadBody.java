@@ -0,0 +1,269 @@
+package com.hyfly.template.httpclient.request;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
+import com.hyfly.template.httpclient.buffer.ByteBufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式上传请求体 发送时从文件、输入流或通道分块读取，内存占用与请求体大小无关
+ * <p>
+ * 长度已知时使用Content-Length，未知时（长度为-1）使用分块传输。文件请求体写入通道时使用
+ * {@link FileChannel#transferTo}，由JDK选择最直接的传输方式；写入输出流时使用池化的固定大小缓冲区逐块复制。
+ * <p>
+ * 默认发送 {@code Expect: 100-continue}：服务端拒绝请求（如401、413）时不会传输请求体。
+ * 文件请求体可以重复发送，输入流和通道请求体只能发送一次，发送结束后关闭。
+ */
+public class UploadBody {
+
+    private static final String OCTET_STREAM = MediaType.OCTET_STREAM.toString();
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long offset;
+    private final ReadableByteChannel channel;
+    private final long contentLength;
+    private final String mediaType;
+    private boolean expectContinue = true;
+    private boolean consumed;
+
+    private UploadBody(Path path, long offset, ReadableByteChannel channel, long contentLength, String mediaType) {
+        this.path = path;
+        this.offset = offset;
+        this.channel = channel;
+        this.contentLength = contentLength;
+        this.mediaType = mediaType != null ? mediaType : OCTET_STREAM;
+    }
+
+    /**
+     * 上传文件，媒体类型为 application/octet-stream
+     *
+     * @param path 文件
+     * @return UploadBody
+     * @throws IOException 读取文件大小失败
+     */
+    public static UploadBody of(Path path) throws IOException {
+        return of(path, OCTET_STREAM);
+    }
+
+    /**
+     * 上传文件，长度取创建时的文件大小，发送时文件长度变化会导致请求失败
+     *
+     * @param path      文件
+     * @param mediaType 媒体类型
+     * @return UploadBody
+     * @throws IOException 读取文件大小失败
+     */
+    public static UploadBody of(Path path, String mediaType) throws IOException {
+        return new UploadBody(path, 0, null, Files.size(path), mediaType);
+    }
+
+    /**
+     * 上传文件中的一段，用定位读取，不改变其他读取者的位置，多个分段可以同时发送
+     *
+     * @param path      文件
+     * @param offset    起始位置
+     * @param length    长度
+     * @param mediaType 媒体类型
+     * @return UploadBody
+     */
+    public static UploadBody of(Path path, long offset, long length, String mediaType) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("文件范围不合法: " + offset + ", " + length);
+        }
+        return new UploadBody(path, offset, null, length, mediaType);
+    }
+
+    /**
+     * 上传输入流中的数据，长度未知，使用分块传输
+     *
+     * @param input 输入流
+     * @return UploadBody
+     */
+    public static UploadBody of(InputStream input) {
+        return of(input, -1, OCTET_STREAM);
+    }
+
+    /**
+     * 上传输入流中的数据
+     *
+     * @param input         输入流，发送结束后关闭
+     * @param contentLength 长度，-1表示未知
+     * @param mediaType     媒体类型
+     * @return UploadBody
+     */
+    public static UploadBody of(InputStream input, long contentLength, String mediaType) {
+        return of(Channels.newChannel(input), contentLength, mediaType);
+    }
+
+    /**
+     * 上传通道中的数据
+     *
+     * @param channel       通道，发送结束后关闭
+     * @param contentLength 长度，-1表示未知
+     * @param mediaType     媒体类型
+     * @return UploadBody
+     */
+    public static UploadBody of(ReadableByteChannel channel, long contentLength, String mediaType) {
+        if (contentLength < -1) {
+            throw new IllegalArgumentException("请求体长度不合法: " + contentLength);
+        }
+        return new UploadBody(null, 0, channel, contentLength, mediaType);
+    }
+
+    /**
+     * 设置是否发送 {@code Expect: 100-continue}，默认发送
+     *
+     * @param expectContinue 是否等待服务端确认后再发送请求体
+     * @return UploadBody
+     */
+    public UploadBody expectContinue(boolean expectContinue) {
+        this.expectContinue = expectContinue;
+        return this;
+    }
+
+    public boolean isExpectContinue() {
+        return expectContinue && contentLength != 0;
+    }
+
+    /**
+     * 获取请求体长度
+     *
+     * @return 长度，-1表示未知
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 是否可以重复发送，只有文件请求体可以
+     *
+     * @return 是否可重复
+     */
+    public boolean isRepeatable() {
+        return path != null;
+    }
+
+    /**
+     * 打开请求体的输入流，用于需要读取内容的场景；输入流和通道请求体只能打开一次
+     *
+     * @return 输入流
+     * @throws IOException 打开文件失败
+     */
+    public InputStream openStream() throws IOException {
+        if (path == null) {
+            return Channels.newInputStream(take());
+        }
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ).position(offset);
+        return ByteStreams.limit(Channels.newInputStream(file), contentLength);
+    }
+
+    /**
+     * 把请求体写入通道，不关闭通道
+     *
+     * @param target 目标通道
+     * @throws IOException 读取或写入失败、长度与声明不一致
+     */
+    public void writeTo(WritableByteChannel target) throws IOException {
+        if (path != null) {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                long position = 0;
+                while (position < contentLength) {
+                    long n = file.transferTo(offset + position, contentLength - position, target);
+                    if (n <= 0 && offset + position >= file.size()) {
+                        break;
+                    }
+                    position += n;
+                }
+                checkLength(position);
+            }
+            return;
+        }
+        ByteBufferPool pool = ByteBufferPool.shared();
+        ByteBuffer buffer = pool.acquire(CHUNK_SIZE);
+        try (ReadableByteChannel source = take()) {
+            long written = 0;
+            while (limit(buffer, written) && source.read(buffer) >= 0) {
+                buffer.flip();
+                written += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+            checkLength(written);
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 把请求体写入输出流，不关闭输出流
+     *
+     * @param output 输出流
+     * @throws IOException 读取或写入失败、长度与声明不一致
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        ByteBufferPool pool = ByteBufferPool.shared();
+        ByteBuffer buffer = pool.acquire(CHUNK_SIZE);
+        try (ReadableByteChannel source = path != null
+                ? FileChannel.open(path, StandardOpenOption.READ).position(offset) : take()) {
+            long written = 0;
+            while (limit(buffer, written) && source.read(buffer) >= 0) {
+                output.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+                written += buffer.position();
+                buffer.clear();
+            }
+            checkLength(written);
+            output.flush();
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 长度已知时不读取超出声明长度的数据
+     *
+     * @return 是否还需要继续读取
+     */
+    private boolean limit(ByteBuffer buffer, long written) {
+        if (contentLength < 0) {
+            return true;
+        }
+        long remaining = contentLength - written;
+        if (remaining <= 0) {
+            return false;
+        }
+        buffer.limit((int) Math.min(buffer.capacity(), remaining));
+        return true;
+    }
+
+    private void checkLength(long written) throws IOException {
+        if (contentLength >= 0 && written != contentLength) {
+            throw new IOException("请求体不完整，声明 " + contentLength + " 字节，实际 " + written);
+        }
+    }
+
+    private synchronized ReadableByteChannel take() {
+        if (consumed) {
+            throw new IllegalStateException("流式请求体只能发送一次");
+        }
+        consumed = true;
+        return channel;
+    }
+}
@@ -0,0 +1,48 @@
+package com.hyfly.template.httpclient.request;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 流式上传请求实体（Apache HttpClient） 发送时从 {@link UploadBody} 分块读取
+ * <p>
+ * 长度未知时使用分块传输；只有文件请求体可以重复发送。
+ */
+public class UploadHttpEntity extends AbstractHttpEntity {
+
+    private final UploadBody body;
+
+    public UploadHttpEntity(UploadBody body) {
+        this.body = body;
+        setContentType(body.getMediaType());
+        setChunked(body.getContentLength() < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return body.isRepeatable();
+    }
+
+    @Override
+    public long getContentLength() {
+        return body.getContentLength();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return body.openStream();
+    }
+
+    @Override
+    public void writeTo(OutputStream output) throws IOException {
+        body.writeTo(output);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !body.isRepeatable();
+    }
+}
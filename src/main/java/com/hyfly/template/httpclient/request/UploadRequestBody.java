@@ -0,0 +1,45 @@
+package com.hyfly.template.httpclient.request;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * 流式上传请求体（OkHttp） 发送时从 {@link UploadBody} 分块读取
+ * <p>
+ * 文件请求体通过 {@link java.nio.channels.FileChannel#transferTo} 直接写入连接的sink；
+ * 输入流和通道请求体只能发送一次，OkHttp不会重试。
+ */
+public class UploadRequestBody extends RequestBody {
+
+    private final UploadBody body;
+    private final MediaType mediaType;
+
+    public UploadRequestBody(UploadBody body) {
+        this.body = body;
+        this.mediaType = MediaType.parse(body.getMediaType());
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return body.getContentLength();
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return !body.isRepeatable();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // BufferedSink本身就是WritableByteChannel，不关闭sink，否则会关闭底层连接
+        body.writeTo(sink);
+    }
+}
@@ -5,6 +5,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.utils.HttpClientUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.LinkedHashMap;
@@ -50,10 +51,26 @@ public class ApacheHttpClientResponse implements HttpClientResponse {
         return contentTypeHeader != null ? contentTypeHeader.getValue() : null;
     }
 
+    @Override
+    public long getContentLength() {
+        // 自动解压的响应实体长度为-1
+        return response.getEntity() != null ? response.getEntity().getContentLength() : -1;
+    }
+
     @Override
     public void close() throws IOException {
         if (this.response != null) {
             HttpClientUtils.closeQuietly(this.response);
         }
     }
+
+    @Override
+    public void abort() throws IOException {
+        // 直接关闭CloseableHttpResponse会断开连接而不读完响应体
+        if (this.response instanceof Closeable) {
+            ((Closeable) this.response).close();
+        } else {
+            close();
+        }
+    }
 }
@@ -0,0 +1,143 @@
+package com.hyfly.template.httpclient.response;
+
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.util.ByteBufferInputStream;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已读入内存的HTTP响应 响应体可重复读取，关闭时无需释放连接
+ * <p>
+ * 响应体可以是堆内数组，也可以是堆外或内存映射的缓冲区。超过溢出阈值的响应体保留临时文件的映射视图，
+ * 不复制到堆内；关闭时删除临时文件，已取得的视图在被回收前仍然有效。
+ */
+@Getter
+public class BufferedHttpClientResponse implements HttpClientResponse {
+
+    private static final ByteBuffer EMPTY_BODY = ByteBuffer.allocate(0);
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final ByteBuffer bodyBuffer;
+    @Getter(AccessLevel.NONE)
+    private final PooledBuffer spilled;
+
+    public BufferedHttpClientResponse(int statusCode, Map<String, String> headers, byte[] bodyBytes) {
+        this(statusCode, headers, bodyBytes != null ? ByteBuffer.wrap(bodyBytes) : null);
+    }
+
+    public BufferedHttpClientResponse(int statusCode, Map<String, String> headers, ByteBuffer bodyBuffer) {
+        this(statusCode, headers, bodyBuffer, null);
+    }
+
+    private BufferedHttpClientResponse(int statusCode, Map<String, String> headers, ByteBuffer bodyBuffer,
+                                       PooledBuffer spilled) {
+        this.statusCode = statusCode;
+        this.headers = headers != null ? headers : Collections.emptyMap();
+        this.bodyBuffer = (bodyBuffer != null ? bodyBuffer : EMPTY_BODY).asReadOnlyBuffer();
+        this.spilled = spilled;
+    }
+
+    /**
+     * 读取完整响应并缓存到内存，不会关闭原响应
+     *
+     * @param response 原始响应
+     * @return 缓存后的响应
+     * @throws IOException IO异常
+     */
+    public static BufferedHttpClientResponse of(HttpClientResponse response) throws IOException {
+        return of(response, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取完整响应并缓存到内存，超过最大长度时立即停止读取，不会关闭原响应
+     * <p>
+     * 溢出到临时文件的响应体保留映射视图，返回的响应需要关闭以删除临时文件。
+     *
+     * @param response    原始响应
+     * @param maxBodySize 允许的最大字节数
+     * @return 缓存后的响应
+     * @throws ResponseTooLargeException 响应体超过最大长度，调用方应断开连接
+     * @throws IOException               IO异常
+     */
+    public static BufferedHttpClientResponse of(HttpClientResponse response, long maxBodySize) throws IOException {
+        return of(response, ResponseBodyReader.shared(), maxBodySize);
+    }
+
+    /**
+     * 使用指定的读取器读取完整响应并缓存到内存，超过最大长度时立即停止读取，不会关闭原响应
+     * <p>
+     * 溢出到临时文件的响应体保留映射视图，返回的响应需要关闭以删除临时文件。
+     *
+     * @param response    原始响应
+     * @param reader      响应体读取器，决定缓冲区池和溢出阈值
+     * @param maxBodySize 允许的最大字节数
+     * @return 缓存后的响应
+     * @throws ResponseTooLargeException 响应体超过最大长度，调用方应断开连接
+     * @throws IOException               IO异常
+     */
+    public static BufferedHttpClientResponse of(HttpClientResponse response, ResponseBodyReader reader,
+                                                long maxBodySize) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>(response.getHeaders());
+        PooledBuffer body = reader.read(response, null, maxBodySize);
+        if (body == null) {
+            return new BufferedHttpClientResponse(response.getStatusCode(), headers, (ByteBuffer) null);
+        }
+        if (body.isSpilled()) {
+            return new BufferedHttpClientResponse(response.getStatusCode(), headers, body.readOnlyBuffer(), body);
+        }
+        try {
+            return new BufferedHttpClientResponse(response.getStatusCode(), headers, body.toByteArray());
+        } finally {
+            body.close();
+        }
+    }
+
+    /**
+     * 响应体是否为溢出到临时文件的映射视图
+     *
+     * @return 是否溢出
+     */
+    public boolean isSpilled() {
+        return spilled != null;
+    }
+
+    /**
+     * 获取响应体缓冲区的只读视图
+     *
+     * @return 响应体缓冲区
+     */
+    public ByteBuffer getBodyBuffer() {
+        return bodyBuffer.duplicate();
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteBufferInputStream(bodyBuffer);
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader("Content-Type");
+    }
+
+    @Override
+    public long getContentLength() {
+        return bodyBuffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        // 连接已释放，只需删除溢出的临时文件
+        if (spilled != null) {
+            spilled.close();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.hyfly.template.httpclient.response;
 
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Map;
 
 /**
@@ -16,6 +20,25 @@ public interface HttpClientResponse {
      */
     Map<String, String> getHeaders();
 
+    /**
+     * 忽略大小写获取响应头
+     *
+     * @param name 响应头名称
+     * @return 响应头值，不存在时返回null
+     */
+    default String getHeader(String name) {
+        Map<String, String> headers = getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * 获取响应体
      *
@@ -24,6 +47,31 @@ public interface HttpClientResponse {
      */
     InputStream getBody() throws IOException;
 
+    /**
+     * 获取响应体通道，用于不经过堆内聚合的传输，如写入文件
+     *
+     * @return 响应体通道，没有响应体时返回null
+     * @throws IOException IO异常
+     */
+    default ReadableByteChannel getBodyChannel() throws IOException {
+        InputStream body = getBody();
+        return body != null ? Channels.newChannel(body) : null;
+    }
+
+    /**
+     * 把完整响应体读入堆外缓冲区，返回引用计数的缓冲区句柄，不会关闭响应
+     * <p>
+     * 响应体不经过GC管理的堆，适合短暂持有的大响应；句柄用完必须 {@link PooledBuffer#close()}
+     * 或按引用次数 {@link PooledBuffer#release()}，否则缓冲区不会归还，采样到的泄漏会输出分配位置。
+     * 响应体只能读取一次。
+     *
+     * @return 响应体缓冲区，没有响应体时返回null
+     * @throws IOException IO异常
+     */
+    default PooledBuffer readBodyBuffer() throws IOException {
+        return ResponseBodyReader.direct().read(this, null);
+    }
+
     /**
      * 获取状态码
      *
@@ -38,10 +86,38 @@ public interface HttpClientResponse {
      */
     String getContentType();
 
+    /**
+     * 获取响应体长度
+     *
+     * @return Content-Length，未知（分块传输、被解压等）时返回-1
+     */
+    default long getContentLength() {
+        String contentLength = getHeader("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * 关闭响应
      *
      * @throws IOException IO异常
      */
     void close() throws IOException;
+
+    /**
+     * 放弃响应：不再读取剩余的响应体，直接断开连接
+     * <p>
+     * 响应体很大而只读取了开头时，比 {@link #close()} 读完剩余数据再归还连接更快；默认等同于关闭。
+     *
+     * @throws IOException IO异常
+     */
+    default void abort() throws IOException {
+        close();
+    }
 }
@@ -6,6 +6,7 @@ import okhttp3.ResponseBody;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,6 +39,13 @@ public class OkHttpClientResponse implements HttpClientResponse {
         return body != null ? body.byteStream() : null;
     }
 
+    @Override
+    public ReadableByteChannel getBodyChannel() {
+        // Okio的BufferedSource本身就是通道，读取时直接从它的分段缓冲区复制到目标缓冲区
+        ResponseBody body = response.body();
+        return body != null ? body.source() : null;
+    }
+
     @Override
     public int getStatusCode() {
         return response.code();
@@ -48,6 +56,12 @@ public class OkHttpClientResponse implements HttpClientResponse {
         return response.header("Content-Type");
     }
 
+    @Override
+    public long getContentLength() {
+        ResponseBody body = response.body();
+        return body != null ? body.contentLength() : -1;
+    }
+
     @Override
     public void close() throws IOException {
         if (response != null) {
@@ -0,0 +1,333 @@
+package com.hyfly.template.httpclient.response;
+
+import com.hyfly.template.httpclient.buffer.ByteBufferPool;
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.util.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 响应体读取器 把完整响应体读入从 {@link ByteBufferPool} 申请的缓冲区
+ * <p>
+ * 有Content-Length时按长度一次申请到位；没有时（分块传输、压缩响应）按端点记住的典型大小申请，
+ * 典型大小取该端点近期响应的最大值，每次观测衰减1/8，响应变小后逐渐收缩。容量不足时换用大一级的缓冲区。
+ * <p>
+ * 响应体超过溢出阈值时（Content-Length超过阈值，或读取中缓冲区需要扩到阈值以上）转存到临时文件，
+ * 返回该文件的只读内存映射，堆内不保留完整响应体；关闭返回的 {@link PooledBuffer} 时删除临时文件。
+ * Jackson系的处理器从映射流式解析；fastjson2读取输入流时会先把内容完整复制到堆内，超大响应应配合Jackson使用。
+ * 溢出的响应不参与典型大小的学习。读取器线程安全，可以被所有请求共享。
+ */
+public class ResponseBodyReader {
+
+    private static final int DEFAULT_INITIAL_SIZE = 8 * 1024;
+    private static final int MAX_ENDPOINTS = 4096;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int SCRATCH_SIZE = 8 * 1024;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+    private static final int DEFAULT_SPILL_THRESHOLD = 32 * 1024 * 1024;
+    private static final String SPILL_PREFIX = "response-";
+    private static final String SPILL_SUFFIX = ".spill";
+    private static final long SPILL_CHUNK = 4 * 1024 * 1024;
+    private static final ResponseBodyReader SHARED = new ResponseBodyReader(ByteBufferPool.shared());
+    private static final ResponseBodyReader DIRECT = new ResponseBodyReader(ByteBufferPool.sharedDirect());
+
+    private final ByteBufferPool pool;
+    private final int spillThreshold;
+    private final Path spillDirectory;
+    private final ConcurrentMap<String, Integer> typicalSizes = new ConcurrentHashMap<>();
+
+    /**
+     * 使用默认的32MB溢出阈值，临时文件放在系统临时目录
+     *
+     * @param pool 缓冲区池
+     */
+    public ResponseBodyReader(ByteBufferPool pool) {
+        this(pool, DEFAULT_SPILL_THRESHOLD, null);
+    }
+
+    /**
+     * @param pool           缓冲区池
+     * @param spillThreshold 内存中保留的最大响应体字节数，超过时溢出到临时文件
+     * @param spillDirectory 临时文件目录，为空时使用系统临时目录
+     */
+    public ResponseBodyReader(ByteBufferPool pool, int spillThreshold, Path spillDirectory) {
+        if (spillThreshold <= 0) {
+            throw new IllegalArgumentException("溢出阈值必须大于0: " + spillThreshold);
+        }
+        this.pool = pool;
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * 获取使用共享缓冲区池的读取器
+     *
+     * @return 共享的读取器
+     */
+    public static ResponseBodyReader shared() {
+        return SHARED;
+    }
+
+    /**
+     * 获取使用共享堆外缓冲区池的读取器，响应体读入堆外内存，超过溢出阈值时同样转存到临时文件
+     *
+     * @return 堆外读取器
+     */
+    public static ResponseBodyReader direct() {
+        return DIRECT;
+    }
+
+    /**
+     * 用于学习典型大小的端点标识：主机和路径，不含查询参数
+     * <p>
+     * 路径中带ID的端点会产生很多标识，超过上限时清空重新学习。
+     *
+     * @param uri 请求URI
+     * @return 端点标识
+     */
+    public static String endpointOf(URI uri) {
+        String authority = uri.getRawAuthority();
+        String path = uri.getRawPath();
+        return (authority != null ? authority : "") + (path != null ? path : "");
+    }
+
+    /**
+     * 读取完整响应体，不会关闭响应
+     *
+     * @param response 响应
+     * @param endpoint 端点标识，为空时不学习典型大小
+     * @return 响应体缓冲区，由调用方关闭归还；响应没有响应体时返回null
+     * @throws IOException 读取失败
+     */
+    public PooledBuffer read(HttpClientResponse response, String endpoint) throws IOException {
+        return read(response, endpoint, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取完整响应体，超过最大长度时立即停止读取，不会关闭响应
+     *
+     * @param response    响应
+     * @param endpoint    端点标识，为空时不学习典型大小
+     * @param maxBodySize 允许的最大字节数
+     * @return 响应体缓冲区，由调用方关闭归还；响应没有响应体时返回null
+     * @throws ResponseTooLargeException 响应体超过最大长度，调用方应断开连接
+     * @throws IOException               读取失败
+     */
+    public PooledBuffer read(HttpClientResponse response, String endpoint, long maxBodySize) throws IOException {
+        InputStream body = response.getBody();
+        return body != null ? read(body, response.getContentLength(), endpoint, maxBodySize) : null;
+    }
+
+    /**
+     * 读取完整响应体为恰好等长的字节数组，中间缓冲区读完即归还
+     *
+     * @param response 响应
+     * @param endpoint 端点标识，为空时不学习典型大小
+     * @return 字节数组，响应没有响应体时返回null
+     * @throws IOException 读取失败
+     */
+    public byte[] readBytes(HttpClientResponse response, String endpoint) throws IOException {
+        return readBytes(response, endpoint, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取完整响应体为恰好等长的字节数组，超过最大长度时立即停止读取
+     *
+     * @param response    响应
+     * @param endpoint    端点标识，为空时不学习典型大小
+     * @param maxBodySize 允许的最大字节数
+     * @return 字节数组，响应没有响应体时返回null
+     * @throws ResponseTooLargeException 响应体超过最大长度，调用方应断开连接
+     * @throws IOException               读取失败
+     */
+    public byte[] readBytes(HttpClientResponse response, String endpoint, long maxBodySize) throws IOException {
+        try (PooledBuffer body = read(response, endpoint, maxBodySize)) {
+            return body != null ? body.toByteArray() : null;
+        }
+    }
+
+    /**
+     * 读取输入流直到结束，不会关闭输入流
+     *
+     * @param input         输入流
+     * @param contentLength 响应体长度，未知时为-1
+     * @param endpoint      端点标识，为空时不学习典型大小
+     * @return 数据缓冲区，由调用方关闭归还
+     * @throws IOException 读取失败
+     */
+    public PooledBuffer read(InputStream input, long contentLength, String endpoint) throws IOException {
+        return read(input, contentLength, endpoint, Long.MAX_VALUE);
+    }
+
+    /**
+     * 读取输入流直到结束，不会关闭输入流
+     * <p>
+     * 声明的长度超过最大长度时不读取任何数据；长度未知或与声明不符时读到超限的那一刻失败，已申请的缓冲区和临时文件随之释放。
+     *
+     * @param input         输入流
+     * @param contentLength 响应体长度，未知时为-1
+     * @param endpoint      端点标识，为空时不学习典型大小
+     * @param maxBodySize   允许的最大字节数
+     * @return 数据缓冲区，由调用方关闭归还
+     * @throws ResponseTooLargeException 响应体超过最大长度，调用方应断开连接
+     * @throws IOException               读取失败
+     */
+    public PooledBuffer read(InputStream input, long contentLength, String endpoint, long maxBodySize)
+            throws IOException {
+        if (contentLength > maxBodySize) {
+            throw new ResponseTooLargeException(maxBodySize, contentLength);
+        }
+        if (maxBodySize < Long.MAX_VALUE) {
+            input = new BoundedInputStream(input, maxBodySize);
+        }
+        if (contentLength > spillThreshold) {
+            return spill(null, input);
+        }
+        int initial = contentLength >= 0 ? (int) contentLength : Math.min(estimate(endpoint), spillThreshold);
+        ByteBuffer buffer = pool.acquire(Math.max(initial, 1));
+        int overflow = -1;
+        try {
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    // 长度准确时缓冲区恰好写满，只需再确认一次流已结束
+                    int next = input.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if ((long) buffer.capacity() << 1 > spillThreshold) {
+                        overflow = next;
+                        break;
+                    }
+                    buffer = grow(buffer);
+                    buffer.put((byte) next);
+                } else if (readInto(input, buffer) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            pool.release(buffer);
+            throw e;
+        }
+        buffer.flip();
+        if (overflow >= 0) {
+            ByteBuffer last = ByteBuffer.allocate(1).put((byte) overflow);
+            last.flip();
+            return spill(new ByteBuffer[]{buffer, last}, input);
+        }
+        if (contentLength < 0) {
+            learn(endpoint, buffer.remaining());
+        }
+        return new PooledBuffer(pool, buffer);
+    }
+
+    /**
+     * 获取端点的初始缓冲区大小
+     *
+     * @param endpoint 端点标识
+     * @return 初始大小
+     */
+    public int estimate(String endpoint) {
+        Integer typical = endpoint != null ? typicalSizes.get(endpoint) : null;
+        return typical != null ? typical : DEFAULT_INITIAL_SIZE;
+    }
+
+    private void learn(String endpoint, int size) {
+        if (endpoint == null) {
+            return;
+        }
+        Integer previous = typicalSizes.get(endpoint);
+        int typical = previous != null ? Math.max(size, previous - (previous >> 3)) : size;
+        if (previous != null && previous == typical) {
+            return;
+        }
+        if (previous == null && typicalSizes.size() >= MAX_ENDPOINTS) {
+            typicalSizes.clear();
+        }
+        typicalSizes.put(endpoint, typical);
+    }
+
+    private int readInto(InputStream input, ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            int n = input.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (n > 0) {
+                buffer.position(buffer.position() + n);
+            }
+            return n;
+        }
+        byte[] scratch = SCRATCH.get();
+        int n = input.read(scratch, 0, Math.min(scratch.length, buffer.remaining()));
+        if (n > 0) {
+            buffer.put(scratch, 0, n);
+        }
+        return n;
+    }
+
+    /**
+     * 把已读入内存的数据和输入流的剩余部分写入临时文件，返回文件的只读映射；已读入的池化缓冲区写完即归还
+     *
+     * @param buffered 已读入内存、处于读模式的数据，第一个是池化缓冲区，可以为空
+     * @param input    输入流
+     */
+    private PooledBuffer spill(ByteBuffer[] buffered, InputStream input) throws IOException {
+        Path file = null;
+        FileChannel channel = null;
+        boolean completed = false;
+        try {
+            file = spillDirectory != null
+                    ? Files.createTempFile(spillDirectory, SPILL_PREFIX, SPILL_SUFFIX)
+                    : Files.createTempFile(SPILL_PREFIX, SPILL_SUFFIX);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = 0;
+            if (buffered != null) {
+                while (buffered[buffered.length - 1].hasRemaining()) {
+                    size += channel.write(buffered);
+                }
+                pool.release(buffered[0]);
+                buffered = null;
+            }
+            ReadableByteChannel source = Channels.newChannel(input);
+            long n;
+            while ((n = channel.transferFrom(source, size, SPILL_CHUNK)) > 0) {
+                size += n;
+                if (size > MAX_CAPACITY) {
+                    throw new IOException("响应体超过最大长度: " + MAX_CAPACITY);
+                }
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            completed = true;
+            return PooledBuffer.spilled(file, mapped);
+        } finally {
+            if (buffered != null) {
+                pool.release(buffered[0]);
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            if (!completed && file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private ByteBuffer grow(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() >= MAX_CAPACITY) {
+            throw new IOException("响应体超过最大长度: " + MAX_CAPACITY);
+        }
+        ByteBuffer larger = pool.acquire((int) Math.min((long) buffer.capacity() << 1, MAX_CAPACITY));
+        buffer.flip();
+        larger.put(buffer);
+        pool.release(buffer);
+        return larger;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hyfly.template.httpclient.response;
+
+import java.io.IOException;
+
+/**
+ * 响应体超过允许的最大长度 抛出时响应体尚未读完，连接应当断开而不是读完后复用
+ */
+public class ResponseTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxBodySize;
+
+    /**
+     * @param maxBodySize   允许的最大字节数
+     * @param contentLength 响应声明的长度，读取中超限时为-1
+     */
+    public ResponseTooLargeException(long maxBodySize, long contentLength) {
+        super(contentLength >= 0
+                ? "响应体长度 " + contentLength + " 超过最大长度 " + maxBodySize + " 字节"
+                : "响应体超过最大长度 " + maxBodySize + " 字节");
+        this.maxBodySize = maxBodySize;
+    }
+
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+}
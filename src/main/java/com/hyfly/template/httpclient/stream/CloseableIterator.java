@@ -0,0 +1,32 @@
+package com.hyfly.template.httpclient.stream;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 可关闭的迭代器 用于逐条读取流式响应，读完或关闭时释放底层连接
+ *
+ * @param <T> 元素类型
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * 关闭迭代器并释放底层连接，未读完时直接断开连接
+     */
+    @Override
+    void close();
+
+    /**
+     * 转换为顺序流，关闭流时关闭迭代器
+     *
+     * @return 顺序流
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+}
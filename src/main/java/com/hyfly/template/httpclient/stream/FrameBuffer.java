@@ -0,0 +1,67 @@
+package com.hyfly.template.httpclient.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 分帧读取缓冲区 在复用的字节数组上切分流中的记录
+ * <p>
+ * {@link #mark} 标记当前记录的起点，读取更多数据时把记录移到缓冲区开头，缓冲区装不下单条记录时才扩容，
+ * 因此内存占用只与最大的单条记录有关。
+ */
+final class FrameBuffer {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private final InputStream input;
+
+    byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    int position;
+    int limit;
+    int mark = -1;
+
+    FrameBuffer(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * 确保position处有可读的字节
+     *
+     * @return 流已结束时返回false
+     */
+    boolean ensureAvailable() throws IOException {
+        return position < limit || fill();
+    }
+
+    /**
+     * 读取更多数据：先把当前记录移到缓冲区开头，缓冲区已满时扩容
+     *
+     * @return 流已结束时返回false
+     */
+    private boolean fill() throws IOException {
+        int keep = mark >= 0 ? mark : position;
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            limit -= keep;
+            position -= keep;
+            if (mark >= 0) {
+                mark = 0;
+            }
+        }
+        if (limit == buffer.length) {
+            byte[] grown = new byte[buffer.length << 1];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -0,0 +1,166 @@
+package com.hyfly.template.httpclient.stream;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.hyfly.template.httpclient.util.BoundedInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON数组迭代器 从响应流中逐个读取顶层JSON数组的元素
+ * <p>
+ * 按字节扫描括号深度和字符串边界切分出单个元素，再交给 {@link JsonProcessor} 解码，内存占用只与最大的单个元素有关。
+ * 响应体为空或为null时没有元素。
+ *
+ * @param <T> 元素类型
+ */
+public class JsonArrayIterator<T> extends ResponseIterator<T> {
+
+    private final FrameBuffer frames;
+    private final JsonProcessor jsonProcessor;
+    private final Type elementType;
+
+    private boolean started;
+    private boolean first = true;
+
+    /**
+     * @param response      HTTP响应
+     * @param jsonProcessor 元素解码使用的处理器
+     * @param elementType   元素类型
+     * @throws IOException 获取响应体失败
+     */
+    public JsonArrayIterator(HttpClientResponse response, JsonProcessor jsonProcessor, Type elementType)
+            throws IOException {
+        this(response, jsonProcessor, elementType, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param response      HTTP响应
+     * @param jsonProcessor 元素解码使用的处理器
+     * @param elementType   元素类型
+     * @param maxBodySize   允许读取的最大响应体字节数，超出时迭代抛出异常
+     * @throws IOException 获取响应体失败
+     */
+    public JsonArrayIterator(HttpClientResponse response, JsonProcessor jsonProcessor, Type elementType, long maxBodySize)
+            throws IOException {
+        super(response);
+        InputStream input = response.getBody();
+        if (input != null && maxBodySize < Long.MAX_VALUE) {
+            input = new BoundedInputStream(input, maxBodySize);
+        }
+        this.frames = input != null ? new FrameBuffer(input) : null;
+        this.jsonProcessor = jsonProcessor;
+        this.elementType = elementType;
+    }
+
+    @Override
+    protected T readNext() throws IOException {
+        if (frames == null) {
+            return endOfStream();
+        }
+        if (!started) {
+            started = true;
+            int c = nextNonWhitespace();
+            if (c == -1 || c == 'n') {
+                return endOfStream();
+            }
+            if (c != '[') {
+                throw new IOException("响应不是JSON数组，首字符: " + (char) c);
+            }
+            frames.position++;
+        }
+        int c = nextNonWhitespace();
+        if (c == ']') {
+            frames.position++;
+            return endOfStream();
+        }
+        if (!first) {
+            if (c != ',') {
+                throw new IOException("JSON数组元素之间缺少逗号");
+            }
+            frames.position++;
+            c = nextNonWhitespace();
+            if (c == ']') {
+                throw new IOException("JSON数组末尾有多余的逗号");
+            }
+        }
+        if (c == -1) {
+            throw new EOFException("JSON数组不完整");
+        }
+        if (c == ',') {
+            throw new IOException("JSON数组缺少元素");
+        }
+        first = false;
+        frames.mark = frames.position;
+        scanValue();
+        T element = jsonProcessor.parseObject(frames.buffer, frames.mark, frames.position - frames.mark, elementType);
+        frames.mark = -1;
+        return element;
+    }
+
+    /**
+     * 跳过空白，返回下一个字节但不消费，流结束时返回-1
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (!frames.ensureAvailable()) {
+                return -1;
+            }
+            byte b = frames.buffer[frames.position];
+            if (!FrameBuffer.isWhitespace(b)) {
+                return b;
+            }
+            frames.position++;
+        }
+    }
+
+    /**
+     * 从记录起点开始扫描一个完整的JSON值，结束后读取位置指向值之后的第一个字节
+     */
+    private void scanValue() throws IOException {
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        while (true) {
+            if (!frames.ensureAvailable()) {
+                if (depth == 0 && !inString) {
+                    return;
+                }
+                throw new EOFException("JSON数组元素不完整");
+            }
+            byte b = frames.buffer[frames.position];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        frames.position++;
+                        return;
+                    }
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    // 标量元素后紧跟数组结束
+                    return;
+                }
+                if (--depth == 0) {
+                    frames.position++;
+                    return;
+                }
+            } else if (depth == 0 && (b == ',' || FrameBuffer.isWhitespace(b))) {
+                return;
+            }
+            frames.position++;
+        }
+    }
+}
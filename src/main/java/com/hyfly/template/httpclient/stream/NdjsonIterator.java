@@ -0,0 +1,111 @@
+package com.hyfly.template.httpclient.stream;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.hyfly.template.httpclient.util.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Locale;
+
+/**
+ * NDJSON（JSON Lines）迭代器 按换行切分响应流，每行解码为一条记录
+ * <p>
+ * 每读到一个完整的行就立即解码，不等待响应结束，适合上游边计算边输出的接口。行在复用的读取缓冲区上切分并原地解码，
+ * 每条记录的分配只有解码出的对象本身。空行会被跳过，最后一行可以没有换行符。
+ *
+ * @param <T> 记录类型
+ */
+public class NdjsonIterator<T> extends ResponseIterator<T> {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private static final String[] MEDIA_TYPES = {
+            MEDIA_TYPE, "application/ndjson", "application/jsonl", "application/x-jsonlines", "application/jsonlines"};
+
+    private final FrameBuffer frames;
+    private final JsonProcessor jsonProcessor;
+    private final Type recordType;
+
+    /**
+     * @param response      HTTP响应
+     * @param jsonProcessor 记录解码使用的处理器
+     * @param recordType    记录类型
+     * @throws IOException 获取响应体失败
+     */
+    public NdjsonIterator(HttpClientResponse response, JsonProcessor jsonProcessor, Type recordType)
+            throws IOException {
+        this(response, jsonProcessor, recordType, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param response      HTTP响应
+     * @param jsonProcessor 记录解码使用的处理器
+     * @param recordType    记录类型
+     * @param maxBodySize   允许读取的最大响应体字节数，超出时迭代抛出异常
+     * @throws IOException 获取响应体失败
+     */
+    public NdjsonIterator(HttpClientResponse response, JsonProcessor jsonProcessor, Type recordType, long maxBodySize)
+            throws IOException {
+        super(response);
+        InputStream input = response.getBody();
+        if (input != null && maxBodySize < Long.MAX_VALUE) {
+            input = new BoundedInputStream(input, maxBodySize);
+        }
+        this.frames = input != null ? new FrameBuffer(input) : null;
+        this.jsonProcessor = jsonProcessor;
+        this.recordType = recordType;
+    }
+
+    /**
+     * 判断Content-Type是否为NDJSON
+     *
+     * @param contentType Content-Type，可以带参数
+     * @return 是否为NDJSON
+     */
+    public static boolean isNdjson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String mediaType = contentType.trim().toLowerCase(Locale.ROOT);
+        for (String candidate : MEDIA_TYPES) {
+            if (mediaType.startsWith(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected T readNext() throws IOException {
+        if (frames == null) {
+            return endOfStream();
+        }
+        while (true) {
+            frames.mark = frames.position;
+            boolean newline = false;
+            while (frames.ensureAvailable()) {
+                if (frames.buffer[frames.position++] == '\n') {
+                    newline = true;
+                    break;
+                }
+            }
+            int start = frames.mark;
+            int end = frames.position;
+            while (start < end && FrameBuffer.isWhitespace(frames.buffer[start])) {
+                start++;
+            }
+            while (end > start && FrameBuffer.isWhitespace(frames.buffer[end - 1])) {
+                end--;
+            }
+            frames.mark = -1;
+            if (start < end) {
+                return jsonProcessor.parseObject(frames.buffer, start, end - start, recordType);
+            }
+            if (!newline) {
+                return endOfStream();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hyfly.template.httpclient.stream;
+
+import com.google.common.collect.AbstractIterator;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 基于HTTP响应的迭代器基类 负责响应的生命周期
+ * <p>
+ * 读到流末尾时正常关闭响应，连接可以复用；提前关闭或读取失败时放弃响应，不再读取剩余数据。
+ * 非线程安全，应在一个线程内读取。
+ *
+ * @param <T> 元素类型
+ */
+@Slf4j
+public abstract class ResponseIterator<T> extends AbstractIterator<T> implements CloseableIterator<T> {
+
+    private final HttpClientResponse response;
+    private boolean exhausted;
+    private boolean closed;
+
+    protected ResponseIterator(HttpClientResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * 读取下一个元素，没有更多元素时返回 {@link #endOfStream()}
+     *
+     * @return 下一个元素，可以为null
+     * @throws IOException 读取响应失败
+     */
+    protected abstract T readNext() throws IOException;
+
+    @Override
+    protected final T computeNext() {
+        if (closed) {
+            return endOfData();
+        }
+        try {
+            return readNext();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("读取流式响应失败", e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * 标记已读到流末尾并关闭响应
+     *
+     * @return 供 {@link #readNext()} 直接返回
+     */
+    protected final T endOfStream() {
+        exhausted = true;
+        close();
+        return endOfData();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (exhausted) {
+                response.close();
+            } else {
+                response.abort();
+            }
+        } catch (IOException e) {
+            log.warn("关闭流式响应失败", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.hyfly.template.httpclient.upload;
+
+import lombok.Getter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 分片上传选项
+ * <p>
+ * 文件按分片大小切分，最多同时上传并发数个分片；单个分片失败只在退避等待后重传该分片。
+ */
+@Getter
+public class MultipartUploadOptions {
+
+    private static final long DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_RETRY_DELAY_MILLIS = 200;
+    private static final long DEFAULT_MAX_RETRY_DELAY_MILLIS = 30_000;
+    private static final long DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024;
+
+    private long partSize = DEFAULT_PART_SIZE;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+    private long maxRetryDelayMillis = DEFAULT_MAX_RETRY_DELAY_MILLIS;
+    private long maxResponseSize = DEFAULT_MAX_RESPONSE_SIZE;
+    private String mediaType;
+    private UploadListener listener;
+    private ExecutorService executor;
+
+    /**
+     * 创建默认选项：8MB分片，4个并发，每个分片最多重试3次
+     *
+     * @return MultipartUploadOptions
+     */
+    public static MultipartUploadOptions defaults() {
+        return new MultipartUploadOptions();
+    }
+
+    /**
+     * 设置分片大小，最后一个分片可能更小
+     *
+     * @param partSize 分片字节数
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions partSize(long partSize) {
+        if (partSize <= 0) {
+            throw new IllegalArgumentException("分片大小必须大于0: " + partSize);
+        }
+        this.partSize = partSize;
+        return this;
+    }
+
+    /**
+     * 设置同时上传的最大分片数，每个分片占用一个连接
+     *
+     * @param concurrency 并发数
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions concurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("并发数必须大于0: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * 设置单个分片的最大重试次数，超过后整个上传失败
+     *
+     * @param maxRetries 最大重试次数
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions maxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("重试次数不能为负数: " + maxRetries);
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * 设置分片重试的退避时间，每次重试翻倍并加入随机抖动；服务端返回Retry-After时按其等待，不超过最大值
+     *
+     * @param retryDelayMillis    第一次重试前的等待时间（毫秒）
+     * @param maxRetryDelayMillis 最大等待时间（毫秒）
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions retryBackoff(long retryDelayMillis, long maxRetryDelayMillis) {
+        if (retryDelayMillis < 0 || maxRetryDelayMillis < retryDelayMillis) {
+            throw new IllegalArgumentException("重试等待时间不合法: " + retryDelayMillis + " - " + maxRetryDelayMillis);
+        }
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+        return this;
+    }
+
+    /**
+     * 设置分片成功响应体的最大字节数，默认1MB，超过时该分片失败；错误响应只读取前缀
+     *
+     * @param maxResponseSize 最大字节数
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions maxResponseSize(long maxResponseSize) {
+        if (maxResponseSize <= 0) {
+            throw new IllegalArgumentException("响应体大小上限必须大于0: " + maxResponseSize);
+        }
+        this.maxResponseSize = maxResponseSize;
+        return this;
+    }
+
+    /**
+     * 设置分片请求体的媒体类型，为空时使用 application/octet-stream
+     *
+     * @param mediaType 媒体类型
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions mediaType(String mediaType) {
+        this.mediaType = mediaType;
+        return this;
+    }
+
+    /**
+     * 设置进度监听器
+     *
+     * @param listener 进度监听器
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions listener(UploadListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * 设置执行分片请求的线程池，为空时使用共享的守护线程池
+     *
+     * @param executor 线程池
+     * @return MultipartUploadOptions
+     */
+    public MultipartUploadOptions executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+}
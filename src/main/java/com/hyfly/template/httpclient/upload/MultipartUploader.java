@@ -0,0 +1,299 @@
+package com.hyfly.template.httpclient.upload;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import com.hyfly.template.httpclient.buffer.PooledBuffer;
+import com.hyfly.template.httpclient.handler.ResponseHandler;
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.request.UploadBody;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+import com.hyfly.template.httpclient.response.ResponseBodyReader;
+import com.hyfly.template.httpclient.response.ResponseTooLargeException;
+import com.hyfly.template.httpclient.util.RetryBackoff;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片上传器 把大文件切成多个分片，在连接池的多个连接上并发上传，全部成功后执行完成回调
+ * <p>
+ * 每个分片的请求体是文件中的一段，用定位读取直接从文件发送，不在内存中聚合分片。
+ * 分片失败（I/O异常、408、429或5xx）时等待指数退避的时间后只重传该分片，服务端返回Retry-After时按其等待；
+ * 其他4xx视为服务端拒绝，立即失败并取消其他分片。错误响应只读取前缀，成功响应体大小受
+ * {@link MultipartUploadOptions#maxResponseSize(long)} 限制。
+ * 分片的请求方式和地址由 {@link PartSender} 决定，可以对接各种按分片上传的对象存储接口。
+ */
+@Slf4j
+public class MultipartUploader {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int ERROR_BODY_LIMIT = ResponseHandler.DEFAULT_ERROR_BODY_LIMIT;
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "Upload-Worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PartSender sender;
+
+    /**
+     * @param sender 发送单个分片的请求
+     */
+    public MultipartUploader(PartSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * 分片上传文件
+     *
+     * @param file       文件
+     * @param options    上传选项
+     * @param completion 全部分片成功后的完成回调
+     * @param <R>        完成结果类型
+     * @return 完成回调的结果
+     * @throws Exception 读取文件失败、分片被拒绝、分片重试耗尽或完成回调失败
+     */
+    public <R> R upload(Path file, MultipartUploadOptions options, UploadCompletion<R> completion) throws Exception {
+        long length = Files.size(file);
+        List<UploadPart> parts = split(length, options.getPartSize());
+        long start = System.nanoTime();
+        runParts(file, parts, length, options, start);
+        log.debug("分片上传完成: {}, {} 个分片, {} 字节, {} ms", file, parts.size(), length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return completion.complete(parts);
+    }
+
+    /**
+     * 按分片大小切分，空文件也上传一个空分片
+     */
+    private static List<UploadPart> split(long length, long partSize) {
+        int count = (int) Math.max(1, (length + partSize - 1) / partSize);
+        List<UploadPart> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UploadPart part = new UploadPart();
+            part.setNumber(i + 1);
+            part.setOffset(i * partSize);
+            part.setLength(Math.min(partSize, length - part.getOffset()));
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    /**
+     * 调度分片请求，直到所有分片成功、某个分片被拒绝或重试耗尽
+     */
+    private void runParts(Path file, List<UploadPart> parts, long length, MultipartUploadOptions options,
+                          long start) throws Exception {
+        Deque<UploadPart> pending = new ArrayDeque<>(parts);
+        PriorityQueue<DelayedPart> delayed = new PriorityQueue<>();
+        ExecutorService executor = options.getExecutor() != null ? options.getExecutor() : DEFAULT_EXECUTOR;
+        CompletionService<UploadPart> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<UploadPart>, UploadPart> running = new HashMap<>();
+        Map<Future<UploadPart>, RequestCancellation> cancellations = new HashMap<>();
+        long uploaded = 0;
+        try {
+            while (!pending.isEmpty() || !delayed.isEmpty() || !running.isEmpty()) {
+                while (!delayed.isEmpty() && delayed.peek().readyAt - System.nanoTime() <= 0) {
+                    pending.addFirst(delayed.poll().part);
+                }
+                while (running.size() < options.getConcurrency() && !pending.isEmpty()) {
+                    UploadPart part = pending.poll();
+                    part.setAttempts(part.getAttempts() + 1);
+                    RequestCancellation cancellation = new RequestCancellation();
+                    Future<UploadPart> future = completion.submit(
+                            () -> sendPart(file, part, options, cancellation));
+                    running.put(future, part);
+                    cancellations.put(future, cancellation);
+                }
+                Future<UploadPart> done;
+                if (delayed.isEmpty()) {
+                    done = completion.take();
+                } else {
+                    // 等待分片完成，最多等到下一个退避中的分片可以重传
+                    long wait = Math.max(0, delayed.peek().readyAt - System.nanoTime());
+                    done = running.isEmpty() ? null : completion.poll(wait, TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        if (running.isEmpty()) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        continue;
+                    }
+                }
+                UploadPart part = running.remove(done);
+                cancellations.remove(done);
+                try {
+                    done.get();
+                    uploaded += part.getLength();
+                    UploadListener listener = options.getListener();
+                    if (listener != null) {
+                        listener.onProgress(uploaded, length, rate(uploaded, start));
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof PartRejectedException) {
+                        throw (PartRejectedException) cause;
+                    }
+                    if (part.getAttempts() > options.getMaxRetries()) {
+                        throw new IOException("分片 " + part.getNumber() + " 上传失败，已重试 "
+                                + options.getMaxRetries() + " 次", cause);
+                    }
+                    long delay = retryDelayMillis(part, cause, options);
+                    log.warn("分片 {} 上传失败，{} ms后第 {} 次重试: {}", part.getNumber(), delay, part.getAttempts(),
+                            cause.toString());
+                    delayed.add(new DelayedPart(part, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay)));
+                }
+            }
+        } finally {
+            if (!running.isEmpty()) {
+                cancellations.values().forEach(RequestCancellation::cancel);
+                for (Future<UploadPart> future : running.keySet()) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // 已取消的分片，忽略
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 上传一个分片，成功时填入ETag和响应体
+     */
+    private UploadPart sendPart(Path file, UploadPart part, MultipartUploadOptions options,
+                                RequestCancellation cancellation) throws Exception {
+        UploadBody body = UploadBody.of(file, part.getOffset(), part.getLength(), options.getMediaType());
+        HttpClientResponse response = sender.send(part, body, cancellation);
+        boolean completed = false;
+        try {
+            int status = response.getStatusCode();
+            if (status >= HttpStatus.SC_OK && status < HttpStatus.SC_MULTIPLE_CHOICES) {
+                String content;
+                try (PooledBuffer buffer = ResponseBodyReader.shared().read(response, null,
+                        options.getMaxResponseSize())) {
+                    content = buffer != null && buffer.size() > 0 ? buffer.decode(StandardCharsets.UTF_8) : null;
+                } catch (ResponseTooLargeException e) {
+                    // 重传得到的仍是同样大小的响应
+                    throw new PartRejectedException("分片 " + part.getNumber() + " 的响应体过大: " + e.getMessage());
+                }
+                part.setEtag(response.getHeader(HttpHeaders.ETAG));
+                part.setResponse(content);
+                completed = true;
+                return part;
+            }
+            String message = "分片 " + part.getNumber() + " 上传失败，状态码: " + status + "，响应: "
+                    + readErrorPrefix(response);
+            completed = true;
+            if (status == HttpStatus.SC_REQUEST_TIMEOUT || status == TOO_MANY_REQUESTS
+                    || status >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+                throw new PartFailedException(message, RetryBackoff.retryAfterMillis(response.getHeader(HttpHeaders.RETRY_AFTER)));
+            }
+            throw new PartRejectedException(message);
+        } finally {
+            if (completed) {
+                response.close();
+            } else {
+                response.abort();
+            }
+        }
+    }
+
+    /**
+     * 读取错误响应体的前缀，还有剩余数据时断开连接而不是读完
+     */
+    private static String readErrorPrefix(HttpClientResponse response) throws IOException {
+        InputStream body = response.getBody();
+        if (body == null) {
+            return "";
+        }
+        try (PooledBuffer prefix = ResponseBodyReader.shared()
+                .read(ByteStreams.limit(body, ERROR_BODY_LIMIT), -1, null)) {
+            String content = prefix.decode(StandardCharsets.UTF_8);
+            if (prefix.size() >= ERROR_BODY_LIMIT && body.read() != -1) {
+                response.abort();
+                return content + "...(已截断)";
+            }
+            return content;
+        }
+    }
+
+    /**
+     * 计算重试前的等待时间：优先使用服务端的Retry-After，否则指数退避并加入随机抖动，不超过最大值
+     */
+    private static long retryDelayMillis(UploadPart part, Throwable cause, MultipartUploadOptions options) {
+        long retryAfter = cause instanceof PartFailedException ? ((PartFailedException) cause).retryAfterMillis : -1;
+        return RetryBackoff.delayMillis(part.getAttempts(), options.getRetryDelayMillis(),
+                options.getMaxRetryDelayMillis(), retryAfter);
+    }
+
+    private static double rate(long bytes, long startNanos) {
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+        return bytes * 1_000_000_000.0 / elapsed;
+    }
+
+    /**
+     * 服务端拒绝了分片，重试不会成功
+     */
+    private static class PartRejectedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        PartRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 分片暂时失败（408、429或5xx），可以重试
+     */
+    private static class PartFailedException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterMillis;
+
+        PartFailedException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /**
+     * 退避等待中的分片，按可以重传的时间排序
+     */
+    private static final class DelayedPart implements Comparable<DelayedPart> {
+
+        private final UploadPart part;
+        private final long readyAt;
+
+        DelayedPart(UploadPart part, long readyAt) {
+            this.part = part;
+            this.readyAt = readyAt;
+        }
+
+        @Override
+        public int compareTo(DelayedPart other) {
+            return Long.compare(readyAt - other.readyAt, 0);
+        }
+    }
+}
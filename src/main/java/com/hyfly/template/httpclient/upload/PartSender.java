@@ -0,0 +1,23 @@
+package com.hyfly.template.httpclient.upload;
+
+import com.hyfly.template.httpclient.request.RequestCancellation;
+import com.hyfly.template.httpclient.request.UploadBody;
+import com.hyfly.template.httpclient.response.HttpClientResponse;
+
+/**
+ * 发送单个分片的上传请求
+ */
+@FunctionalInterface
+public interface PartSender {
+
+    /**
+     * 发送请求，返回的响应由调用方负责关闭
+     *
+     * @param part         分片
+     * @param body         分片的请求体，可以重复发送
+     * @param cancellation 取消句柄
+     * @return 未读取的响应
+     * @throws Exception 异常
+     */
+    HttpClientResponse send(UploadPart part, UploadBody body, RequestCancellation cancellation) throws Exception;
+}
@@ -0,0 +1,21 @@
+package com.hyfly.template.httpclient.upload;
+
+import java.util.List;
+
+/**
+ * 所有分片上传成功后的完成回调，通常发送合并分片的请求
+ *
+ * @param <R> 完成结果类型
+ */
+@FunctionalInterface
+public interface UploadCompletion<R> {
+
+    /**
+     * 完成上传
+     *
+     * @param parts 按序号排列的全部分片，已填入ETag和响应体
+     * @return 完成结果
+     * @throws Exception 异常
+     */
+    R complete(List<UploadPart> parts) throws Exception;
+}
@@ -0,0 +1,17 @@
+package com.hyfly.template.httpclient.upload;
+
+/**
+ * 上传进度监听器
+ */
+@FunctionalInterface
+public interface UploadListener {
+
+    /**
+     * 上传进度更新，每完成一个分片调用一次
+     *
+     * @param uploaded       已上传成功的字节数
+     * @param total          文件总字节数
+     * @param bytesPerSecond 从开始到现在的平均速度（字节/秒）
+     */
+    void onProgress(long uploaded, long total, double bytesPerSecond);
+}
@@ -0,0 +1,40 @@
+package com.hyfly.template.httpclient.upload;
+
+import lombok.Data;
+
+/**
+ * 分片上传中的一个分片 上传成功后填入服务端返回的ETag和响应体
+ */
+@Data
+public class UploadPart {
+
+    /**
+     * 分片序号，从1开始
+     */
+    private int number;
+
+    /**
+     * 分片在文件中的起始位置
+     */
+    private long offset;
+
+    /**
+     * 分片字节数
+     */
+    private long length;
+
+    /**
+     * 服务端返回的ETag，没有时为空
+     */
+    private String etag;
+
+    /**
+     * 服务端返回的响应体，没有时为空
+     */
+    private String response;
+
+    /**
+     * 上传尝试次数，包括最后成功的一次
+     */
+    private int attempts;
+}
@@ -0,0 +1,68 @@
+package com.hyfly.template.httpclient.util;
+
+import com.hyfly.template.httpclient.response.ResponseTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制读取总量的输入流 读到的字节数超过上限时抛出 {@link ResponseTooLargeException}，不会静默截断
+ * <p>
+ * 每次最多多读一个字节用于判断是否超限，超限前的数据不受影响。
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    /**
+     * @param in       底层输入流
+     * @param maxBytes 允许读取的最大字节数
+     */
+    public BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // 最多读到上限的下一个字节，超限立即失败，不会为超出的部分读取大块数据
+        long allowed = maxBytes - count + 1;
+        int n = in.read(b, off, (int) Math.min(len, allowed));
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, maxBytes - count + 1));
+        if (skipped > 0) {
+            advance(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) throws ResponseTooLargeException {
+        count += n;
+        if (count > maxBytes) {
+            throw new ResponseTooLargeException(maxBytes, -1);
+        }
+    }
+}
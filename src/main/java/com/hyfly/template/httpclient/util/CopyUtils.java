@@ -0,0 +1,65 @@
+package com.hyfly.template.httpclient.util;
+
+import com.hyfly.template.httpclient.json.JsonProcessor;
+import com.hyfly.template.httpclient.json.JsonProcessorFactory;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 数据复制工具类 用于在多个调用方之间共享响应数据时生成独立副本
+ */
+public class CopyUtils {
+
+    /**
+     * 复制数据，不可变类型直接返回原对象
+     *
+     * @param data   数据
+     * @param type   数据类型
+     * @param copier 复制函数，为空时通过JSON序列化再反序列化复制
+     * @param <T>    数据类型
+     * @return 数据副本
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T data, Type type, UnaryOperator<Object> copier) {
+        if (data == null || isImmutable(data)) {
+            return data;
+        }
+        if (copier != null) {
+            return (T) copier.apply(data);
+        }
+        if (data instanceof byte[]) {
+            return (T) ((byte[]) data).clone();
+        }
+        if (data instanceof ByteBuffer) {
+            return (T) copyBuffer((ByteBuffer) data);
+        }
+        JsonProcessor processor = JsonProcessorFactory.getDefaultProcessor();
+        return processor.parseObject(processor.toJsonString(data), type);
+    }
+
+    /**
+     * 复制缓冲区剩余的数据，只读缓冲区的内容不会被修改，只需要独立的position
+     */
+    private static ByteBuffer copyBuffer(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            return buffer.duplicate();
+        }
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate());
+        copy.flip();
+        return copy;
+    }
+
+    /**
+     * 判断数据是否为不可变类型
+     *
+     * @param data 数据
+     * @return 是否不可变
+     */
+    public static boolean isImmutable(Object data) {
+        return data instanceof String || data instanceof Number || data instanceof Boolean
+                || data instanceof Character || data instanceof Enum;
+    }
+}
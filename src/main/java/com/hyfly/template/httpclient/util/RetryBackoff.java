@@ -0,0 +1,58 @@
+package com.hyfly.template.httpclient.util;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重试退避 每次重试等待时间翻倍并加入随机抖动，服务端返回Retry-After时按其等待，都不超过最大值
+ */
+public final class RetryBackoff {
+
+    private RetryBackoff() {
+    }
+
+    /**
+     * 计算重试前的等待时间
+     *
+     * @param attempts         已经尝试的次数，从1开始
+     * @param baseDelayMillis  第一次重试前的等待时间（毫秒）
+     * @param maxDelayMillis   最大等待时间（毫秒）
+     * @param retryAfterMillis 服务端要求的等待时间，没有时为-1
+     * @return 等待时间（毫秒）
+     */
+    public static long delayMillis(int attempts, long baseDelayMillis, long maxDelayMillis, long retryAfterMillis) {
+        if (retryAfterMillis >= 0) {
+            return Math.min(retryAfterMillis, maxDelayMillis);
+        }
+        int shift = Math.max(0, Math.min(attempts - 1, 30));
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << shift);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * 解析Retry-After：秒数或HTTP日期
+     *
+     * @param retryAfter Retry-After响应头
+     * @return 等待时间（毫秒），为空或无法解析时返回-1
+     */
+    public static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // 不是秒数，按HTTP日期解析
+        }
+        try {
+            long at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}